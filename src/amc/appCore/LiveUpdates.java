@@ -0,0 +1,68 @@
+package amc.appCore;
+
+import amc.dataAccess.ChangeFeed;
+import amc.dataAccess.RecordChange;
+
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+import javax.swing.table.DefaultTableModel;
+import java.awt.event.HierarchyEvent;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * This class connects screens to the ChangeFeed so open tables update themselves after a save.
+ * Changes are handed to the screen on the Swing thread, and only while the screen is shown in a window;
+ * closing the window or switching to another panel stops them.
+ */
+public final class LiveUpdates {
+
+    private LiveUpdates(){}
+
+    /** Calls the listener on the Swing thread for every saved change to this record type while the component is on screen. */
+    public static <T> void bind(JComponent owner, Class<T> recordClass, Consumer<RecordChange<T>> listener) {
+        Consumer<RecordChange<T>> onUiThread = change -> {
+            if (SwingUtilities.isEventDispatchThread()) {
+                listener.accept(change);
+            } else {
+                SwingUtilities.invokeLater(() -> listener.accept(change));
+            }
+        };
+        ChangeFeed.Subscription[] current = new ChangeFeed.Subscription[1];
+        if (owner.isDisplayable()) current[0] = ChangeFeed.subscribe(recordClass, onUiThread);
+        owner.addHierarchyListener(event -> {
+            if ((event.getChangeFlags() & HierarchyEvent.DISPLAYABILITY_CHANGED) == 0) return;
+            if (owner.isDisplayable() && current[0] == null) {
+                current[0] = ChangeFeed.subscribe(recordClass, onUiThread);
+            } else if (!owner.isDisplayable() && current[0] != null) {
+                current[0].close();
+                current[0] = null;
+            }
+        });
+    }
+
+    /**
+     * Replaces the table row whose id column holds the id, or adds the row at the end if there is none.
+     * A null row removes the matching row instead.
+     */
+    public static void patchRow(DefaultTableModel model, int idColumn, String id, Object[] row) {
+        int index = rowOf(model, idColumn, id);
+        if (row == null) {
+            if (index >= 0) model.removeRow(index);
+        } else if (index >= 0) {
+            for (int column = 0; column < row.length; column++) {
+                model.setValueAt(row[column], index, column);
+            }
+        } else {
+            model.addRow(row);
+        }
+    }
+
+    /** Returns the index of the row whose id column holds the id, or -1. */
+    public static int rowOf(DefaultTableModel model, int idColumn, String id) {
+        for (int index = 0; index < model.getRowCount(); index++) {
+            if (Objects.equals(Objects.toString(model.getValueAt(index, idColumn), null), id)) return index;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,63 @@
+package amc.appCore;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/**
+ * This class is a read-only table model for long lists that loads rows a page at a time.
+ * The table asks only for the rows it paints, so opening a screen reads the total count and the
+ * first page, and scrolling reads the pages that come into view. A few recent pages are kept.
+ */
+public final class PagedTableModel extends AbstractTableModel {
+
+    /** Loads the rows from the offset on, at most limit of them. */
+    public interface PageLoader {
+        List<Object[]> load(int offset, int limit);
+    }
+
+    private static final int pageSize = 50;
+    private static final int pagesKept = 8;
+
+    private final String[] columnNames;
+    private final IntSupplier counter;
+    private final PageLoader loader;
+    private int rowCount;
+
+    // Loaded pages by page number, least recently used first.
+    private final Map<Integer, List<Object[]>> pages = new LinkedHashMap<Integer, List<Object[]>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Object[]>> eldest) {
+            return size() > pagesKept;
+        }
+    };
+
+    public PagedTableModel(String[] columnNames, IntSupplier counter, PageLoader loader) {
+        this.columnNames = columnNames;
+        this.counter = counter;
+        this.loader = loader;
+        this.rowCount = counter.getAsInt();
+    }
+
+    /** Forgets the loaded pages and reads the count again, after records were saved. */
+    public void refresh() {
+        pages.clear();
+        rowCount = counter.getAsInt();
+        fireTableDataChanged();
+    }
+
+    @Override public int getRowCount() { return rowCount; }
+    @Override public int getColumnCount() { return columnNames.length; }
+    @Override public String getColumnName(int column) { return columnNames[column]; }
+    @Override public boolean isCellEditable(int row, int column) { return false; }
+
+    // A row past the end of its page (records deleted since the count) shows as blank.
+    @Override
+    public Object getValueAt(int row, int column) {
+        List<Object[]> page = pages.computeIfAbsent(row / pageSize, number -> loader.load(number * pageSize, pageSize));
+        int index = row % pageSize;
+        return index < page.size() ? page.get(index)[column] : null;
+    }
+}
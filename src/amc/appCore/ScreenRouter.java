@@ -1,7 +1,10 @@
 package amc.appCore;
 
+import amc.dataConstants.RoleTypes;
 import amc.userSession;
 import javax.swing.JOptionPane;
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * This class decides which dashboard to open after login.
@@ -18,16 +21,19 @@ public final class ScreenRouter {
         tryOpenFrame(targetClass);
     }
 
-    // Return the full class name of the dashboard for a role.
+    // The dashboard class name of each role.
+    private static final Map<RoleTypes, String> dashboards = new EnumMap<>(RoleTypes.class);
+    static {
+        dashboards.put(RoleTypes.MANAGER,  "amc.roleModules.Manager.managerScreens.ManagerDashboard");
+        dashboards.put(RoleTypes.STAFF,    "amc.roleModules.Staff.staffScreens.mainView");
+        dashboards.put(RoleTypes.DOCTOR,   "amc.roleModules.Doctor.doctorScreens.DoctorDashboard");
+        dashboards.put(RoleTypes.CUSTOMER, "amc.roleModules.Customer.customerScreens.CustomerDashboard");
+    }
+
+    // Return the full class name of the dashboard for a role, in any case.
     public static String getTargetDashboardClassName(String role) {
-        if (role == null) return null;
-        switch (role) {
-            case "MANAGER":  return "amc.roleModules.Manager.managerScreens.ManagerDashboard";
-            case "STAFF":    return "amc.roleModules.Staff.staffScreens.mainView";
-            case "DOCTOR":   return "amc.roleModules.Doctor.doctorScreens.DoctorDashboard";
-            case "CUSTOMER": return "amc.roleModules.Customer.customerScreens.CustomerDashboard";
-            default:         return null;
-        }
+        RoleTypes roleType = RoleTypes.parse(role);
+        return roleType == null ? null : dashboards.get(roleType);
     }
 
     // Try to create and show the dashboard window by class name.
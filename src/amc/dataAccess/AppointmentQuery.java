@@ -0,0 +1,232 @@
+package amc.dataAccess;
+
+import amc.dataConstants.AppointmentStatusTypes;
+import amc.dataModels.Appointment;
+import amc.dataModels.User;
+import amc.helperUtils.IdNames;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * This class finds appointments by any mix of doctor, customer, statuses, date range and search text.
+ * Set the conditions, then call list():
+ *
+ *     AppointmentQuery.create().customer("U005").status(AppointmentStatusTypes.COMPLETED).list();
+ *
+ * Every condition that has an index (doctor, customer, status, date) is counted first, and only
+ * the one with the fewest matches is read. The other conditions are then checked on those
+ * appointments alone. With no indexed condition every appointment is read.
+ * A null or blank value leaves that condition out. Doctor and customer ids, status names and
+ * the search text all ignore case. Status names that are no status match nothing.
+ */
+public final class AppointmentQuery {
+
+    /** The order of the results. Appointments without a date always come last. */
+    public enum Sort { EARLIEST_FIRST, NEWEST_FIRST }
+
+    // Held as index keys, in upper case.
+    private String doctorId;
+    private String customerId;
+    private final Set<AppointmentStatusTypes> statuses = EnumSet.noneOf(AppointmentStatusTypes.class);
+    // Set once any status is asked for, even one that names no status, so the query then matches only those.
+    private boolean byStatus;
+    private LocalDate from;
+    private LocalDate to;
+    private String text;
+    private Sort sort = Sort.EARLIEST_FIRST;
+    private int limit;
+
+    private AppointmentQuery() {}
+
+    /** Starts a query that matches every appointment. */
+    public static AppointmentQuery create() {
+        return new AppointmentQuery();
+    }
+
+    /** Keeps only this doctor's appointments. */
+    public AppointmentQuery doctor(String doctorId) {
+        this.doctorId = AppointmentRepository.idKey(blankToNull(doctorId));
+        return this;
+    }
+
+    /** Keeps only this customer's appointments. */
+    public AppointmentQuery customer(String customerId) {
+        this.customerId = AppointmentRepository.idKey(blankToNull(customerId));
+        return this;
+    }
+
+    /** Keeps only appointments with one of these statuses. Calling it again adds more statuses. */
+    public AppointmentQuery status(AppointmentStatusTypes... statuses) {
+        for (AppointmentStatusTypes status : statuses) {
+            if (status == null) continue;
+            this.statuses.add(status);
+            byStatus = true;
+        }
+        return this;
+    }
+
+    /** Keeps only appointments with one of these status names. Calling it again adds more statuses. */
+    public AppointmentQuery status(String... statuses) {
+        return statuses(Arrays.asList(statuses));
+    }
+
+    /** Keeps only appointments with one of these status names. Calling it again adds more statuses. */
+    public AppointmentQuery statuses(Collection<String> statuses) {
+        for (String status : statuses) {
+            if (blankToNull(status) == null) continue;
+            AppointmentStatusTypes statusType = AppointmentStatusTypes.parse(status);
+            if (statusType != null) this.statuses.add(statusType);
+            byStatus = true;
+        }
+        return this;
+    }
+
+    /** Keeps only appointments dated between two days, both included. A null day leaves that side open. */
+    public AppointmentQuery between(LocalDate from, LocalDate to) {
+        this.from = from;
+        this.to = to;
+        return this;
+    }
+
+    /** Keeps only appointments whose id, customer id, patient name or doctor name contains the text. */
+    public AppointmentQuery matching(String text) {
+        String trimmed = blankToNull(text);
+        this.text = trimmed == null ? null : trimmed.trim().toLowerCase(Locale.ROOT);
+        return this;
+    }
+
+    /** Sets the order of the results. Earliest first by default. */
+    public AppointmentQuery sortBy(Sort sort) {
+        this.sort = sort;
+        return this;
+    }
+
+    /** Returns at most this many appointments, after sorting. Zero means no limit. */
+    public AppointmentQuery limit(int maxResults) {
+        this.limit = Math.max(0, maxResults);
+        return this;
+    }
+
+    /** Runs the query. The list is a fresh copy the caller may change. */
+    public List<Appointment> list() {
+        return list(AppointmentRepository.store());
+    }
+
+    // Runs the query on one store. Package-private so tests can see which lookups a plan makes.
+    List<Appointment> list(RecordStore<Appointment> store) {
+        List<Appointment> candidates = candidates(store);
+        if (candidates.isEmpty()) return candidates;
+
+        IdNames namesById = text == null ? null : loadNamesById();
+        List<Appointment> matches = new ArrayList<Appointment>();
+        for (Appointment appointment : candidates) {
+            if (matches(appointment, namesById)) matches.add(appointment);
+        }
+        matches.sort(sort == Sort.NEWEST_FIRST ? newestFirst : earliestFirst);
+        return limit > 0 && matches.size() > limit ? new ArrayList<Appointment>(matches.subList(0, limit)) : matches;
+    }
+
+    // Count every indexed condition and read only the smallest one.
+    private List<Appointment> candidates(RecordStore<Appointment> store) {
+        Plan plan = new Plan();
+        if (customerId != null) {
+            plan.consider(store.countBy(AppointmentRepository.customerIndex, customerId),
+                    () -> store.findBy(AppointmentRepository.customerIndex, customerId));
+        }
+        if (doctorId != null) {
+            plan.consider(store.countBy(AppointmentRepository.doctorIndex, doctorId),
+                    () -> store.findBy(AppointmentRepository.doctorIndex, doctorId));
+        }
+        if (byStatus) {
+            int count = 0;
+            for (AppointmentStatusTypes status : statuses) {
+                count += store.countBy(AppointmentRepository.statusIndex, status.name());
+            }
+            plan.consider(count, () -> {
+                List<Appointment> withStatus = new ArrayList<Appointment>();
+                for (AppointmentStatusTypes status : statuses) {
+                    withStatus.addAll(store.findBy(AppointmentRepository.statusIndex, status.name()));
+                }
+                return withStatus;
+            });
+        }
+        if (from != null || to != null) {
+            plan.consider(store.countBetween(from, to), () -> store.listBetween(from, to));
+        }
+        if (plan.fetch == null) return store.readAll();
+        return plan.count == 0 ? new ArrayList<Appointment>() : plan.fetch.get();
+    }
+
+    // Check every condition, including the one the candidates came from.
+    private boolean matches(Appointment appointment, IdNames namesById) {
+        if (customerId != null && !customerId.equals(AppointmentRepository.idKey(appointment.getCustomerId()))) return false;
+        if (doctorId != null && !doctorId.equals(AppointmentRepository.idKey(appointment.getDoctorId()))) return false;
+        if (byStatus && !statuses.contains(appointment.getStatusType())) return false;
+        if (from != null || to != null) {
+            String time = appointment.getDateTimeIso();
+            if (!TimeIndex.isDated(time)) return false;
+            if (from != null && time.compareTo(from.toString()) < 0) return false;
+            // "2025-08-28" sorts before every time on that day, so the next day is an exclusive upper bound.
+            if (to != null && time.compareTo(to.plusDays(1).toString()) >= 0) return false;
+        }
+        if (text != null) {
+            return contains(appointment.getAppointmentId())
+                    || contains(appointment.getCustomerId())
+                    || contains(namesById.get(appointment.getCustomerId()))
+                    || contains(namesById.get(appointment.getDoctorId()));
+        }
+        return true;
+    }
+
+    private boolean contains(String value) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(text);
+    }
+
+    private static IdNames loadNamesById() {
+        List<User> users = new UserRepository().findAll();
+        IdNames namesById = new IdNames(users.size());
+        for (User user : users) {
+            namesById.put(user.getUserId(), user.getName());
+        }
+        return namesById;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value;
+    }
+
+    // ISO timestamps sort the same as text. Undated appointments go last in both orders.
+    private static final Comparator<Appointment> earliestFirst = (a, b) -> compareTimes(a, b, false);
+    private static final Comparator<Appointment> newestFirst = (a, b) -> compareTimes(a, b, true);
+
+    private static int compareTimes(Appointment a, Appointment b, boolean newestFirst) {
+        String x = a.getDateTimeIso();
+        String y = b.getDateTimeIso();
+        boolean xDated = TimeIndex.isDated(x);
+        boolean yDated = TimeIndex.isDated(y);
+        if (!xDated || !yDated) return xDated == yDated ? 0 : (xDated ? -1 : 1);
+        return newestFirst ? y.compareTo(x) : x.compareTo(y);
+    }
+
+    // The cheapest way found so far to fetch the candidates.
+    private static final class Plan {
+        int count = Integer.MAX_VALUE;
+        Supplier<List<Appointment>> fetch;
+
+        void consider(int matches, Supplier<List<Appointment>> lookup) {
+            if (matches < count) {
+                count = matches;
+                fetch = lookup;
+            }
+        }
+    }
+}
@@ -1,13 +1,15 @@
 package amc.dataAccess;
 
+import amc.dataConstants.AppointmentStatusTypes;
 import amc.dataModels.Appointment;
 import amc.helperUtils.DataPaths;
-import amc.helperUtils.JsonStore;
 import com.google.gson.reflect.TypeToken;
 
 import java.lang.reflect.Type;
-import java.util.ArrayList;
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 /** This class loads appointment records and provides simple read queries. */
@@ -16,66 +18,88 @@ public class AppointmentRepository {
     // This tells Gson we are reading and writing List<Appointment>.
     private static final Type listType = new TypeToken<List<Appointment>>(){}.getType();
 
+    // Per-person lookups read only the matching appointments. AppointmentQuery plans against these too.
+    // Ids are indexed in upper case so "u200" finds U200, like the equalsIgnoreCase filters they replaced.
+    static final String doctorIndex = "doctorKey";
+    static final String customerIndex = "customerKey";
+    // Statuses are indexed in upper case so "Completed" and "COMPLETED" share a key.
+    static final String statusIndex = "status";
+
+    // Sorted by the appointment date, and partitioned by its month when month partitions are on.
+    static final EntityDefinition<Appointment> entity =
+            new EntityDefinition<Appointment>("appointments", DataPaths.appointmentDataPath, listType,
+                    Appointment.class, "appointmentId", Appointment::getAppointmentId)
+                    .datedBy(Appointment::getDateTimeIso, DataPaths.appointmentPartitionFolder)
+                    .indexedBy(doctorIndex, appointment -> idKey(appointment.getDoctorId()))
+                    .indexedBy(customerIndex, appointment -> idKey(appointment.getCustomerId()))
+                    .indexedBy(statusIndex, AppointmentRepository::statusKey);
+
+    // Shared by every repository instance so the journal state is loaded once.
+    private static final RecordStore<Appointment> store = StorageBackend.configured().open(entity);
+
     /** Returns all appointments from the file. */
     public List<Appointment> listAll() {
-        return JsonStore.readList(DataPaths.appointmentDataPath, listType);
+        return store.readAll();
     }
 
-    /** Returns appointments for one doctor. */
+    /** Returns appointments for one doctor. The id ignores case. */
     public List<Appointment> listByDoctor(String doctorId) {
-        List<Appointment> all = JsonStore.readList(DataPaths.appointmentDataPath, listType);
-        List<Appointment> result = new ArrayList<Appointment>();
-        for (Appointment a : all) {
-            if (a.getDoctorId() != null && a.getDoctorId().equals(doctorId)) {
-                result.add(a);
-            }
-        }
-        return result;
+        return store.findBy(doctorIndex, idKey(doctorId));
     }
 
-    /** Returns appointments for one customer. */
+    /** Returns appointments for one customer. The id ignores case. */
     public List<Appointment> listByCustomer(String customerId) {
-        List<Appointment> all = JsonStore.readList(DataPaths.appointmentDataPath, listType);
-        List<Appointment> result = new ArrayList<Appointment>();
-        for (Appointment a : all) {
-            if (a.getCustomerId() != null && a.getCustomerId().equals(customerId)) {
-                result.add(a);
-            }
-        }
-        return result;
+        return store.findBy(customerIndex, idKey(customerId));
+    }
+
+    /** Returns appointments dated between two days, both included, earliest first. A null day leaves that side open. */
+    public List<Appointment> listBetween(LocalDate from, LocalDate to) {
+        return store.listBetween(from, to);
+    }
+
+    /** Returns all appointments earliest first. Appointments without a date come last. */
+    public List<Appointment> listInTimeOrder() {
+        return store.listInTimeOrder();
+    }
+
+    /** Returns how many appointments there are, for paging. */
+    public int countAll() {
+        return store.count();
+    }
+
+    /** Returns at most limit appointments from the offset on, in stored order, with only the named fields. */
+    public List<RowView> listRows(int offset, int limit, String... fields) {
+        return store.readRows(offset, limit, Arrays.asList(fields));
     }
 
     // Search an entire appointment record by its ID
     public Optional<Appointment> findByID(String appointmentID) {
-        List<Appointment> app = JsonStore.readList(DataPaths.appointmentDataPath, listType);
-
-        for (Appointment a: app) {
-            if (a.getAppointmentId() != null && a.getAppointmentId().equalsIgnoreCase(appointmentID)) {
-                return Optional.of(a);
-            }
-        }
-        return Optional.empty();
+        return store.findById(appointmentID);
     }
 
+    // Replace the appointment with the same ID, or add it if it is new.
     public void saveOrUpdate(Appointment newAppointment) {
-        List<Appointment> app = JsonStore.readList(DataPaths.appointmentDataPath, listType);
-        List<Appointment> updatedAppointment = new ArrayList<>();
+        store.upsert(newAppointment);
+    }
 
-        boolean replaced = false;
+    // Used by AppointmentQuery to probe the indexes directly.
+    static RecordStore<Appointment> store() {
+        return store;
+    }
 
-        for (Appointment existingAppointment: app) {
-            if (existingAppointment.getAppointmentId() != null && existingAppointment.getAppointmentId().equals(newAppointment.getAppointmentId())) {
-                updatedAppointment.add(newAppointment); // Replace the existing one
-                replaced = true;
-            } else {
-                updatedAppointment.add(existingAppointment); // Keep the others
-            }
-        }
+    // The doctor and customer index key of an id: the id in upper case.
+    static String idKey(String id) {
+        return id == null ? null : id.toUpperCase(Locale.ROOT);
+    }
 
-        if (!replaced) {
-            updatedAppointment.add(newAppointment);
-        }
+    // The status index key of an appointment: the name of its status constant.
+    static String statusKey(Appointment appointment) {
+        AppointmentStatusTypes status = appointment.getStatusType();
+        return status == null ? null : status.name();
+    }
 
-        JsonStore.writeList(DataPaths.appointmentDataPath, updatedAppointment, listType);
+    // Used by UnitOfWork to write many appointments at once. Returns false if the write failed.
+    static boolean applyBatch(List<Appointment> saves, List<String> deleteIds) {
+        return store.applyBatch(saves, deleteIds);
     }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package amc.dataAccess;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * This class lets screens hear about saved records without re-reading files.
+ * Repositories publish a RecordChange after every create, update and delete, and every
+ * listener subscribed to that record type gets it on the thread that saved.
+ * Only changes made by this program are published; another workstation's saves are not.
+ */
+public final class ChangeFeed {
+    private ChangeFeed() {} // Prevents instantiation.
+
+    /** Stops the listener. Closing twice does nothing. */
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final Map<Class<?>, List<Consumer<RecordChange<?>>>> listeners = new ConcurrentHashMap<>();
+
+    /** Calls the listener for every saved change to records of this type, until the subscription is closed. */
+    @SuppressWarnings("unchecked")
+    public static <T> Subscription subscribe(Class<T> recordClass, Consumer<RecordChange<T>> listener) {
+        Consumer<RecordChange<?>> entry = change -> listener.accept((RecordChange<T>) change);
+        List<Consumer<RecordChange<?>>> forType = listeners.computeIfAbsent(recordClass, key -> new CopyOnWriteArrayList<>());
+        forType.add(entry);
+        return () -> forType.remove(entry);
+    }
+
+    /** Returns true if anyone listens to this record type, so repositories can skip building events. */
+    static boolean hasSubscribers(Class<?> recordClass) {
+        List<Consumer<RecordChange<?>>> forType = listeners.get(recordClass);
+        return forType != null && !forType.isEmpty();
+    }
+
+    /** Sends one change to the listeners of its record type. A failing listener does not stop the others. */
+    static <T> void publish(Class<T> recordClass, RecordChange<T> change) {
+        List<Consumer<RecordChange<?>>> forType = listeners.get(recordClass);
+        if (forType == null) return;
+        for (Consumer<RecordChange<?>> listener : forType) {
+            try {
+                listener.accept(change);
+            } catch (Exception ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+}
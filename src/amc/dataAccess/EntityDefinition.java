@@ -0,0 +1,57 @@
+package amc.dataAccess;
+
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * This class describes one entity for the storage backends: its name, JSON file, id,
+ * optional timestamp, and the fields that get an index. Each repository defines its entity once.
+ */
+final class EntityDefinition<T> {
+
+    private final String name;
+    private final String dataPath;
+    private final Type listType;
+    private final Class<T> recordClass;
+    private final String idField;
+    private final Function<T, String> idOf;
+    private Function<T, String> timeOf;
+    private String partitionFolder;
+    private final Map<String, Function<T, String>> indexes = new LinkedHashMap<String, Function<T, String>>();
+
+    EntityDefinition(String name, String dataPath, Type listType, Class<T> recordClass,
+                     String idField, Function<T, String> idOf) {
+        this.name = name;
+        this.dataPath = dataPath;
+        this.listType = listType;
+        this.recordClass = recordClass;
+        this.idField = idField;
+        this.idOf = idOf;
+    }
+
+    /** Sorts the records by an ISO timestamp field, and stores them per month in the folder when month partitions are on. */
+    EntityDefinition<T> datedBy(Function<T, String> timeOf, String partitionFolder) {
+        this.timeOf = timeOf;
+        this.partitionFolder = partitionFolder;
+        return this;
+    }
+
+    /** Adds an index on one field, for lookups through findBy. */
+    EntityDefinition<T> indexedBy(String indexName, Function<T, String> keyOf) {
+        indexes.put(indexName, keyOf);
+        return this;
+    }
+
+    String getName() { return name; }
+    String getDataPath() { return dataPath; }
+    Type getListType() { return listType; }
+    Class<T> getRecordClass() { return recordClass; }
+    String getIdField() { return idField; }
+    Function<T, String> getIdOf() { return idOf; }
+    Function<T, String> getTimeOf() { return timeOf; }
+    String getPartitionFolder() { return partitionFolder; }
+    Map<String, Function<T, String>> getIndexes() { return Collections.unmodifiableMap(indexes); }
+}
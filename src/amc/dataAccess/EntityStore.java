@@ -0,0 +1,736 @@
+package amc.dataAccess;
+
+import amc.helperUtils.DataFileLock;
+import amc.helperUtils.JsonJournal;
+import amc.helperUtils.JsonStore;
+import amc.helperUtils.RecordOffsetReader;
+import amc.helperUtils.StorageSettings;
+
+import com.google.gson.JsonObject;
+
+import java.io.File;
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * This class stores the records of one entity file for a repository.
+ * By default every change rewrites the JSON file. In journal mode a change is appended
+ * to a per-entity log instead, the current state is rebuilt on load, and a background
+ * task folds the log into a fresh JSON snapshot once it grows past the threshold.
+ * Changes are serialized per entity, so two screens saving at once cannot lose each other's update:
+ * journal appends under the store's monitor, file writes in JsonStore's queue for the file. A file write
+ * holds no monitor while it waits for the disk, so writes that arrive together share one rewrite.
+ * Across workstations sharing the data folder, each change is a replayable step on the record list,
+ * so a write that finds a newer file from another workstation re-applies it there instead of overwriting.
+ * Id lookups use a hash index keyed by the upper-case id. Repositories can add indexes on other
+ * fields with addIndex. A change made through this store is applied to the indexes as it is queued;
+ * the indexes are rebuilt only when the records changed some other way, like another workstation's write.
+ */
+final class EntityStore<T> implements RecordStore<T> {
+
+    // One background thread compacts journals for all entities.
+    private static final ExecutorService compactor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "journal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String dataPath;
+    private final String journalPath;
+    private final Type listType;
+    private final Class<T> recordClass;
+    private final String idField;
+    private final Function<T, String> idOf;
+
+    // Journal mode state: records by id in file order, and the file sizes they were built from.
+    private Map<String, T> journalState;
+    private long knownJournalLength = -1;
+    private long knownDataModified = -1;
+    private long knownDataLength = -1;
+    private boolean compactionQueued;
+    private boolean leftoverJournalFolded;
+    private int unnamedCounter;
+
+    // Id index: upper-case id to the first record with that id.
+    private Map<String, T> idIndex;
+    // Other indexes by name, and the list or map every index was last built from.
+    private final Map<String, RecordIndex<T>> indexes = new LinkedHashMap<String, RecordIndex<T>>();
+    private TimeIndex<T> timeIndex;
+    private Object indexedRecords;
+    // The place of every indexed record in file order, so a changed record goes back to its place.
+    private Map<T, Long> positions;
+    private long nextPosition;
+    // True when no two records share an id, even in another case, and no record is listed twice.
+    // Only then does a change by id touch exactly the records the indexes find for it.
+    private boolean changesByIdApply;
+    private final Comparator<T> fileOrder = (a, b) -> Long.compare(positions.get(a), positions.get(b));
+
+    EntityStore(String dataPath, Type listType, Class<T> recordClass, String idField, Function<T, String> idOf) {
+        this.dataPath = dataPath;
+        this.journalPath = JsonJournal.journalPathFor(dataPath);
+        this.listType = listType;
+        this.recordClass = recordClass;
+        this.idField = idField;
+        this.idOf = idOf;
+    }
+
+    /** Returns every record in file order. The list is a fresh copy the caller may change. */
+    @Override
+    public List<T> readAll() {
+        if (!StorageSettings.isJournalMode()) {
+            foldLeftoverJournal();
+            return JsonStore.readList(dataPath, listType);
+        }
+        synchronized (this) {
+            loadJournalStateIfChanged();
+            return new ArrayList<T>(journalState.values());
+        }
+    }
+
+    /**
+     * Returns the first record whose id matches, ignoring case, through the id index.
+     * When the file is not already parsed in memory, only the bytes of the matching record are read,
+     * at the offset found by RecordOffsetReader.
+     */
+    @Override
+    public Optional<T> findById(String id) {
+        if (id == null) return Optional.empty();
+        if (StorageSettings.isJournalMode()) {
+            synchronized (this) {
+                loadJournalStateIfChanged();
+                refreshIndexes(journalState);
+                return Optional.ofNullable(idIndex.get(upperCase(id)));
+            }
+        }
+        foldLeftoverJournal();
+        List<T> records = JsonStore.peekShared(dataPath, listType);
+        if (records == null) {
+            RecordOffsetReader reader = RecordOffsetReader.open(dataPath, idField);
+            if (reader != null) {
+                int index = reader.indexOfKey(id);
+                if (index < 0) return Optional.empty();
+                T found = reader.read(index, recordClass);
+                if (found != null) return Optional.of(found);
+                // The file changed after the scan, or the record did not parse; read the whole file instead.
+            }
+            records = JsonStore.readShared(dataPath, listType);
+        }
+        synchronized (this) {
+            refreshIndexes(records);
+            return Optional.ofNullable(idIndex.get(upperCase(id)));
+        }
+    }
+
+    /** Adds an index on one field, for lookups through findBy. Call it before the store is used. */
+    synchronized void addIndex(String indexName, Function<T, String> keyOf) {
+        indexes.put(indexName, new RecordIndex<T>(keyOf));
+        indexedRecords = null;
+    }
+
+    /** Keeps the records sorted by a timestamp field, for listBetween. Call it before the store is used. */
+    synchronized void setTimeIndex(Function<T, String> timeOf) {
+        timeIndex = new TimeIndex<T>(timeOf);
+        indexedRecords = null;
+    }
+
+    /** Returns the records whose indexed field equals the key, in file order. */
+    @Override
+    public List<T> findBy(String indexName, String key) {
+        return queryIndexes(() -> indexes.get(indexName).get(key));
+    }
+
+    /** Returns the records dated between two days, both included, earliest first. A null day is open. */
+    @Override
+    public List<T> listBetween(LocalDate from, LocalDate to) {
+        return queryIndexes(() -> timeIndex.between(from, to));
+    }
+
+    /** Returns every record earliest first; records without a date come last. */
+    @Override
+    public List<T> listInTimeOrder() {
+        return queryIndexes(() -> timeIndex.inOrder());
+    }
+
+    /** Returns how many records findBy would return. */
+    @Override
+    public int countBy(String indexName, String key) {
+        return queryIndexes(() -> indexes.get(indexName).count(key));
+    }
+
+    /** Returns how many records listBetween would return. */
+    @Override
+    public int countBetween(LocalDate from, LocalDate to) {
+        return queryIndexes(() -> timeIndex.countBetween(from, to));
+    }
+
+    /** Returns how many records there are. A file that is not parsed in memory is only scanned for record bounds. */
+    @Override
+    public int count() {
+        if (StorageSettings.isJournalMode()) {
+            synchronized (this) {
+                loadJournalStateIfChanged();
+                return journalState.size();
+            }
+        }
+        foldLeftoverJournal();
+        List<T> records = JsonStore.peekShared(dataPath, listType);
+        if (records == null) {
+            RecordOffsetReader reader = RecordOffsetReader.open(dataPath, idField);
+            if (reader != null) return reader.recordCount();
+            records = JsonStore.readShared(dataPath, listType);
+        }
+        return records.size();
+    }
+
+    /**
+     * Returns one page of records cut down to the named fields. When the file is not already parsed
+     * in memory, only the bytes of the page are read, at the record offsets found by RecordOffsetReader.
+     */
+    @Override
+    public List<RowView> readRows(int offset, int limit, List<String> fields) {
+        if (StorageSettings.isJournalMode()) {
+            synchronized (this) {
+                loadJournalStateIfChanged();
+                return RowView.page(journalState.values(), offset, limit, fields);
+            }
+        }
+        foldLeftoverJournal();
+        List<T> records = JsonStore.peekShared(dataPath, listType);
+        if (records == null) {
+            RecordOffsetReader reader = RecordOffsetReader.open(dataPath, idField);
+            List<JsonObject> page = reader == null ? null
+                    : reader.readFields(Math.min(offset, reader.recordCount()), Math.min(offset + limit, reader.recordCount()), fields);
+            if (page != null) {
+                List<RowView> rows = new ArrayList<RowView>();
+                for (JsonObject record : page) {
+                    rows.add(RowView.of(record, fields));
+                }
+                return rows;
+            }
+            records = JsonStore.readShared(dataPath, listType);
+        }
+        return RowView.page(records, offset, limit, fields);
+    }
+
+    /** Returns one page of the records with this key, through the index. The index holds every record in memory. */
+    @Override
+    public List<RowView> readRowsBy(String indexName, String key, int offset, int limit, List<String> fields) {
+        return RowView.page(findBy(indexName, key), offset, limit, fields);
+    }
+
+    // Run a lookup on the indexes after rebuilding them if the records changed.
+    private <R> R queryIndexes(Supplier<R> lookup) {
+        if (StorageSettings.isJournalMode()) {
+            synchronized (this) {
+                loadJournalStateIfChanged();
+                refreshIndexes(journalState);
+                return lookup.get();
+            }
+        }
+        foldLeftoverJournal();
+        List<T> records = JsonStore.readShared(dataPath, listType);
+        synchronized (this) {
+            refreshIndexes(records);
+            return lookup.get();
+        }
+    }
+
+    // Rebuild every index if the records differ from the list or map they were built from.
+    // Our own changes keep indexedRecords in step (see changeIndexes), so this runs after outside changes.
+    @SuppressWarnings("unchecked")
+    private void refreshIndexes(Object records) {
+        if (idIndex != null && indexedRecords == records) return;
+        Iterable<T> values = records instanceof Map ? ((Map<String, T>) records).values() : (List<T>) records;
+        Map<String, T> byId = new HashMap<String, T>();
+        Map<T, Long> placed = new IdentityHashMap<T, Long>();
+        boolean unique = true;
+        long position = 0;
+        for (T record : values) {
+            if (placed.put(record, position++) != null) unique = false;
+            String recordId = idOf.apply(record);
+            if (recordId != null && byId.putIfAbsent(upperCase(recordId), record) != null) unique = false;
+        }
+        for (RecordIndex<T> index : indexes.values()) {
+            index.rebuild(values);
+        }
+        if (timeIndex != null) timeIndex.rebuild(values);
+        idIndex = byId;
+        positions = placed;
+        nextPosition = position;
+        changesByIdApply = unique;
+        indexedRecords = records;
+    }
+
+    // Apply one of our own changes to the indexes, if they were built from the records it changed.
+    // The change returns false when it cannot be applied exactly; the indexes are then rebuilt on next use.
+    // Call it holding the monitor.
+    private void changeIndexes(Object changedRecords, Object newRecords, BooleanSupplier change) {
+        if (idIndex == null || indexedRecords != changedRecords || !changesByIdApply) {
+            indexedRecords = null;
+            return;
+        }
+        indexedRecords = null;
+        if (change.getAsBoolean()) indexedRecords = newRecords;
+    }
+
+    // The index side of upsert: the record takes the place of the one with its id, or is added at the end.
+    private boolean indexSave(T record) {
+        String id = idOf.apply(record);
+        T old = id == null ? null : idIndex.get(upperCase(id));
+        if (old == null) return indexAppend(record);
+        // A record changed in place may no longer be where its old values put it, and an id
+        // matching only in another case is stored as a second record; both need a rebuild.
+        if (old == record || positions.containsKey(record) || !id.equals(idOf.apply(old))) return false;
+        positions.put(record, positions.get(old));
+        for (RecordIndex<T> index : indexes.values()) {
+            if (!index.replace(old, record, fileOrder)) return false;
+        }
+        if (timeIndex != null && !timeIndex.replace(old, record, fileOrder)) return false;
+        positions.remove(old);
+        idIndex.put(upperCase(id), record);
+        return true;
+    }
+
+    // The index side of add: the record comes after every other. An id already stored makes a copy.
+    private boolean indexAppend(T record) {
+        if (positions.containsKey(record)) return false;
+        String id = idOf.apply(record);
+        if (id != null && idIndex.putIfAbsent(upperCase(id), record) != null) return false;
+        positions.put(record, nextPosition++);
+        for (RecordIndex<T> index : indexes.values()) {
+            index.add(record);
+        }
+        if (timeIndex != null) timeIndex.add(record);
+        return true;
+    }
+
+    // The index side of delete: the record with exactly this id goes, if there is one.
+    private boolean indexDelete(String id) {
+        T old = id == null ? null : idIndex.get(upperCase(id));
+        if (old == null || !id.equals(idOf.apply(old))) return true;
+        for (RecordIndex<T> index : indexes.values()) {
+            if (!index.remove(old, fileOrder)) return false;
+        }
+        if (timeIndex != null && !timeIndex.remove(old, fileOrder)) return false;
+        positions.remove(old);
+        idIndex.remove(upperCase(id));
+        return true;
+    }
+
+    private static String upperCase(String id) {
+        return id.toUpperCase(Locale.ROOT);
+    }
+
+    /** Returns only the records that pass the filter, without building the full list first. */
+    @Override
+    public List<T> filter(Predicate<? super T> filter) {
+        if (!StorageSettings.isJournalMode()) {
+            foldLeftoverJournal();
+            return JsonStore.stream(dataPath, recordClass, filter);
+        }
+        synchronized (this) {
+            loadJournalStateIfChanged();
+            List<T> matches = new ArrayList<T>();
+            for (T record : journalState.values()) {
+                if (filter.test(record)) matches.add(record);
+            }
+            return matches;
+        }
+    }
+
+    /** Replaces the record with the same id, dropping any copies of it, or adds the record if none matches. */
+    @Override
+    public void upsert(T record) {
+        if (StorageSettings.isJournalMode()) {
+            appendUpsert(record);
+            return;
+        }
+        foldLeftoverJournal();
+        String id = idOf.apply(record);
+        stored(submit(() -> indexSave(record), all -> {
+            List<T> updated = new ArrayList<T>();
+            boolean replaced = false;
+            for (T existing : all) {
+                String existingId = idOf.apply(existing);
+                if (existingId != null && existingId.equals(id)) {
+                    if (!replaced) updated.add(record); // Replace the first one; later copies are dropped.
+                    replaced = true;
+                } else {
+                    updated.add(existing); // Keep the others.
+                }
+            }
+            if (!replaced) {
+                updated.add(record);
+            }
+            return updated;
+        }).await());
+    }
+
+    /** Adds a new record. In journal mode this is an upsert so replaying stays safe. */
+    @Override
+    public void add(T record) {
+        if (StorageSettings.isJournalMode()) {
+            appendUpsert(record);
+            return;
+        }
+        foldLeftoverJournal();
+        stored(submit(() -> indexAppend(record), all -> {
+            all.add(record);
+            return all;
+        }).await());
+    }
+
+    /** Removes every record with the given id. */
+    @Override
+    public void delete(String id) {
+        if (StorageSettings.isJournalMode()) {
+            appendDelete(id);
+            return;
+        }
+        foldLeftoverJournal();
+        stored(submit(() -> indexDelete(id), all -> {
+            all.removeIf(existing -> idOf.apply(existing) != null && idOf.apply(existing).equals(id));
+            return all;
+        }).await());
+    }
+
+    /**
+     * Saves and deletes several records in one pass: one rewrite of the file, or one journal append
+     * with one sync. A save replaces the record with its id or is added at the end, like upsert.
+     * The changes are on disk when this returns. Returns false if the write failed.
+     */
+    @Override
+    public boolean applyBatch(List<T> saves, List<String> deleteIds) {
+        if (saves.isEmpty() && deleteIds.isEmpty()) return true;
+        if (StorageSettings.isJournalMode()) return appendBatch(saves, deleteIds);
+        foldLeftoverJournal();
+        Set<String> deleted = new HashSet<String>(deleteIds);
+        Map<String, T> savedById = new LinkedHashMap<String, T>();
+        List<T> unnamed = new ArrayList<T>();
+        for (T record : saves) {
+            String id = idOf.apply(record);
+            if (id == null) unnamed.add(record); else savedById.put(id, record);
+        }
+        submit(() -> {
+            for (String id : deleteIds) {
+                if (!indexDelete(id)) return false;
+            }
+            for (T record : savedById.values()) {
+                if (!indexSave(record)) return false;
+            }
+            for (T record : unnamed) {
+                if (!indexAppend(record)) return false;
+            }
+            return true;
+        }, all -> {
+            List<T> updated = new ArrayList<T>(all.size() + saves.size());
+            Set<String> replaced = new HashSet<String>();
+            for (T existing : all) {
+                String existingId = idOf.apply(existing);
+                if (existingId != null && deleted.contains(existingId)) continue;
+                T saved = existingId == null ? null : savedById.get(existingId);
+                if (saved != null) {
+                    if (replaced.add(existingId)) updated.add(saved); // Later copies are dropped.
+                } else {
+                    updated.add(existing);
+                }
+            }
+            for (Map.Entry<String, T> saved : savedById.entrySet()) {
+                if (!replaced.contains(saved.getKey())) updated.add(saved.getValue());
+            }
+            updated.addAll(unnamed);
+            return updated;
+        }).await();
+        return JsonStore.flush(dataPath);
+    }
+
+    // In journal mode records are kept by id, so a repeated id keeps only its last record.
+    @Override
+    public boolean addAll(List<T> records) {
+        if (records.isEmpty()) return true;
+        if (StorageSettings.isJournalMode()) return applyBatch(records, new ArrayList<String>());
+        foldLeftoverJournal();
+        submit(() -> {
+            for (T record : records) {
+                if (!indexAppend(record)) return false;
+            }
+            return true;
+        }, all -> {
+            all.addAll(records);
+            return all;
+        }).await();
+        return JsonStore.flush(dataPath);
+    }
+
+    /**
+     * Keeps one record per id, the last copy in the place of the first. The check for copies reads only
+     * the record bounds through RecordOffsetReader, so a clean file is not parsed or rewritten.
+     * In journal mode the state is already one record per id, and it is written as the new data file.
+     */
+    @Override
+    public synchronized int removeDuplicates() {
+        JsonStore.flush(dataPath); // Our own queued writes take the lock too, so drain them first.
+        int copies = duplicatesInFile();
+        if (copies == 0) return 0;
+        if (StorageSettings.isJournalMode()) {
+            try (DataFileLock _ = DataFileLock.acquire(dataPath)) {
+                loadJournalStateIfChanged();
+                return writeSnapshot() ? copies : -1;
+            }
+        }
+        foldLeftoverJournal();
+        int[] removed = new int[1];
+        JsonStore.<T>update(dataPath, listType, all -> {
+            removed[0] = 0;
+            Map<String, Integer> positionById = new HashMap<String, Integer>();
+            List<T> kept = new ArrayList<T>(all.size());
+            for (T record : all) {
+                String id = idOf.apply(record);
+                Integer position = id == null ? null : positionById.get(id);
+                if (position == null) {
+                    if (id != null) positionById.put(id, kept.size());
+                    kept.add(record);
+                } else {
+                    kept.set(position, record);
+                    removed[0]++;
+                }
+            }
+            return kept;
+        });
+        return JsonStore.flush(dataPath) ? removed[0] : -1;
+    }
+
+    // Queue a change to the data file and apply the same change to the indexes. The store's monitor
+    // is held only while the change is queued, so the wait for the disk is shared with other writers.
+    private synchronized JsonStore.PendingWrite<T> submit(BooleanSupplier indexChange, UnaryOperator<List<T>> change) {
+        JsonStore.PendingWrite<T> write = JsonStore.<T>submitUpdate(dataPath, listType, change);
+        changeIndexes(write.before(), write.after(), indexChange);
+        return write;
+    }
+
+    // A JSON write that reports failure becomes a StorageException, so the caller does not take it for a save.
+    private void stored(boolean written) {
+        if (!written) throw new StorageException("Could not write " + dataPath);
+    }
+
+    // Count the records in the data file whose id repeats an earlier one.
+    private int duplicatesInFile() {
+        RecordOffsetReader reader = RecordOffsetReader.open(dataPath, idField);
+        if (reader != null) return reader.duplicateKeyCount();
+        Set<String> seen = new HashSet<String>();
+        int copies = 0;
+        for (T record : JsonStore.<T>readList(dataPath, listType)) {
+            String id = idOf.apply(record);
+            if (id != null && !seen.add(id)) copies++;
+        }
+        return copies;
+    }
+
+    // The lock keeps another workstation's compaction from emptying the journal under our append.
+    /** Adds the records whose id is not stored yet. Used when records move between files. */
+    void addMissing(List<T> records) {
+        if (StorageSettings.isJournalMode()) {
+            synchronized (this) {
+                try (DataFileLock _ = DataFileLock.acquire(dataPath)) {
+                    loadJournalStateIfChanged();
+                    for (T record : records) {
+                        String id = idOf.apply(record);
+                        if (id == null || !journalState.containsKey(id)) appendUpsert(record);
+                    }
+                }
+            }
+            return;
+        }
+        foldLeftoverJournal();
+        stored(submit(() -> {
+            // Only records stored before this change count as present, like storedIds below.
+            long firstAdded = nextPosition;
+            for (T record : records) {
+                String id = idOf.apply(record);
+                T present = id == null ? null : idIndex.get(upperCase(id));
+                if (present != null && id.equals(idOf.apply(present)) && positions.get(present) < firstAdded) continue;
+                if (!indexAppend(record)) return false;
+            }
+            return true;
+        }, all -> {
+            Set<String> storedIds = new HashSet<String>();
+            for (T existing : all) storedIds.add(idOf.apply(existing));
+            for (T record : records) {
+                String id = idOf.apply(record);
+                if (id == null || !storedIds.contains(id)) all.add(record);
+            }
+            return all;
+        }).await());
+    }
+
+    /** Removes every record and empties the journal. The file is on disk when this returns. */
+    synchronized void clear() {
+        JsonStore.flush(dataPath); // Our own queued writes take the lock too, so drain them first.
+        try (DataFileLock _ = DataFileLock.acquire(dataPath)) {
+            JsonStore.writeList(dataPath, new ArrayList<T>(), listType);
+            JsonStore.flush(dataPath);
+            JsonJournal.truncate(journalPath);
+            journalState = null;
+        }
+    }
+
+    private synchronized void appendUpsert(T record) {
+        try (DataFileLock _ = DataFileLock.acquire(dataPath)) {
+            loadJournalStateIfChanged();
+            String id = idOf.apply(record);
+            appended(JsonJournal.appendUpsert(journalPath, id, record));
+            journalState.put(keyFor(id), record);
+            changeIndexes(journalState, journalState, () -> indexSave(record));
+            afterAppend();
+        }
+    }
+
+    private synchronized void appendDelete(String id) {
+        try (DataFileLock _ = DataFileLock.acquire(dataPath)) {
+            loadJournalStateIfChanged();
+            appended(JsonJournal.appendDelete(journalPath, id));
+            journalState.remove(id);
+            changeIndexes(journalState, journalState, () -> indexDelete(id));
+            afterAppend();
+        }
+    }
+
+    // Append every change of a batch as one journal write with one sync.
+    private synchronized boolean appendBatch(List<T> saves, List<String> deleteIds) {
+        try (DataFileLock _ = DataFileLock.acquire(dataPath)) {
+            loadJournalStateIfChanged();
+            List<JsonJournal.Entry<T>> entries = new ArrayList<JsonJournal.Entry<T>>();
+            for (String id : deleteIds) entries.add(JsonJournal.Entry.<T>delete(id));
+            for (T record : saves) entries.add(JsonJournal.Entry.upsert(idOf.apply(record), record));
+            if (!JsonJournal.appendBatch(journalPath, entries)) {
+                journalState = null; // Part of the append may have landed; reload from disk.
+                return false;
+            }
+            for (String id : deleteIds) journalState.remove(id);
+            for (T record : saves) journalState.put(keyFor(idOf.apply(record)), record);
+            changeIndexes(journalState, journalState, () -> {
+                for (String id : deleteIds) {
+                    if (!indexDelete(id)) return false;
+                }
+                for (T record : saves) {
+                    if (!indexSave(record)) return false;
+                }
+                return true;
+            });
+            afterAppend();
+        }
+        return true;
+    }
+
+    // A failed append becomes a StorageException, like a failed file write. Part of the line may
+    // have landed, so the state is read from disk again on the next use.
+    private void appended(boolean written) {
+        if (written) return;
+        journalState = null;
+        throw new StorageException("Could not write " + journalPath);
+    }
+
+    // Track our own append so it does not look like an outside change, and compact when large.
+    private void afterAppend() {
+        knownJournalLength = JsonJournal.length(journalPath);
+        if (!compactionQueued && knownJournalLength >= StorageSettings.journalCompactBytes()) {
+            compactionQueued = true;
+            compactor.execute(this::compact);
+        }
+    }
+
+    // Rebuild the state from the data file plus the journal if either changed on disk.
+    private void loadJournalStateIfChanged() {
+        File dataFile = new File(dataPath);
+        long journalLength = JsonJournal.length(journalPath);
+        if (journalState != null
+                && journalLength == knownJournalLength
+                && dataFile.lastModified() == knownDataModified
+                && dataFile.length() == knownDataLength) {
+            return;
+        }
+        Map<String, T> state = new LinkedHashMap<String, T>();
+        unnamedCounter = 0;
+        for (T record : JsonStore.<T>readList(dataPath, listType)) {
+            state.put(keyFor(idOf.apply(record)), record);
+        }
+        for (JsonJournal.Entry<T> entry : JsonJournal.readEntries(journalPath, recordClass)) {
+            if (entry.isDelete()) {
+                state.remove(entry.getId());
+            } else {
+                state.put(keyFor(entry.getId()), entry.getRecord());
+            }
+        }
+        journalState = state;
+        knownJournalLength = journalLength;
+        knownDataModified = dataFile.lastModified();
+        knownDataLength = dataFile.length();
+    }
+
+    // Records without an id still need a distinct slot so they are not merged together.
+    private String keyFor(String id) {
+        return id != null ? id : "\u0000unnamed-" + (unnamedCounter++);
+    }
+
+    // A journal left behind after journal mode was switched off still holds changes.
+    // Fold it into the data file once so the plain file mode sees them.
+    private synchronized void foldLeftoverJournal() {
+        if (leftoverJournalFolded) return;
+        leftoverJournalFolded = true;
+        if (JsonJournal.length(journalPath) == 0) return;
+        JsonStore.flush(dataPath); // Our own queued writes take the lock too, so drain them first.
+        try (DataFileLock _ = DataFileLock.acquire(dataPath)) {
+            loadJournalStateIfChanged();
+            JsonStore.writeList(dataPath, new ArrayList<T>(journalState.values()), listType);
+            JsonStore.flush(dataPath); // The snapshot must be on disk before the journal is emptied.
+            JsonJournal.truncate(journalPath);
+        }
+        journalState = null;
+    }
+
+    // Write the current state as a new snapshot, then empty the journal.
+    // A crash between the two steps only means the journal is replayed over a snapshot that already has it.
+    // The file lock is held throughout, so no workstation appends between the reload and the truncate.
+    private void compact() {
+        synchronized (this) {
+            compactionQueued = false;
+            JsonStore.flush(dataPath); // Our own queued writes take the lock too, so drain them first.
+            try (DataFileLock _ = DataFileLock.acquire(dataPath)) {
+                loadJournalStateIfChanged();
+                if (knownJournalLength < StorageSettings.journalCompactBytes()) return;
+                writeSnapshot();
+            }
+        }
+    }
+
+    // Write the journal state as the data file and empty the journal. Call it holding the file lock.
+    private boolean writeSnapshot() {
+        JsonStore.writeList(dataPath, new ArrayList<T>(journalState.values()), listType);
+        // The snapshot must be on disk before the journal is emptied.
+        if (!JsonStore.flush(dataPath)) return false;
+        JsonJournal.truncate(journalPath);
+        File dataFile = new File(dataPath);
+        knownJournalLength = JsonJournal.length(journalPath);
+        knownDataModified = dataFile.lastModified();
+        knownDataLength = dataFile.length();
+        return true;
+    }
+}
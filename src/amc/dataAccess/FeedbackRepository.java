@@ -2,12 +2,11 @@ package amc.dataAccess;
 
 import amc.dataModels.Feedback;
 import amc.helperUtils.DataPaths;
-import amc.helperUtils.JsonStore;
 import com.google.gson.reflect.TypeToken;
 
 import java.lang.reflect.Type;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 /** This class loads feedback records and provides simple queries. */
 public class FeedbackRepository {
@@ -15,39 +14,41 @@ public class FeedbackRepository {
     // This tells Gson we are reading and writing List<Feedback>.
     private static final Type listType = new TypeToken<List<Feedback>>(){}.getType();
 
+    // Per-person lookups read only the matching feedback.
+    private static final String toUserIndex = "toUserId";
+    private static final String fromUserIndex = "fromUserId";
+
+    static final EntityDefinition<Feedback> entity =
+            new EntityDefinition<Feedback>("feedback", DataPaths.feedbackDataPath, listType,
+                    Feedback.class, "feedbackId", Feedback::getFeedbackId)
+                    .indexedBy(toUserIndex, Feedback::getToUserId)
+                    .indexedBy(fromUserIndex, Feedback::getFromUserId);
+
+    // Shared by every repository instance so the journal state is loaded once.
+    private static final RecordStore<Feedback> store = StorageBackend.configured().open(entity);
+
     /** Returns all feedback from the file. */
     public List<Feedback> listAll() {
-        return JsonStore.readList(DataPaths.feedbackDataPath, listType);
+        return store.readAll();
     }
 
     /** Returns feedback addressed to one doctor. */
     public List<Feedback> listForDoctor(String doctorUserId) {
-        List<Feedback> all = JsonStore.readList(DataPaths.feedbackDataPath, listType);
-        List<Feedback> result = new ArrayList<Feedback>();
-        for (Feedback f : all) {
-            if (f.getToUserId() != null && f.getToUserId().equals(doctorUserId)) {
-                result.add(f);
-            }
-        }
-        return result;
+        return store.findBy(toUserIndex, doctorUserId);
     }
 
     /** Returns feedback written by one customer. */
     public List<Feedback> listForCustomer(String customerUserId) {
-        List<Feedback> all = JsonStore.readList(DataPaths.feedbackDataPath, listType);
-        List<Feedback> result = new ArrayList<Feedback>();
-        for (Feedback f : all) {
-            if (f.getFromUserId() != null && f.getFromUserId().equals(customerUserId)) {
-                result.add(f);
-            }
-        }
-        return result;
+        return store.findBy(fromUserIndex, customerUserId);
+    }
+
+    /** Returns the feedback with this id, ignoring case. */
+    public Optional<Feedback> findByID(String feedbackId) {
+        return store.findById(feedbackId);
     }
 
     /** Adds a new feedback record and saves the file. */
     public void create(Feedback newFeedback) {
-        List<Feedback> all = JsonStore.readList(DataPaths.feedbackDataPath, listType);
-        all.add(newFeedback);
-        JsonStore.writeList(DataPaths.feedbackDataPath, all, listType);
+        store.add(newFeedback);
     }
 }
\ No newline at end of file
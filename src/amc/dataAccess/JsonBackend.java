@@ -0,0 +1,27 @@
+package amc.dataAccess;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/** This backend keeps each entity in its JSON file, or in month files for dated entities. */
+final class JsonBackend extends StorageBackend {
+
+    @Override
+    <T> RecordStore<T> create(EntityDefinition<T> entity) {
+        if (entity.getPartitionFolder() != null) {
+            PartitionedStore<T> store = new PartitionedStore<T>(entity.getDataPath(), entity.getPartitionFolder(),
+                    entity.getListType(), entity.getRecordClass(), entity.getIdField(), entity.getIdOf(), entity.getTimeOf());
+            for (Map.Entry<String, Function<T, String>> index : entity.getIndexes().entrySet()) {
+                store.addIndex(index.getKey(), index.getValue());
+            }
+            return store;
+        }
+        EntityStore<T> store = new EntityStore<T>(entity.getDataPath(), entity.getListType(),
+                entity.getRecordClass(), entity.getIdField(), entity.getIdOf());
+        if (entity.getTimeOf() != null) store.setTimeIndex(entity.getTimeOf());
+        for (Map.Entry<String, Function<T, String>> index : entity.getIndexes().entrySet()) {
+            store.addIndex(index.getKey(), index.getValue());
+        }
+        return store;
+    }
+}
@@ -0,0 +1,599 @@
+package amc.dataAccess;
+
+import amc.helperUtils.DataFileLock;
+import amc.helperUtils.JsonStore;
+import amc.helperUtils.StorageSettings;
+
+import java.io.File;
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * This class stores dated records like appointments and payments.
+ * With month partitions off it is the single entity file. With them on, records live in one file
+ * per month (for example appointmentPartitions/2025-08.json, chosen by the record's timestamp),
+ * plus undated.json for records without a usable date. A date range query only opens the months
+ * it overlaps. Data in the other layout is moved over the first time the store is used.
+ * Reads and writes by id find the months that hold the id through an id index, so they open only
+ * those months, however many months of history there are.
+ * A write that moves a record to another month first notes the move in a pending file. A crash
+ * between the two month writes is finished from that note, so the record is never left in both
+ * months or in neither.
+ */
+final class PartitionedStore<T> implements RecordStore<T> {
+
+    private static final String undatedPartition = "undated";
+
+    private final String dataPath;
+    private final String partitionFolder;
+    private final Type listType;
+    private final Class<T> recordClass;
+    private final String idField;
+    private final Function<T, String> idOf;
+    private final Function<T, String> timeOf;
+    private final EntityStore<T> singleFile;
+    private final String pendingMovePath;
+
+    // One store per partition name, created when first used.
+    private final Map<String, EntityStore<T>> partitions = new ConcurrentHashMap<>();
+
+    // Index definitions, repeated on every partition store.
+    private final Map<String, Function<T, String>> indexKeys = new ConcurrentHashMap<>();
+
+    // The layout the files were last moved into; null until the first check.
+    private volatile Boolean partitionedLayout;
+
+    // Id to the months holding a record with that id. Built from the files on the first use that
+    // needs it and kept up to date by this store's writes; dropped when a write may have half failed.
+    // A record another workstation put in a different month since the build is not seen until then.
+    private Map<String, Set<String>> monthsById;
+
+    // The shape of the pending move file: the month each moved id is saved to, and the deleted ids.
+    private static final class PendingMove {
+        private Map<String, String> targets = new LinkedHashMap<String, String>();
+        private List<String> deletes = new ArrayList<String>();
+    }
+
+    PartitionedStore(String dataPath, String partitionFolder, Type listType, Class<T> recordClass,
+                     String idField, Function<T, String> idOf, Function<T, String> timeOf) {
+        this.dataPath = dataPath;
+        this.partitionFolder = partitionFolder;
+        this.listType = listType;
+        this.recordClass = recordClass;
+        this.idField = idField;
+        this.idOf = idOf;
+        this.timeOf = timeOf;
+        this.singleFile = new EntityStore<T>(dataPath, listType, recordClass, idField, idOf);
+        this.singleFile.setTimeIndex(timeOf);
+        // Not named .json, so it is never listed as a partition.
+        this.pendingMovePath = partitionFolder + "/moves.pending";
+    }
+
+    /** Returns every record, month by month. The list is a fresh copy the caller may change. */
+    @Override
+    public List<T> readAll() {
+        if (!usePartitions()) return singleFile.readAll();
+        List<T> all = new ArrayList<T>();
+        for (String name : partitionNames()) {
+            all.addAll(partitionFor(name).readAll());
+        }
+        return all;
+    }
+
+    /** Returns the first record whose id matches, ignoring case. Only the months the id index names are read. */
+    @Override
+    public Optional<T> findById(String id) {
+        if (!usePartitions()) return singleFile.findById(id);
+        if (id == null) return Optional.empty();
+        for (String name : monthsOf(id)) {
+            Optional<T> found = partitionFor(name).findById(id);
+            if (found.isPresent()) return found;
+        }
+        return Optional.empty();
+    }
+
+    // The months holding the id, or none. Stored ids are upper case, so that form is tried second.
+    private synchronized List<String> monthsOf(String id) {
+        Map<String, Set<String>> index = monthsById();
+        Set<String> months = index.get(id);
+        if (months == null) months = index.get(id.toUpperCase(Locale.ROOT));
+        return months == null ? new ArrayList<String>() : new ArrayList<String>(months);
+    }
+
+    /** Adds an index on one field to the single file and every partition. Call it before the store is used. */
+    void addIndex(String indexName, Function<T, String> keyOf) {
+        indexKeys.put(indexName, keyOf);
+        singleFile.addIndex(indexName, keyOf);
+        for (EntityStore<T> partition : partitions.values()) {
+            partition.addIndex(indexName, keyOf);
+        }
+    }
+
+    /** Returns the records whose indexed field equals the key, month by month. */
+    @Override
+    public List<T> findBy(String indexName, String key) {
+        if (!usePartitions()) return singleFile.findBy(indexName, key);
+        List<T> matches = new ArrayList<T>();
+        for (String name : partitionNames()) {
+            matches.addAll(partitionFor(name).findBy(indexName, key));
+        }
+        return matches;
+    }
+
+    /** Returns only the records that pass the filter. */
+    @Override
+    public List<T> filter(Predicate<? super T> filter) {
+        if (!usePartitions()) return singleFile.filter(filter);
+        List<T> matches = new ArrayList<T>();
+        for (String name : partitionNames()) {
+            matches.addAll(partitionFor(name).filter(filter));
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the records dated from one day to another, both included, earliest first. A null bound is open.
+     * Records without a usable date are never returned. Only partitions inside the range are read.
+     */
+    @Override
+    public List<T> listBetween(LocalDate from, LocalDate to) {
+        if (!usePartitions()) return singleFile.listBetween(from, to);
+        String firstMonth = from == null ? null : YearMonth.from(from).toString();
+        String lastMonth = to == null ? null : YearMonth.from(to).toString();
+        List<T> matches = new ArrayList<T>();
+        for (String name : partitionNames()) {
+            if (name.equals(undatedPartition)) continue;
+            if (firstMonth != null && name.compareTo(firstMonth) < 0) continue;
+            if (lastMonth != null && name.compareTo(lastMonth) > 0) continue;
+            matches.addAll(partitionFor(name).listBetween(from, to));
+        }
+        return matches;
+    }
+
+    /** Returns how many records findBy would return, month by month. */
+    @Override
+    public int countBy(String indexName, String key) {
+        if (!usePartitions()) return singleFile.countBy(indexName, key);
+        int count = 0;
+        for (String name : partitionNames()) {
+            count += partitionFor(name).countBy(indexName, key);
+        }
+        return count;
+    }
+
+    /** Returns how many records listBetween would return. Only partitions inside the range are read. */
+    @Override
+    public int countBetween(LocalDate from, LocalDate to) {
+        if (!usePartitions()) return singleFile.countBetween(from, to);
+        String firstMonth = from == null ? null : YearMonth.from(from).toString();
+        String lastMonth = to == null ? null : YearMonth.from(to).toString();
+        int count = 0;
+        for (String name : partitionNames()) {
+            if (name.equals(undatedPartition)) continue;
+            if (firstMonth != null && name.compareTo(firstMonth) < 0) continue;
+            if (lastMonth != null && name.compareTo(lastMonth) > 0) continue;
+            count += partitionFor(name).countBetween(from, to);
+        }
+        return count;
+    }
+
+    /** Returns how many records there are, month by month. */
+    @Override
+    public int count() {
+        if (!usePartitions()) return singleFile.count();
+        int count = 0;
+        for (String name : partitionNames()) {
+            count += partitionFor(name).count();
+        }
+        return count;
+    }
+
+    /** Returns one page of records, month by month. Months before the page are only counted, months after it are not opened. */
+    @Override
+    public List<RowView> readRows(int offset, int limit, List<String> fields) {
+        if (!usePartitions()) return singleFile.readRows(offset, limit, fields);
+        List<RowView> rows = new ArrayList<RowView>();
+        for (String name : partitionNames()) {
+            if (rows.size() >= limit) break;
+            EntityStore<T> partition = partitionFor(name);
+            int size = partition.count();
+            if (offset >= size) {
+                offset -= size;
+                continue;
+            }
+            rows.addAll(partition.readRows(offset, limit - rows.size(), fields));
+            offset = 0;
+        }
+        return rows;
+    }
+
+    /** Returns one page of the records with this key, month by month. */
+    @Override
+    public List<RowView> readRowsBy(String indexName, String key, int offset, int limit, List<String> fields) {
+        if (!usePartitions()) return singleFile.readRowsBy(indexName, key, offset, limit, fields);
+        List<RowView> rows = new ArrayList<RowView>();
+        for (String name : partitionNames()) {
+            if (rows.size() >= limit) break;
+            EntityStore<T> partition = partitionFor(name);
+            int size = partition.countBy(indexName, key);
+            if (offset >= size) {
+                offset -= size;
+                continue;
+            }
+            rows.addAll(partition.readRowsBy(indexName, key, offset, limit - rows.size(), fields));
+            offset = 0;
+        }
+        return rows;
+    }
+
+    /** Returns every record earliest first; records without a date come last. */
+    @Override
+    public List<T> listInTimeOrder() {
+        if (!usePartitions()) return singleFile.listInTimeOrder();
+        List<T> all = new ArrayList<T>();
+        for (String name : partitionNames()) {
+            all.addAll(partitionFor(name).listInTimeOrder());
+        }
+        return all;
+    }
+
+    /** Replaces the record with the same id, moving it to another month if its date changed. */
+    @Override
+    public void upsert(T record) {
+        if (!usePartitions()) {
+            singleFile.upsert(record);
+            return;
+        }
+        upsertInMonth(record);
+    }
+
+    // The month writes hold this store's monitor, so the id index stays in step with the files.
+    // A record with copies in other months, for example after its date changed, is moved as one batch.
+    private synchronized void upsertInMonth(T record) {
+        String target = partitionNameOf(record);
+        String id = idOf.apply(record);
+        Set<String> months = id == null ? null : monthsById().get(id);
+        if (months != null && !months.equals(Collections.singleton(target))) {
+            if (!applyBatchToMonths(List.of(record), List.of())) {
+                throw new StorageException("Could not move " + id + " to " + partitionFolder + "/" + target + ".json");
+            }
+            return;
+        }
+        partitionFor(target).upsert(record);
+        indexMonth(id, target);
+    }
+
+    /** Keeps one record per id in every partition. Returns how many were removed, or -1 if a partition failed. */
+    @Override
+    public synchronized int removeDuplicates() {
+        if (!usePartitions()) return singleFile.removeDuplicates();
+        int removed = 0;
+        for (String name : partitionNames()) {
+            int fromPartition = partitionFor(name).removeDuplicates();
+            if (fromPartition < 0) return -1;
+            removed += fromPartition;
+        }
+        return removed;
+    }
+
+    /** Adds a new record to the partition of its month. */
+    @Override
+    public void add(T record) {
+        if (!usePartitions()) {
+            singleFile.add(record);
+            return;
+        }
+        addToMonth(record);
+    }
+
+    private synchronized void addToMonth(T record) {
+        String target = partitionNameOf(record);
+        partitionFor(target).add(record);
+        indexMonth(idOf.apply(record), target);
+    }
+
+    /** Removes every record with the given id. */
+    @Override
+    public void delete(String id) {
+        if (!usePartitions()) {
+            singleFile.delete(id);
+            return;
+        }
+        deleteFromMonths(id);
+    }
+
+    private synchronized void deleteFromMonths(String id) {
+        Set<String> months = monthsById().get(id);
+        if (months == null) return;
+        if (months.size() > 1) {
+            if (!applyBatchToMonths(List.of(), List.of(id))) {
+                throw new StorageException("Could not delete " + id + " from " + partitionFolder);
+            }
+            return;
+        }
+        partitionFor(months.iterator().next()).delete(id);
+        monthsById.remove(id);
+    }
+
+    /**
+     * Saves and deletes several records with one write per affected month file.
+     * A saved record whose month changed is removed from its old month in the same pass.
+     * Returns false if any of the writes failed.
+     */
+    @Override
+    public boolean applyBatch(List<T> saves, List<String> deleteIds) {
+        if (!usePartitions()) return singleFile.applyBatch(saves, deleteIds);
+        return applyBatchToMonths(saves, deleteIds);
+    }
+
+    private synchronized boolean applyBatchToMonths(List<T> saves, List<String> deleteIds) {
+        Map<String, Set<String>> index = monthsById();
+        Map<String, List<T>> savesByMonth = new LinkedHashMap<String, List<T>>();
+        Map<String, List<String>> deletesByMonth = new LinkedHashMap<String, List<String>>();
+        PendingMove move = new PendingMove();
+        for (T record : saves) {
+            String target = partitionNameOf(record);
+            savesByMonth.computeIfAbsent(target, key -> new ArrayList<T>()).add(record);
+            String id = idOf.apply(record);
+            for (String name : index.getOrDefault(id, Collections.<String>emptySet())) {
+                if (name.equals(target)) continue;
+                deletesByMonth.computeIfAbsent(name, key -> new ArrayList<String>()).add(id);
+                move.targets.put(id, target);
+            }
+        }
+        for (String id : deleteIds) {
+            Set<String> months = index.getOrDefault(id, Collections.<String>emptySet());
+            for (String name : months) {
+                deletesByMonth.computeIfAbsent(name, key -> new ArrayList<String>()).add(id);
+            }
+            if (months.size() > 1) move.deletes.add(id);
+        }
+        if (move.targets.isEmpty() && move.deletes.isEmpty()) {
+            // No id spans two months, so a failed month leaves no record half moved.
+            return writeMonths(savesByMonth, deletesByMonth);
+        }
+        // The lock lets one workstation at a time use the pending file.
+        try (DataFileLock _ = DataFileLock.acquire(pendingMovePath)) {
+            if (new File(pendingMovePath).exists()) {
+                // Another workstation left a move unfinished. Finish it, then plan again from the result.
+                return finishPendingMove() && applyBatchToMonths(saves, deleteIds);
+            }
+            if (!JsonStore.writeObject(pendingMovePath, move)) {
+                removePendingMove(); // Nothing was written to the months yet.
+                return false;
+            }
+            if (!writeMonths(savesByMonth, deletesByMonth)) return false; // The next index build finishes the move.
+            removePendingMove();
+        }
+        return true;
+    }
+
+    // Write each month's saves and deletes, target months first, so a record being moved is never
+    // missing from every month. Every month is tried even if an earlier one fails.
+    // Keeps the id index in step, or drops it if a month was not written.
+    private boolean writeMonths(Map<String, List<T>> savesByMonth, Map<String, List<String>> deletesByMonth) {
+        boolean written = true;
+        Set<String> touched = new LinkedHashSet<String>(savesByMonth.keySet());
+        touched.addAll(deletesByMonth.keySet());
+        for (String name : touched) {
+            try {
+                written &= partitionFor(name).applyBatch(
+                        savesByMonth.getOrDefault(name, new ArrayList<T>()),
+                        deletesByMonth.getOrDefault(name, new ArrayList<String>()));
+            } catch (StorageException ex) {
+                written = false; // A journal append reports failure this way.
+            }
+        }
+        if (!written) {
+            monthsById = null; // Some months may be unwritten; build the index from the files again.
+            return false;
+        }
+        // A partition applies its deletes before its saves, so a saved id stays in its month.
+        for (Map.Entry<String, List<String>> month : deletesByMonth.entrySet()) {
+            for (String id : month.getValue()) {
+                Set<String> months = monthsById.get(id);
+                if (months == null) continue;
+                months.remove(month.getKey());
+                if (months.isEmpty()) monthsById.remove(id);
+            }
+        }
+        for (Map.Entry<String, List<T>> month : savesByMonth.entrySet()) {
+            for (T record : month.getValue()) indexMonth(idOf.apply(record), month.getKey());
+        }
+        return true;
+    }
+
+    // Finish a move left by a crash or a failed write, here or on another workstation. The caller
+    // holds the pending file's lock. A moved id already in its target month is deleted from the
+    // others; one not there yet was never saved, so its old copy stays. Returns false if still unfinished.
+    private boolean finishPendingMove() {
+        if (!new File(pendingMovePath).exists()) return true;
+        PendingMove move = JsonStore.readObject(pendingMovePath, PendingMove.class);
+        if (move != null) {
+            Map<String, Set<String>> index = monthsById != null ? monthsById : readMonthsById();
+            monthsById = index;
+            Map<String, List<String>> deletesByMonth = new LinkedHashMap<String, List<String>>();
+            for (Map.Entry<String, String> moved : move.targets.entrySet()) {
+                Set<String> months = index.getOrDefault(moved.getKey(), Collections.<String>emptySet());
+                if (!months.contains(moved.getValue())) continue;
+                for (String name : months) {
+                    if (!name.equals(moved.getValue())) deletesByMonth.computeIfAbsent(name, key -> new ArrayList<String>()).add(moved.getKey());
+                }
+            }
+            for (String id : move.deletes) {
+                for (String name : index.getOrDefault(id, Collections.<String>emptySet())) {
+                    deletesByMonth.computeIfAbsent(name, key -> new ArrayList<String>()).add(id);
+                }
+            }
+            if (!writeMonths(new LinkedHashMap<String, List<T>>(), deletesByMonth)) {
+                System.err.println("Could not finish the move in " + pendingMovePath);
+                return false;
+            }
+            System.err.println("Finished the unfinished move in " + pendingMovePath);
+        }
+        removePendingMove();
+        return true;
+    }
+
+    private void removePendingMove() {
+        File pendingFile = new File(pendingMovePath);
+        if (pendingFile.exists() && !pendingFile.delete()) {
+            System.err.println("Could not delete " + pendingMovePath);
+        }
+    }
+
+    /** Adds every record to the partition of its month, with one write per month. */
+    @Override
+    public boolean addAll(List<T> records) {
+        if (!usePartitions()) return singleFile.addAll(records);
+        return addAllToMonths(records);
+    }
+
+    private synchronized boolean addAllToMonths(List<T> records) {
+        Map<String, List<T>> byMonth = new LinkedHashMap<String, List<T>>();
+        for (T record : records) {
+            byMonth.computeIfAbsent(partitionNameOf(record), key -> new ArrayList<T>()).add(record);
+        }
+        boolean written = true;
+        for (Map.Entry<String, List<T>> month : byMonth.entrySet()) {
+            written &= partitionFor(month.getKey()).addAll(month.getValue());
+        }
+        if (!written) {
+            monthsById = null;
+            return false;
+        }
+        for (T record : records) indexMonth(idOf.apply(record), partitionNameOf(record));
+        return true;
+    }
+
+    // The id index, built from every partition the first time it is needed.
+    // A move left unfinished is finished first, so the index never shows a record in two months.
+    private Map<String, Set<String>> monthsById() {
+        if (monthsById == null) {
+            if (new File(pendingMovePath).exists()) {
+                try (DataFileLock _ = DataFileLock.acquire(pendingMovePath)) {
+                    finishPendingMove();
+                }
+            }
+            if (monthsById == null) monthsById = readMonthsById();
+        }
+        return monthsById;
+    }
+
+    private Map<String, Set<String>> readMonthsById() {
+        Map<String, Set<String>> index = new HashMap<String, Set<String>>();
+        for (String name : partitionNames()) {
+            for (T record : partitionFor(name).readAll()) {
+                String id = idOf.apply(record);
+                if (id != null) index.computeIfAbsent(id, key -> new LinkedHashSet<String>()).add(name);
+            }
+        }
+        return index;
+    }
+
+    // Note a record added to a month, if the index is built. Otherwise the next build reads it from the file.
+    private void indexMonth(String id, String name) {
+        if (monthsById == null || id == null) return;
+        monthsById.computeIfAbsent(id, key -> new LinkedHashSet<String>()).add(name);
+    }
+
+    // The month of the record as "yyyy-MM", or the undated partition.
+    private String partitionNameOf(T record) {
+        String timestamp = timeOf.apply(record);
+        if (timestamp == null || timestamp.length() < 7) return undatedPartition;
+        for (int i = 0; i < 7; i++) {
+            char c = timestamp.charAt(i);
+            boolean ok = i == 4 ? c == '-' : Character.isDigit(c);
+            if (!ok) return undatedPartition;
+        }
+        return timestamp.substring(0, 7);
+    }
+
+    private EntityStore<T> partitionFor(String name) {
+        return partitions.computeIfAbsent(name, key -> {
+            EntityStore<T> partition = new EntityStore<T>(partitionFolder + "/" + key + ".json", listType, recordClass, idField, idOf);
+            partition.setTimeIndex(timeOf);
+            for (Map.Entry<String, Function<T, String>> index : indexKeys.entrySet()) {
+                partition.addIndex(index.getKey(), index.getValue());
+            }
+            return partition;
+        });
+    }
+
+    // Partition files on disk in month order; the undated file sorts last.
+    private List<String> partitionNames() {
+        String[] files = new File(partitionFolder).list((folder, name) -> name.endsWith(".json"));
+        if (files == null) return new ArrayList<String>();
+        List<String> names = new ArrayList<String>();
+        for (String file : files) {
+            names.add(file.substring(0, file.length() - ".json".length()));
+        }
+        names.sort((a, b) -> a.equals(undatedPartition) ? 1 : b.equals(undatedPartition) ? -1 : a.compareTo(b));
+        return names;
+    }
+
+    // Read the setting and move the data if the layout on disk does not match it yet.
+    private boolean usePartitions() {
+        boolean partitioned = StorageSettings.isMonthPartitions();
+        if (partitionedLayout == null || partitionedLayout != partitioned) {
+            moveToLayout(partitioned);
+        }
+        return partitioned;
+    }
+
+    // Move records between the single file and the partitions. Records are copied before the
+    // source is emptied, and ids already in the target are skipped, so an interrupted move can rerun.
+    // The lock on the single file keeps two workstations from moving the data at the same time.
+    private synchronized void moveToLayout(boolean partitioned) {
+        if (partitionedLayout != null && partitionedLayout == partitioned) return;
+        JsonStore.flush(dataPath); // Our own queued writes take the lock too, so drain them first.
+        try (DataFileLock _ = DataFileLock.acquire(dataPath)) {
+            if (partitioned) {
+                List<T> records = singleFile.readAll();
+                if (!records.isEmpty()) {
+                    Map<String, List<T>> byMonth = new LinkedHashMap<String, List<T>>();
+                    for (T record : records) {
+                        byMonth.computeIfAbsent(partitionNameOf(record), key -> new ArrayList<T>()).add(record);
+                    }
+                    for (Map.Entry<String, List<T>> month : byMonth.entrySet()) {
+                        partitionFor(month.getKey()).addMissing(month.getValue());
+                    }
+                    for (String name : byMonth.keySet()) {
+                        JsonStore.flush(partitionFolder + "/" + name + ".json");
+                    }
+                    singleFile.clear();
+                }
+            } else {
+                monthsById(); // Finishes a move left half done, so no record is carried over twice.
+                List<String> names = partitionNames();
+                List<T> records = new ArrayList<T>();
+                for (String name : names) {
+                    records.addAll(partitionFor(name).readAll());
+                }
+                if (!records.isEmpty()) {
+                    singleFile.addMissing(records);
+                    JsonStore.flush(dataPath);
+                    for (String name : names) {
+                        partitionFor(name).clear();
+                    }
+                }
+            }
+        }
+        monthsById = null;
+        partitionedLayout = partitioned;
+    }
+}
@@ -1,13 +1,16 @@
 package amc.dataAccess;
 
 import amc.dataModels.Payment;
+import amc.helperUtils.DataFileLock;
 import amc.helperUtils.DataPaths;
-import amc.helperUtils.JsonStore;
+import amc.helperUtils.idGenerator;
 import com.google.gson.reflect.TypeToken;
 
 import java.lang.reflect.Type;
-import java.util.ArrayList;
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 /** This class loads payment records and provides simple read queries. */
 public class PaymentRepository {
@@ -15,43 +18,99 @@ public class PaymentRepository {
     // This tells Gson we are reading and writing List<Payment>.
     private static final Type listType = new TypeToken<List<Payment>>(){}.getType();
 
+    // Payments of one appointment are read without a full scan.
+    private static final String appointmentIndex = "appointmentId";
+    // Finds the payment a receipt form already saved.
+    private static final String idempotencyIndex = "idempotencyKey";
+
+    // Sorted by the payment time, and partitioned by its month when month partitions are on.
+    static final EntityDefinition<Payment> entity =
+            new EntityDefinition<Payment>("payments", DataPaths.paymentDataPath, listType,
+                    Payment.class, "paymentId", Payment::getPaymentId)
+                    .datedBy(Payment::getTimestampIso, DataPaths.paymentPartitionFolder)
+                    .indexedBy(appointmentIndex, Payment::getAppointmentId)
+                    .indexedBy(idempotencyIndex, Payment::getIdempotencyKey);
+
+    // Shared by every repository instance so the journal state is loaded once.
+    private static final RecordStore<Payment> store = StorageBackend.configured().open(entity);
+
     /** Returns all payments from the file. */
     public List<Payment> listAll() {
-        return JsonStore.readList(DataPaths.paymentDataPath, listType);
+        return store.readAll();
     }
 
     /** Returns payments linked to one appointment. */
     public List<Payment> listByAppointment(String appointmentId) {
-        List<Payment> all = JsonStore.readList(DataPaths.paymentDataPath, listType);
-        List<Payment> result = new ArrayList<Payment>();
-        for (Payment p : all) {
-            if (p.getAppointmentId() != null && p.getAppointmentId().equals(appointmentId)) {
-                result.add(p);
-            }
-        }
-        return result;
+        return store.findBy(appointmentIndex, appointmentId);
     }
 
-    public void saveOrUpdate(Payment newPayment) {
-        List<Payment> payment = JsonStore.readList(DataPaths.paymentDataPath, listType);
-        List<Payment> updatedPayment = new ArrayList<>();
+    /** Returns payments made between two days, both included, earliest first. A null day leaves that side open. */
+    public List<Payment> listBetween(LocalDate from, LocalDate to) {
+        return store.listBetween(from, to);
+    }
 
-        boolean replaced = false;
+    /** Returns how many payments there are, for paging. */
+    public int countAll() {
+        return store.count();
+    }
 
-        for (Payment existingPayment: payment) {
-            if (existingPayment.getPaymentId() != null && existingPayment.getPaymentId().equals(newPayment.getPaymentId())) {
-                updatedPayment.add(newPayment);
-                replaced = true;
-            } else {
-                updatedPayment.add(existingPayment);
-            }
+    /** Returns at most limit payments from the offset on, in stored order, with only the named fields. */
+    public List<RowView> listRows(int offset, int limit, String... fields) {
+        return store.readRows(offset, limit, Arrays.asList(fields));
+    }
 
+    /** Returns the payment with this id, ignoring case. */
+    public Optional<Payment> findByID(String paymentId) {
+        return store.findById(paymentId);
+    }
 
-            if (!replaced) {
-                updatedPayment.add(newPayment);
+    // Replace the payment with the same ID, or add it if it is new.
+    public void saveOrUpdate(Payment newPayment) {
+        store.upsert(newPayment);
+    }
+
+    /**
+     * Saves a new receipt once per idempotency key. If a payment with this key was saved before,
+     * that payment is returned and nothing is written, so a form submitted twice makes one receipt.
+     * Otherwise the payment gets the key, and a new id if it has none, and is on disk when this returns.
+     * Returns null if the write failed.
+     */
+    public Payment saveNew(Payment newPayment, String idempotencyKey) {
+        return saveNew(newPayment, idempotencyKey, new UnitOfWork());
+    }
+
+    /**
+     * Like saveNew, but the payment is committed together with the changes already queued in the
+     * unit of work, so a receipt and the records it updates are written as one commit.
+     * If the key was used before, the queued changes are left uncommitted. Returns null if the commit
+     * failed; see UnitOfWork.commit for what is on disk then.
+     */
+    public Payment saveNew(Payment newPayment, String idempotencyKey, UnitOfWork work) {
+        // The lock makes the check and the save one step across workstations.
+        try (DataFileLock _ = DataFileLock.acquire(DataPaths.newReceiptLockPath)) {
+            // A receipt of an interrupted commit is only in pendingWork.json until it is written out.
+            UnitOfWork.recoverPendingWork();
+            if (idempotencyKey != null) {
+                List<Payment> saved = store.findBy(idempotencyIndex, idempotencyKey);
+                if (!saved.isEmpty()) return saved.get(0);
+                newPayment.setIdempotencyKey(idempotencyKey);
             }
+            if (newPayment.getPaymentId() == null) newPayment.setPaymentId(idGenerator.nextId("P"));
+            work.save(newPayment);
+            return work.commit() ? newPayment : null;
         }
+    }
+
+    /**
+     * Rewrites the payments with one record per payment id, if any id is stored more than once.
+     * A clean file is only scanned for record bounds. Returns how many copies were removed, or -1 on error.
+     */
+    public static int removeDuplicates() {
+        return store.removeDuplicates();
+    }
 
-        JsonStore.writeList(DataPaths.paymentDataPath, updatedPayment, listType);
+    // Used by UnitOfWork to write many payments at once. Returns false if the write failed.
+    static boolean applyBatch(List<Payment> saves, List<String> deleteIds) {
+        return store.applyBatch(saves, deleteIds);
     }
 }
\ No newline at end of file
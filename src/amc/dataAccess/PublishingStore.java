@@ -0,0 +1,106 @@
+package amc.dataAccess;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * This class wraps the store of a backend and publishes every write on the ChangeFeed.
+ * Reads pass straight through. When nobody listens to the record type, writes pass straight through too.
+ */
+final class PublishingStore<T> implements RecordStore<T> {
+
+    private final RecordStore<T> store;
+    private final Class<T> recordClass;
+    private final Function<T, String> idOf;
+
+    PublishingStore(RecordStore<T> store, EntityDefinition<T> entity) {
+        this.store = store;
+        this.recordClass = entity.getRecordClass();
+        this.idOf = entity.getIdOf();
+    }
+
+    @Override public List<T> readAll() { return store.readAll(); }
+    @Override public Optional<T> findById(String id) { return store.findById(id); }
+    @Override public List<T> findBy(String indexName, String key) { return store.findBy(indexName, key); }
+    @Override public List<T> filter(Predicate<? super T> filter) { return store.filter(filter); }
+    @Override public List<T> listBetween(LocalDate from, LocalDate to) { return store.listBetween(from, to); }
+    @Override public List<T> listInTimeOrder() { return store.listInTimeOrder(); }
+    @Override public int countBy(String indexName, String key) { return store.countBy(indexName, key); }
+    @Override public int countBetween(LocalDate from, LocalDate to) { return store.countBetween(from, to); }
+    @Override public int count() { return store.count(); }
+    @Override public List<RowView> readRows(int offset, int limit, List<String> fields) { return store.readRows(offset, limit, fields); }
+    @Override public List<RowView> readRowsBy(String indexName, String key, int offset, int limit, List<String> fields) {
+        return store.readRowsBy(indexName, key, offset, limit, fields);
+    }
+
+    @Override
+    public void upsert(T record) {
+        if (!ChangeFeed.hasSubscribers(recordClass)) {
+            store.upsert(record);
+            return;
+        }
+        RecordChange.Kind kind = kindOfSave(record);
+        store.upsert(record);
+        ChangeFeed.publish(recordClass, new RecordChange<T>(kind, idOf.apply(record), record));
+    }
+
+    @Override
+    public void add(T record) {
+        store.add(record);
+        ChangeFeed.publish(recordClass, new RecordChange<T>(RecordChange.Kind.CREATED, idOf.apply(record), record));
+    }
+
+    @Override
+    public void delete(String id) {
+        if (!ChangeFeed.hasSubscribers(recordClass)) {
+            store.delete(id);
+            return;
+        }
+        T deleted = store.findById(id).orElse(null);
+        store.delete(id);
+        ChangeFeed.publish(recordClass, new RecordChange<T>(RecordChange.Kind.DELETED, id, deleted));
+    }
+
+    // The events are built before the write, while the old records can still be looked up,
+    // and published only if the whole batch was written.
+    @Override
+    public boolean applyBatch(List<T> saves, List<String> deleteIds) {
+        if (!ChangeFeed.hasSubscribers(recordClass)) return store.applyBatch(saves, deleteIds);
+        List<RecordChange<T>> changes = new ArrayList<RecordChange<T>>();
+        for (String id : deleteIds) {
+            changes.add(new RecordChange<T>(RecordChange.Kind.DELETED, id, store.findById(id).orElse(null)));
+        }
+        for (T record : saves) {
+            changes.add(new RecordChange<T>(kindOfSave(record), idOf.apply(record), record));
+        }
+        if (!store.applyBatch(saves, deleteIds)) return false;
+        for (RecordChange<T> change : changes) {
+            ChangeFeed.publish(recordClass, change);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean addAll(List<T> records) {
+        if (!store.addAll(records)) return false;
+        for (T record : records) {
+            ChangeFeed.publish(recordClass, new RecordChange<T>(RecordChange.Kind.CREATED, idOf.apply(record), record));
+        }
+        return true;
+    }
+
+    // Only exact copies of stored records go, so there is nothing to publish.
+    @Override
+    public int removeDuplicates() {
+        return store.removeDuplicates();
+    }
+
+    private RecordChange.Kind kindOfSave(T record) {
+        String id = idOf.apply(record);
+        return id != null && store.findById(id).isPresent() ? RecordChange.Kind.UPDATED : RecordChange.Kind.CREATED;
+    }
+}
@@ -0,0 +1,26 @@
+package amc.dataAccess;
+
+/**
+ * This class describes one saved change to a record, as published on the ChangeFeed.
+ * For a delete the record is the last stored version, or null if it was not found.
+ */
+public final class RecordChange<T> {
+
+    /** What happened to the record. */
+    public enum Kind { CREATED, UPDATED, DELETED }
+
+    private final Kind kind;
+    private final String id;
+    private final T record;
+
+    RecordChange(Kind kind, String id, T record) {
+        this.kind = kind;
+        this.id = id;
+        this.record = record;
+    }
+
+    public Kind getKind() { return kind; }
+    public String getId() { return id; }
+    public T getRecord() { return record; }
+    public boolean isDelete() { return kind == Kind.DELETED; }
+}
@@ -0,0 +1,91 @@
+package amc.dataAccess;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * This class maps one field of a record, like an appointment's doctorId, to every record
+ * with that value, in file order. A lookup costs only the number of matches.
+ * Records with a null value are not indexed. Keys match exactly, like the equals checks they replace.
+ * The store keeps the index in step with its own changes through add, remove and replace.
+ */
+final class RecordIndex<T> {
+
+    private final Function<T, String> keyOf;
+    private Map<String, List<T>> entries = Collections.emptyMap();
+
+    RecordIndex(Function<T, String> keyOf) {
+        this.keyOf = keyOf;
+    }
+
+    /** Replaces the index contents with the given records. */
+    void rebuild(Iterable<T> records) {
+        Map<String, List<T>> built = new HashMap<String, List<T>>();
+        for (T record : records) {
+            String key = keyOf.apply(record);
+            if (key != null) built.computeIfAbsent(key, k -> new ArrayList<T>(4)).add(record);
+        }
+        entries = built;
+    }
+
+    /** Adds a record that comes after every indexed one in file order. */
+    void add(T record) {
+        String key = keyOf.apply(record);
+        if (key != null) entries.computeIfAbsent(key, k -> new ArrayList<T>(4)).add(record);
+    }
+
+    /**
+     * Removes a record, found by its place in file order. Returns false if it is not where its value
+     * puts it, for example because the record was changed after it was indexed.
+     */
+    boolean remove(T record, Comparator<T> fileOrder) {
+        String key = keyOf.apply(record);
+        if (key == null) return true;
+        List<T> matches = entries.get(key);
+        int found = matches == null ? -1 : Collections.binarySearch(matches, record, fileOrder);
+        if (found < 0 || matches.get(found) != record) return false;
+        matches.remove(found);
+        if (matches.isEmpty()) entries.remove(key);
+        return true;
+    }
+
+    /**
+     * Puts a record in the place of another in file order; the fileOrder must already give it that place.
+     * Returns false like remove does.
+     */
+    boolean replace(T old, T record, Comparator<T> fileOrder) {
+        String key = keyOf.apply(record);
+        if (Objects.equals(keyOf.apply(old), key)) {
+            if (key == null) return true;
+            List<T> matches = entries.get(key);
+            int found = matches == null ? -1 : Collections.binarySearch(matches, old, fileOrder);
+            if (found < 0 || matches.get(found) != old) return false;
+            matches.set(found, record);
+            return true;
+        }
+        if (!remove(old, fileOrder)) return false;
+        if (key != null) {
+            List<T> matches = entries.computeIfAbsent(key, k -> new ArrayList<T>(4));
+            matches.add(-Collections.binarySearch(matches, record, fileOrder) - 1, record);
+        }
+        return true;
+    }
+
+    /** Returns the records with this value. The list is a fresh copy the caller may change. */
+    List<T> get(String key) {
+        List<T> matches = key == null ? null : entries.get(key);
+        return matches == null ? new ArrayList<T>() : new ArrayList<T>(matches);
+    }
+
+    /** Returns how many records have this value. */
+    int count(String key) {
+        List<T> matches = key == null ? null : entries.get(key);
+        return matches == null ? 0 : matches.size();
+    }
+}
@@ -0,0 +1,71 @@
+package amc.dataAccess;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * This interface is what a repository needs from the records of one entity, whatever the storage backend.
+ * Lists returned are fresh copies the caller may change. Ids are matched exactly when writing
+ * and ignoring case in findById, like the JSON files always did.
+ */
+interface RecordStore<T> {
+
+    /** Returns every record in stored order. */
+    List<T> readAll();
+
+    /** Returns the first record whose id matches, ignoring case. */
+    Optional<T> findById(String id);
+
+    /** Returns the records whose indexed field equals the key, in stored order. */
+    List<T> findBy(String indexName, String key);
+
+    /** Returns only the records that pass the filter. */
+    List<T> filter(Predicate<? super T> filter);
+
+    /** Returns the records dated between two days, both included, earliest first. A null day is open. */
+    List<T> listBetween(LocalDate from, LocalDate to);
+
+    /** Returns every record earliest first; records without a date come last. */
+    List<T> listInTimeOrder();
+
+    /** Returns how many records findBy would return, without building the list. Used to pick the most selective index. */
+    int countBy(String indexName, String key);
+
+    /** Returns how many records listBetween would return, without building the list. */
+    int countBetween(LocalDate from, LocalDate to);
+
+    /** Returns how many records there are. */
+    int count();
+
+    /**
+     * Returns at most limit records from the offset on, in stored order, cut down to the named fields.
+     * Only that page of records is read where the backend allows it.
+     */
+    List<RowView> readRows(int offset, int limit, List<String> fields);
+
+    /** Like readRows, over only the records whose indexed field equals the key. countBy gives their total. */
+    List<RowView> readRowsBy(String indexName, String key, int offset, int limit, List<String> fields);
+
+    /**
+     * Replaces the record with the same id, or adds the record if none matches. Copies of that id are dropped.
+     * Throws StorageException if the change could not be stored, like add and delete.
+     */
+    void upsert(T record);
+
+    /** Adds a new record. */
+    void add(T record);
+
+    /** Removes every record with the given id. */
+    void delete(String id);
+
+    /** Saves and deletes several records in one pass. The changes are stored when it returns. Returns false on error. */
+    boolean applyBatch(List<T> saves, List<String> deleteIds);
+
+    /** Keeps one record per id, the last stored copy, and removes the others. Returns how many were removed, or -1 on error. */
+    int removeDuplicates();
+
+    /** Adds every record as it is, duplicates included. Used when copying data between backends. Returns false on error. */
+    boolean addAll(List<T> records);
+}
@@ -2,11 +2,11 @@ package amc.dataAccess;
 
 import amc.dataModels.Report;
 import amc.helperUtils.DataPaths;
-import amc.helperUtils.JsonStore;
 import com.google.gson.reflect.TypeToken;
 
 import java.lang.reflect.Type;
 import java.util.List;
+import java.util.Optional;
 
 /** This class loads report records and provides simple read access. */
 public class ReportRepository {
@@ -14,15 +14,25 @@ public class ReportRepository {
     // This tells Gson we are reading and writing List<Report>.
     private static final Type listType = new TypeToken<List<Report>>(){}.getType();
 
+    static final EntityDefinition<Report> entity =
+            new EntityDefinition<Report>("reports", DataPaths.reportDataPath, listType,
+                    Report.class, "reportId", Report::getReportId);
+
+    // Shared by every repository instance so the journal state is loaded once.
+    private static final RecordStore<Report> store = StorageBackend.configured().open(entity);
+
     /** Returns all reports from the file. */
     public List<Report> listAll() {
-        return JsonStore.readList(DataPaths.reportDataPath, listType);
+        return store.readAll();
+    }
+
+    /** Returns the report with this id, ignoring case. */
+    public Optional<Report> findByID(String reportId) {
+        return store.findById(reportId);
     }
 
     /** Adds a new report and saves the file. */
     public void create(Report newReport) {
-        List<Report> all = JsonStore.readList(DataPaths.reportDataPath, listType);
-        all.add(newReport);
-        JsonStore.writeList(DataPaths.reportDataPath, all, listType);
+        store.add(newReport);
     }
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package amc.dataAccess;
+
+import amc.helperUtils.ModelAdapters;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is one record cut down to a few fields, for list screens that show a page of rows.
+ * Fields are named as in the JSON files, like "appointmentId". Text stays text, numbers become
+ * Double like the model getters, and a missing field is null.
+ */
+public final class RowView {
+
+    private static final Gson gson = ModelAdapters.builder().create();
+
+    private final List<String> fields;
+    private final Object[] values;
+
+    private RowView(List<String> fields, Object[] values) {
+        this.fields = fields;
+        this.values = values;
+    }
+
+    /** Keeps only the named fields of one record. */
+    static RowView of(JsonObject record, List<String> fields) {
+        Object[] values = new Object[fields.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = valueOf(record == null ? null : record.get(fields.get(i)));
+        }
+        return new RowView(fields, values);
+    }
+
+    /** Cuts down the records from the offset on, at most limit of them, for records already in memory. */
+    @SuppressWarnings("unchecked")
+    static <T> List<RowView> page(Iterable<T> records, int offset, int limit, List<String> fields) {
+        if (records instanceof List) {
+            List<T> list = (List<T>) records;
+            records = list.subList(Math.min(offset, list.size()), Math.min(offset + limit, list.size()));
+            offset = 0;
+        }
+        List<RowView> rows = new ArrayList<RowView>();
+        int position = 0;
+        for (T record : records) {
+            if (rows.size() >= limit) break;
+            if (position++ < offset) continue;
+            rows.add(of(gson.toJsonTree(record).getAsJsonObject(), fields));
+        }
+        return rows;
+    }
+
+    /** Returns the value of one of the requested fields, or null if it was not requested. */
+    public Object get(String field) {
+        int column = fields.indexOf(field);
+        return column < 0 ? null : values[column];
+    }
+
+    /** Returns the value in the same position as the field in the request. */
+    public Object get(int column) {
+        return values[column];
+    }
+
+    /** Returns the value of a field as text, or null. */
+    public String getString(String field) {
+        Object value = get(field);
+        return value == null ? null : value.toString();
+    }
+
+    /** Returns the values in the order the fields were requested. The array is a copy. */
+    public Object[] toArray() {
+        return values.clone();
+    }
+
+    private static Object valueOf(JsonElement element) {
+        if (element == null || element.isJsonNull()) return null;
+        if (!element.isJsonPrimitive()) return element.toString();
+        JsonPrimitive primitive = element.getAsJsonPrimitive();
+        if (primitive.isNumber()) return primitive.getAsDouble();
+        if (primitive.isBoolean()) return primitive.getAsBoolean();
+        return primitive.getAsString();
+    }
+}
@@ -0,0 +1,36 @@
+package amc.dataAccess;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * This backend keeps every entity in a table of an embedded SQL database, a single file
+ * in textFiles/ opened inside this program with no database server (H2 by default, see sqlUrl).
+ * The id, the timestamp and every indexed field are columns with an SQL index, so lookups
+ * and date ranges read only the matching rows. The record itself is stored as JSON text.
+ * All stores share one connection, and each call is one transaction.
+ */
+final class SqlBackend extends StorageBackend {
+
+    private final String url;
+    private Connection connection;
+
+    SqlBackend(String url) {
+        this.url = url;
+    }
+
+    @Override
+    <T> RecordStore<T> create(EntityDefinition<T> entity) {
+        return new SqlStore<T>(this, entity);
+    }
+
+    // Open the connection the first time it is needed, and again if it was closed.
+    // Callers synchronize on the backend while they use it.
+    Connection connection() throws SQLException {
+        if (connection == null || connection.isClosed()) {
+            connection = DriverManager.getConnection(url, "sa", "");
+        }
+        return connection;
+    }
+}
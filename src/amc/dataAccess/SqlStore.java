@@ -0,0 +1,419 @@
+package amc.dataAccess;
+
+import amc.helperUtils.ModelAdapters;
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * This class stores the records of one entity in a table of the embedded database.
+ * Columns: seq (insertion order), id, id_key (upper-case id), time_key (the timestamp, null when
+ * undated), one ix_ column per index, and record (the JSON text). The table and its indexes are
+ * created the first time the store is used; an index added later is filled from the stored records.
+ */
+final class SqlStore<T> implements RecordStore<T> {
+
+    private static final Gson gson = ModelAdapters.builder().create();
+
+    private final SqlBackend backend;
+    private final EntityDefinition<T> entity;
+    private final String table;
+    private final List<String> indexNames;
+    private boolean schemaReady;
+
+    SqlStore(SqlBackend backend, EntityDefinition<T> entity) {
+        this.backend = backend;
+        this.entity = entity;
+        this.table = entity.getName();
+        this.indexNames = new ArrayList<String>(entity.getIndexes().keySet());
+    }
+
+    // One step of work on the connection.
+    private interface SqlWork<R> {
+        R run(Connection connection) throws SQLException;
+    }
+
+    @Override
+    public List<T> readAll() {
+        return query("SELECT record FROM " + table + " ORDER BY seq");
+    }
+
+    @Override
+    public Optional<T> findById(String id) {
+        if (id == null) return Optional.empty();
+        List<T> found = query("SELECT record FROM " + table + " WHERE id_key = ? ORDER BY seq FETCH FIRST 1 ROWS ONLY",
+                id.toUpperCase(Locale.ROOT));
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+    }
+
+    @Override
+    public List<T> findBy(String indexName, String key) {
+        if (!indexNames.contains(indexName)) throw new IllegalArgumentException("No index " + indexName + " on " + table);
+        if (key == null) return new ArrayList<T>();
+        return query("SELECT record FROM " + table + " WHERE " + indexColumn(indexName) + " = ? ORDER BY seq", key);
+    }
+
+    @Override
+    public List<T> filter(Predicate<? super T> filter) {
+        List<T> matches = new ArrayList<T>();
+        for (T record : readAll()) {
+            if (filter.test(record)) matches.add(record);
+        }
+        return matches;
+    }
+
+    @Override
+    public List<T> listBetween(LocalDate from, LocalDate to) {
+        StringBuilder sql = new StringBuilder("SELECT record FROM " + table + " WHERE time_key IS NOT NULL");
+        List<Object> values = new ArrayList<Object>();
+        if (from != null) {
+            sql.append(" AND time_key >= ?");
+            values.add(from.toString());
+        }
+        if (to != null) {
+            // "2025-08-28" sorts before every time on that day, so the next day is an exclusive upper bound.
+            sql.append(" AND time_key < ?");
+            values.add(to.plusDays(1).toString());
+        }
+        sql.append(" ORDER BY time_key, seq");
+        return query(sql.toString(), values.toArray());
+    }
+
+    @Override
+    public int countBy(String indexName, String key) {
+        if (!indexNames.contains(indexName)) throw new IllegalArgumentException("No index " + indexName + " on " + table);
+        if (key == null) return 0;
+        return count("SELECT COUNT(*) FROM " + table + " WHERE " + indexColumn(indexName) + " = ?", key);
+    }
+
+    @Override
+    public int countBetween(LocalDate from, LocalDate to) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM " + table + " WHERE time_key IS NOT NULL");
+        List<Object> values = new ArrayList<Object>();
+        if (from != null) {
+            sql.append(" AND time_key >= ?");
+            values.add(from.toString());
+        }
+        if (to != null) {
+            sql.append(" AND time_key < ?");
+            values.add(to.plusDays(1).toString());
+        }
+        return count(sql.toString(), values.toArray());
+    }
+
+    @Override
+    public int count() {
+        return count("SELECT COUNT(*) FROM " + table);
+    }
+
+    @Override
+    public List<RowView> readRows(int offset, int limit, List<String> fields) {
+        return queryRows("SELECT record FROM " + table + " ORDER BY seq OFFSET ? ROWS FETCH NEXT ? ROWS ONLY",
+                fields, offset, limit);
+    }
+
+    @Override
+    public List<RowView> readRowsBy(String indexName, String key, int offset, int limit, List<String> fields) {
+        if (!indexNames.contains(indexName)) throw new IllegalArgumentException("No index " + indexName + " on " + table);
+        if (key == null) return new ArrayList<RowView>();
+        return queryRows("SELECT record FROM " + table + " WHERE " + indexColumn(indexName)
+                + " = ? ORDER BY seq OFFSET ? ROWS FETCH NEXT ? ROWS ONLY", fields, key, offset, limit);
+    }
+
+    @Override
+    public List<T> listInTimeOrder() {
+        return query("SELECT record FROM " + table
+                + " ORDER BY CASE WHEN time_key IS NULL THEN 1 ELSE 0 END, time_key, seq");
+    }
+
+    @Override
+    public void upsert(T record) {
+        List<T> saves = new ArrayList<T>();
+        saves.add(record);
+        write(connection -> writeChanges(connection, saves, new ArrayList<String>()));
+    }
+
+    @Override
+    public void add(T record) {
+        List<T> records = new ArrayList<T>();
+        records.add(record);
+        write(connection -> insertAll(connection, records));
+    }
+
+    @Override
+    public void delete(String id) {
+        List<String> deleteIds = new ArrayList<String>();
+        deleteIds.add(id);
+        write(connection -> writeChanges(connection, new ArrayList<T>(), deleteIds));
+    }
+
+    @Override
+    public boolean applyBatch(List<T> saves, List<String> deleteIds) {
+        return inTransaction(connection -> writeChanges(connection, saves, deleteIds)) != null;
+    }
+
+    // Delete the ids, then replace or insert each save, on the caller's transaction.
+    private Boolean writeChanges(Connection connection, List<T> saves, List<String> deleteIds) throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement("DELETE FROM " + table + " WHERE id = ?")) {
+            for (String id : deleteIds) {
+                delete.setString(1, id);
+                delete.addBatch();
+            }
+            delete.executeBatch();
+        }
+        try (PreparedStatement update = connection.prepareStatement(updateSql());
+             PreparedStatement insert = connection.prepareStatement(insertSql())) {
+            for (T record : saves) {
+                String id = entity.getIdOf().apply(record);
+                int updated = 0;
+                if (id != null) {
+                    int next = bindColumns(update, 1, record);
+                    update.setString(next, id);
+                    updated = update.executeUpdate();
+                }
+                if (updated > 1) removeCopies(connection, id);
+                if (updated == 0) {
+                    insert.setString(1, id);
+                    bindColumns(insert, 2, record);
+                    insert.executeUpdate();
+                }
+            }
+        }
+        return true;
+    }
+
+    // The last copy of each id stays; the id column index makes the lookup per row cheap.
+    @Override
+    public int removeDuplicates() {
+        Integer removed = inTransaction(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                return statement.executeUpdate("DELETE FROM " + table + " t WHERE id IS NOT NULL"
+                        + " AND seq < (SELECT MAX(seq) FROM " + table + " c WHERE c.id = t.id)");
+            }
+        });
+        return removed == null ? -1 : removed;
+    }
+
+    @Override
+    public boolean addAll(List<T> records) {
+        return inTransaction(connection -> insertAll(connection, records)) != null;
+    }
+
+    private Boolean insertAll(Connection connection, List<T> records) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(insertSql())) {
+            for (T record : records) {
+                insert.setString(1, entity.getIdOf().apply(record));
+                bindColumns(insert, 2, record);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        return true;
+    }
+
+    // Keep only the first row of an id that an update found more than once.
+    private void removeCopies(Connection connection, String id) throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement("DELETE FROM " + table
+                + " WHERE id = ? AND seq > (SELECT MIN(seq) FROM " + table + " WHERE id = ?)")) {
+            delete.setString(1, id);
+            delete.setString(2, id);
+            delete.executeUpdate();
+        }
+    }
+
+    // Run a query whose only column is the record text, and parse the rows in order.
+    private List<T> query(String sql, Object... values) {
+        List<T> records = inTransaction(connection -> {
+            List<T> rows = new ArrayList<T>();
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < values.length; i++) {
+                    statement.setObject(i + 1, values[i]);
+                }
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        rows.add(gson.fromJson(result.getString(1), entity.getRecordClass()));
+                    }
+                }
+            }
+            return rows;
+        });
+        return records == null ? new ArrayList<T>() : records;
+    }
+
+    // Run a query whose only column is the record text, and cut each row down to the fields.
+    private List<RowView> queryRows(String sql, List<String> fields, Object... values) {
+        List<RowView> rows = inTransaction(connection -> {
+            List<RowView> page = new ArrayList<RowView>();
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < values.length; i++) {
+                    statement.setObject(i + 1, values[i]);
+                }
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        page.add(RowView.of(JsonParser.parseString(result.getString(1)).getAsJsonObject(), fields));
+                    }
+                }
+            }
+            return page;
+        });
+        return rows == null ? new ArrayList<RowView>() : rows;
+    }
+
+    // Run a query that returns one number. Returns 0 on error.
+    private int count(String sql, Object... values) {
+        Integer count = inTransaction(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < values.length; i++) {
+                    statement.setObject(i + 1, values[i]);
+                }
+                try (ResultSet result = statement.executeQuery()) {
+                    return result.next() ? result.getInt(1) : 0;
+                }
+            }
+        });
+        return count == null ? 0 : count;
+    }
+
+    // Run the work as one transaction, creating the table first if needed. Returns null on error.
+    private <R> R inTransaction(SqlWork<R> work) {
+        try {
+            return transaction(work);
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    // Run a change for a method with no result to report failure in. A failed change is rolled back
+    // and thrown as a StorageException, so the caller does not take it for a save.
+    private void write(SqlWork<Boolean> work) {
+        try {
+            transaction(work);
+        } catch (SQLException ex) {
+            throw new StorageException("Could not write " + table, ex);
+        }
+    }
+
+    // Run the work as one transaction, creating the table first if needed. Rolls back on error.
+    private <R> R transaction(SqlWork<R> work) throws SQLException {
+        synchronized (backend) {
+            Connection connection = null;
+            try {
+                connection = backend.connection();
+                connection.setAutoCommit(false);
+                if (!schemaReady) {
+                    createSchema(connection);
+                    schemaReady = true;
+                }
+                R result = work.run(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException ex) {
+                try { if (connection != null) connection.rollback(); } catch (SQLException ignore) {}
+                throw ex;
+            } finally {
+                try { if (connection != null) connection.setAutoCommit(true); } catch (SQLException ignore) {}
+            }
+        }
+    }
+
+    // Create the table and its indexes if they do not exist, and fill index columns added since.
+    private void createSchema(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+                    + "seq BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "id VARCHAR, id_key VARCHAR, time_key VARCHAR, record CLOB NOT NULL)");
+            statement.execute("CREATE INDEX IF NOT EXISTS " + table + "_id ON " + table + " (id)");
+            statement.execute("CREATE INDEX IF NOT EXISTS " + table + "_id_key ON " + table + " (id_key, seq)");
+            statement.execute("CREATE INDEX IF NOT EXISTS " + table + "_time_key ON " + table + " (time_key, seq)");
+            boolean columnAdded = false;
+            for (String indexName : indexNames) {
+                String column = indexColumn(indexName);
+                if (!hasColumn(connection, column)) {
+                    statement.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " VARCHAR");
+                    columnAdded = true;
+                }
+                statement.execute("CREATE INDEX IF NOT EXISTS " + table + "_" + column + " ON " + table + " (" + column + ", seq)");
+            }
+            if (columnAdded) refreshKeyColumns(connection);
+        }
+    }
+
+    private boolean hasColumn(Connection connection, String column) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet columns = metaData.getColumns(null, null, table.toUpperCase(Locale.ROOT), column.toUpperCase(Locale.ROOT))) {
+            return columns.next();
+        }
+    }
+
+    // Recompute every key column from the stored records.
+    private void refreshKeyColumns(Connection connection) throws SQLException {
+        try (Statement select = connection.createStatement();
+             ResultSet rows = select.executeQuery("SELECT seq, record FROM " + table);
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE " + table + " SET " + keyAssignments() + ", record = ? WHERE seq = ?")) {
+            while (rows.next()) {
+                T record = gson.fromJson(rows.getString(2), entity.getRecordClass());
+                int next = bindColumns(update, 1, record);
+                update.setLong(next, rows.getLong(1));
+                update.addBatch();
+            }
+            update.executeBatch();
+        }
+    }
+
+    // Bind id_key, time_key, the index columns and the record text, starting at the given position.
+    // Returns the next free position.
+    private int bindColumns(PreparedStatement statement, int position, T record) throws SQLException {
+        String id = entity.getIdOf().apply(record);
+        statement.setString(position++, id == null ? null : id.toUpperCase(Locale.ROOT));
+        Function<T, String> timeOf = entity.getTimeOf();
+        String time = timeOf == null ? null : timeOf.apply(record);
+        statement.setString(position++, TimeIndex.isDated(time) ? time : null);
+        for (Map.Entry<String, Function<T, String>> index : entity.getIndexes().entrySet()) {
+            statement.setString(position++, index.getValue().apply(record));
+        }
+        statement.setString(position++, gson.toJson(record));
+        return position;
+    }
+
+    private String insertSql() {
+        StringBuilder columns = new StringBuilder("id, id_key, time_key");
+        StringBuilder marks = new StringBuilder("?, ?, ?");
+        for (String indexName : indexNames) {
+            columns.append(", ").append(indexColumn(indexName));
+            marks.append(", ?");
+        }
+        return "INSERT INTO " + table + " (" + columns + ", record) VALUES (" + marks + ", ?)";
+    }
+
+    private String updateSql() {
+        return "UPDATE " + table + " SET " + keyAssignments() + ", record = ? WHERE id = ?";
+    }
+
+    private String keyAssignments() {
+        StringBuilder assignments = new StringBuilder("id_key = ?, time_key = ?");
+        for (String indexName : indexNames) {
+            assignments.append(", ").append(indexColumn(indexName)).append(" = ?");
+        }
+        return assignments.toString();
+    }
+
+    private static String indexColumn(String indexName) {
+        return "ix_" + indexName;
+    }
+}
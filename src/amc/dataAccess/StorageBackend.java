@@ -0,0 +1,39 @@
+package amc.dataAccess;
+
+import amc.helperUtils.StorageSettings;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class is where repositories get their record stores from. The backend is chosen by the
+ * storageBackend setting: "json" keeps the files in textFiles/, "sql" keeps an embedded database.
+ * Each backend opens one store per entity and hands the same one to every caller.
+ */
+abstract class StorageBackend {
+
+    private static final Map<String, StorageBackend> backends = new ConcurrentHashMap<>();
+
+    private final Map<String, RecordStore<?>> stores = new ConcurrentHashMap<>();
+
+    /** Returns the backend named in the storage settings. */
+    static StorageBackend configured() {
+        return named(StorageSettings.storageBackend());
+    }
+
+    /** Returns the backend with this name, "json" or "sql". Returns null for an unknown name. */
+    static StorageBackend named(String name) {
+        if (name.equals(StorageSettings.jsonBackend)) return backends.computeIfAbsent(name, key -> new JsonBackend());
+        if (name.equals(StorageSettings.sqlBackend)) return backends.computeIfAbsent(name, key -> new SqlBackend(StorageSettings.sqlUrl()));
+        return null;
+    }
+
+    /** Returns the store of one entity, opening it the first time. Its writes are published on the ChangeFeed. */
+    @SuppressWarnings("unchecked")
+    final <T> RecordStore<T> open(EntityDefinition<T> entity) {
+        return (RecordStore<T>) stores.computeIfAbsent(entity.getName(), key -> new PublishingStore<T>(create(entity), entity));
+    }
+
+    /** Creates the store of one entity. Called once per entity. */
+    abstract <T> RecordStore<T> create(EntityDefinition<T> entity);
+}
@@ -0,0 +1,16 @@
+package amc.dataAccess;
+
+/**
+ * This exception means a change could not be stored, for example because the data file could not be written.
+ * Record stores throw it from the write methods that return nothing, so a failed save never looks like a success.
+ */
+public class StorageException extends RuntimeException {
+
+    public StorageException(String message) {
+        super(message);
+    }
+
+    public StorageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
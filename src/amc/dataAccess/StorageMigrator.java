@@ -0,0 +1,57 @@
+package amc.dataAccess;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This tool copies every entity from one storage backend to the other, for example from
+ * the JSON files into the embedded database before switching storageBackend to sql.
+ * An entity that already has records in the target is skipped, so running it twice copies nothing twice.
+ * The source is left as it is.
+ *
+ * Usage: StorageMigrator json|sql json|sql [entity]
+ * The entity is one of users, appointments, payments, feedback, reports. Without it, all are copied.
+ */
+public final class StorageMigrator {
+    private StorageMigrator() {} // Prevents instantiation.
+
+    public static void main(String[] args) {
+        StorageBackend source = args.length >= 2 ? StorageBackend.named(args[0]) : null;
+        StorageBackend target = args.length >= 2 ? StorageBackend.named(args[1]) : null;
+        if (source == null || target == null || source == target) {
+            System.out.println("Usage: StorageMigrator json|sql json|sql [users|appointments|payments|feedback|reports]");
+            return;
+        }
+        Map<String, EntityDefinition<?>> entities = entities();
+        Iterable<String> selected = args.length > 2 ? List.of(args[2]) : entities.keySet();
+        for (String name : selected) {
+            EntityDefinition<?> entity = entities.get(name);
+            if (entity == null) {
+                System.out.println("Unknown entity: " + name);
+                continue;
+            }
+            System.out.println(name + ": " + copy(entity, source, target));
+        }
+    }
+
+    /** Copies one entity and returns a line describing the result. */
+    static <T> String copy(EntityDefinition<T> entity, StorageBackend source, StorageBackend target) {
+        RecordStore<T> from = source.open(entity);
+        RecordStore<T> to = target.open(entity);
+        if (!to.readAll().isEmpty()) return "skipped, the target already has records";
+        List<T> records = from.readAll();
+        if (!to.addAll(records)) return "failed";
+        return records.size() + " records copied";
+    }
+
+    private static Map<String, EntityDefinition<?>> entities() {
+        Map<String, EntityDefinition<?>> entities = new LinkedHashMap<String, EntityDefinition<?>>();
+        entities.put(UserRepository.entity.getName(), UserRepository.entity);
+        entities.put(AppointmentRepository.entity.getName(), AppointmentRepository.entity);
+        entities.put(PaymentRepository.entity.getName(), PaymentRepository.entity);
+        entities.put(FeedbackRepository.entity.getName(), FeedbackRepository.entity);
+        entities.put(ReportRepository.entity.getName(), ReportRepository.entity);
+        return entities;
+    }
+}
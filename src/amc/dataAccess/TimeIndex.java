@@ -0,0 +1,138 @@
+package amc.dataAccess;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * This class keeps records sorted by an ISO timestamp field, like an appointment's dateTimeIso.
+ * ISO timestamps sort the same as text, so the sort key is the text itself and nothing is parsed.
+ * A date range is a sub-map view, returned in chronological order without sorting.
+ * Records whose timestamp does not start with a yyyy-MM-dd date are kept apart as undated.
+ * The store keeps the index in step with its own changes through add, remove and replace,
+ * which touch only the record's own time, so a save does not sort the records again.
+ */
+final class TimeIndex<T> {
+
+    private final Function<T, String> timeOf;
+    private NavigableMap<String, List<T>> byTime = new TreeMap<String, List<T>>();
+    private List<T> undated = new ArrayList<T>();
+
+    TimeIndex(Function<T, String> timeOf) {
+        this.timeOf = timeOf;
+    }
+
+    /** Replaces the index contents with the given records. */
+    void rebuild(Iterable<T> records) {
+        NavigableMap<String, List<T>> built = new TreeMap<String, List<T>>();
+        List<T> withoutDate = new ArrayList<T>();
+        for (T record : records) {
+            String time = timeOf.apply(record);
+            if (isDated(time)) {
+                built.computeIfAbsent(time, key -> new ArrayList<T>(1)).add(record);
+            } else {
+                withoutDate.add(record);
+            }
+        }
+        byTime = built;
+        undated = withoutDate;
+    }
+
+    /** Adds a record that comes after every indexed one in file order. */
+    void add(T record) {
+        listFor(timeOf.apply(record)).add(record);
+    }
+
+    /**
+     * Removes a record, found by its place in file order among the records with its time.
+     * Returns false if it is not there, for example because the record was changed after it was indexed.
+     */
+    boolean remove(T record, Comparator<T> fileOrder) {
+        String time = timeOf.apply(record);
+        List<T> sameTime = isDated(time) ? byTime.get(time) : undated;
+        int found = sameTime == null ? -1 : Collections.binarySearch(sameTime, record, fileOrder);
+        if (found < 0 || sameTime.get(found) != record) return false;
+        sameTime.remove(found);
+        if (sameTime.isEmpty() && sameTime != undated) byTime.remove(time);
+        return true;
+    }
+
+    /**
+     * Puts a record in the place of another in file order; the fileOrder must already give it that place.
+     * Returns false like remove does.
+     */
+    boolean replace(T old, T record, Comparator<T> fileOrder) {
+        String time = timeOf.apply(record);
+        String oldTime = timeOf.apply(old);
+        if (isDated(time) ? time.equals(oldTime) : !isDated(oldTime)) {
+            List<T> sameTime = listFor(time);
+            int found = Collections.binarySearch(sameTime, old, fileOrder);
+            if (found < 0 || sameTime.get(found) != old) return false;
+            sameTime.set(found, record);
+            return true;
+        }
+        if (!remove(old, fileOrder)) return false;
+        List<T> sameTime = listFor(time);
+        sameTime.add(-Collections.binarySearch(sameTime, record, fileOrder) - 1, record);
+        return true;
+    }
+
+    // The list a record with this time belongs in, created if it is the first with that time.
+    private List<T> listFor(String time) {
+        return isDated(time) ? byTime.computeIfAbsent(time, key -> new ArrayList<T>(1)) : undated;
+    }
+
+    /** Returns the records dated from one day to another, both included, earliest first. A null day is open. */
+    List<T> between(LocalDate from, LocalDate to) {
+        return flatten(range(from, to));
+    }
+
+    /** Returns how many records between would return, without copying them. */
+    int countBetween(LocalDate from, LocalDate to) {
+        int count = 0;
+        for (List<T> sameTime : range(from, to).values()) {
+            count += sameTime.size();
+        }
+        return count;
+    }
+
+    /** Returns every record earliest first, followed by the undated ones in file order. */
+    List<T> inOrder() {
+        List<T> all = flatten(byTime);
+        all.addAll(undated);
+        return all;
+    }
+
+    /** Returns true if the text starts with a yyyy-MM-dd date. */
+    static boolean isDated(String time) {
+        if (time == null || time.length() < 10) return false;
+        for (int i = 0; i < 10; i++) {
+            char c = time.charAt(i);
+            boolean ok = (i == 4 || i == 7) ? c == '-' : (c >= '0' && c <= '9');
+            if (!ok) return false;
+        }
+        return true;
+    }
+
+    private NavigableMap<String, List<T>> range(LocalDate from, LocalDate to) {
+        NavigableMap<String, List<T>> range = byTime;
+        // "2025-08-28" sorts before every time on that day, so the next day is an exclusive upper bound.
+        if (from != null) range = range.tailMap(from.toString(), true);
+        if (to != null) range = range.headMap(to.plusDays(1).toString(), false);
+        return range;
+    }
+
+    private static <T> List<T> flatten(Map<String, List<T>> range) {
+        List<T> matches = new ArrayList<T>();
+        for (List<T> sameTime : range.values()) {
+            matches.addAll(sameTime);
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,188 @@
+package amc.dataAccess;
+
+import amc.dataModels.Appointment;
+import amc.dataModels.Payment;
+import amc.dataModels.User;
+import amc.helperUtils.DataFileLock;
+import amc.helperUtils.DataPaths;
+import amc.helperUtils.JsonStore;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * This class collects appointment, payment and user changes and writes them together.
+ * Each affected file is written once per commit, however many records changed, so an import
+ * of 500 patients costs one write of userData.json instead of 500.
+ * A commit is never left half done: the changes are first saved to pendingWork.json, then written to
+ * the data files, then the pending file is removed. Once the pending file is saved the commit stands;
+ * if a data file write fails or the program stops, the changes are written again by the next commit
+ * or on the next start (see recoverPendingWork). Nothing is rolled back.
+ * A unit of work is used by one thread; create a new one for each task.
+ */
+public class UnitOfWork {
+
+    // Saved records by id, or null for a delete. The last change to an id wins.
+    private final Map<String, Appointment> appointments = new LinkedHashMap<String, Appointment>();
+    private final Map<String, Payment> payments = new LinkedHashMap<String, Payment>();
+    private final Map<String, User> users = new LinkedHashMap<String, User>();
+
+    // The shape of pendingWork.json.
+    private static final class PendingWork {
+        private Batch<Appointment> appointments;
+        private Batch<Payment> payments;
+        private Batch<User> users;
+    }
+
+    private static final class Batch<T> {
+        private List<T> saves = new ArrayList<T>();
+        private List<String> deletes = new ArrayList<String>();
+    }
+
+    /** Queues an appointment to be added, or to replace the one with the same id. */
+    public void save(Appointment appointment) {
+        appointments.put(requireId(appointment.getAppointmentId()), appointment);
+    }
+
+    /** Queues a payment to be added, or to replace the one with the same id. */
+    public void save(Payment payment) {
+        payments.put(requireId(payment.getPaymentId()), payment);
+    }
+
+    /** Queues a user to be added, or to replace the one with the same id. */
+    public void save(User user) {
+        users.put(requireId(user.getUserId()), user);
+    }
+
+    /** Queues the removal of an appointment. */
+    public void delete(Appointment appointment) {
+        appointments.put(requireId(appointment.getAppointmentId()), null);
+    }
+
+    /** Queues the removal of a payment. */
+    public void delete(Payment payment) {
+        payments.put(requireId(payment.getPaymentId()), null);
+    }
+
+    /** Queues the removal of a user. */
+    public void delete(User user) {
+        users.put(requireId(user.getUserId()), null);
+    }
+
+    /** Returns true if nothing is queued. */
+    public boolean isEmpty() {
+        return appointments.isEmpty() && payments.isEmpty() && users.isEmpty();
+    }
+
+    /** Drops every queued change without writing it. */
+    public void clear() {
+        appointments.clear();
+        payments.clear();
+        users.clear();
+    }
+
+    /**
+     * Writes every queued change, one write per affected file, and empties the queue.
+     * Returns true when all the changes are in the data files. Returns false if a write failed:
+     * if pendingWork.json could not be saved nothing was written; otherwise some changes may
+     * already be in the data files and the rest are written by the next commit or the next start.
+     * The queue is kept after a false return, and calling commit again is safe, since writing
+     * a change twice gives the same result.
+     */
+    public boolean commit() {
+        if (isEmpty()) return true;
+        PendingWork work = new PendingWork();
+        work.appointments = batchOf(appointments);
+        work.payments = batchOf(payments);
+        work.users = batchOf(users);
+        // The lock lets only one commit at a time use the pending file, across workstations too.
+        try (DataFileLock _ = DataFileLock.acquire(DataPaths.pendingWorkPath)) {
+            if (!replayPendingFile()) return false;
+            if (!JsonStore.writeObject(DataPaths.pendingWorkPath, work)) {
+                removePendingFile(); // Nothing was written to the data files yet.
+                return false;
+            }
+            if (!apply(work)) return false;
+            removePendingFile();
+        }
+        clear();
+        return true;
+    }
+
+    /**
+     * Completes a commit that was interrupted, for example by a crash or a full disk.
+     * Call it once at start-up; it does nothing if no commit was left behind.
+     */
+    public static void recoverPendingWork() {
+        try (DataFileLock _ = DataFileLock.acquire(DataPaths.pendingWorkPath)) {
+            replayPendingFile();
+        }
+    }
+
+    // Write the changes of a pending file left by an earlier commit. Saves and deletes by id
+    // can be written twice with the same result, so it does not matter how far the earlier commit got.
+    private static boolean replayPendingFile() {
+        if (!new File(DataPaths.pendingWorkPath).exists()) return true;
+        PendingWork leftover = JsonStore.readObject(DataPaths.pendingWorkPath, PendingWork.class);
+        if (leftover != null && !apply(leftover)) {
+            System.err.println("Could not complete the changes in " + DataPaths.pendingWorkPath);
+            return false;
+        }
+        System.err.println("Completed the unfinished changes in " + DataPaths.pendingWorkPath);
+        removePendingFile();
+        return true;
+    }
+
+    // Every file is tried even if an earlier one fails, so as much as possible is written now.
+    private static boolean apply(PendingWork work) {
+        boolean written = true;
+        if (work.appointments != null) {
+            written &= applyTo(DataPaths.appointmentDataPath,
+                    () -> AppointmentRepository.applyBatch(work.appointments.saves, work.appointments.deletes));
+        }
+        if (work.payments != null) {
+            written &= applyTo(DataPaths.paymentDataPath,
+                    () -> PaymentRepository.applyBatch(work.payments.saves, work.payments.deletes));
+        }
+        if (work.users != null) {
+            written &= applyTo(DataPaths.userDataPath,
+                    () -> UserRepository.applyBatch(work.users.saves, work.users.deletes));
+        }
+        return written;
+    }
+
+    // A journal append reports failure with a StorageException; it counts as a failed write here.
+    private static boolean applyTo(String dataPath, BooleanSupplier batch) {
+        try {
+            return batch.getAsBoolean();
+        } catch (StorageException ex) {
+            System.err.println("Could not write the changes to " + dataPath + ": " + ex.getMessage());
+            return false;
+        }
+    }
+
+    private static void removePendingFile() {
+        File pendingFile = new File(DataPaths.pendingWorkPath);
+        if (pendingFile.exists() && !pendingFile.delete()) {
+            System.err.println("Could not delete " + DataPaths.pendingWorkPath);
+        }
+    }
+
+    private static <T> Batch<T> batchOf(Map<String, T> changes) {
+        if (changes.isEmpty()) return null;
+        Batch<T> batch = new Batch<T>();
+        for (Map.Entry<String, T> change : changes.entrySet()) {
+            if (change.getValue() == null) batch.deletes.add(change.getKey()); else batch.saves.add(change.getValue());
+        }
+        return batch;
+    }
+
+    private static String requireId(String id) {
+        if (id == null) throw new IllegalArgumentException("A record needs an id before it can be added to a unit of work");
+        return id;
+    }
+}
@@ -1,36 +1,87 @@
 package amc.dataAccess;
 
+import amc.dataConstants.RoleTypes;
 import amc.dataModels.User;
 import amc.helperUtils.DataPaths;
-import amc.helperUtils.JsonStore;
 import com.google.gson.reflect.TypeToken;
 import java.lang.reflect.Type;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 // User data access. Loads and saves users from userData.json.
 public class UserRepository {
     private static final Type userListType = new TypeToken<List<User>>(){}.getType();
 
+    // Emails are matched ignoring case, so the index key is the lower-case email.
+    private static final String emailIndex = "email";
+    // Roles are indexed by the name of their RoleTypes constant.
+    private static final String roleIndex = "role";
+
+    static final EntityDefinition<User> entity =
+            new EntityDefinition<User>("users", DataPaths.userDataPath, userListType, User.class, "userId", User::getUserId)
+                    .indexedBy(emailIndex, user -> emailKey(user.getEmail()))
+                    .indexedBy(roleIndex, user -> roleKey(user.getRoleType()));
+
+    // Shared by every repository instance so the journal state is loaded once.
+    private static final RecordStore<User> store = StorageBackend.configured().open(entity);
+
+    private static String emailKey(String email) {
+        return email == null ? null : email.toLowerCase(Locale.ROOT);
+    }
+
+    private static String roleKey(RoleTypes role) {
+        return role == null ? null : role.name();
+    }
 
     public List<User> findAll() {
-        return JsonStore.readList(DataPaths.userDataPath, userListType);
+        return store.readAll();
+    }
+
+    /** Returns how many users there are, for paging. */
+    public int countAll() {
+        return store.count();
+    }
+
+    /** Returns at most limit users from the offset on, in stored order, with only the named fields. */
+    public List<RowView> listRows(int offset, int limit, String... fields) {
+        return store.readRows(offset, limit, Arrays.asList(fields));
+    }
+
+    /** Returns how many users have this role. */
+    public int countByRole(RoleTypes role) {
+        return store.countBy(roleIndex, roleKey(role));
+    }
+
+    /** Returns one page of the users with this role, with only the named fields. */
+    public List<RowView> listRowsByRole(RoleTypes role, int offset, int limit, String... fields) {
+        return store.readRowsBy(roleIndex, roleKey(role), offset, limit, Arrays.asList(fields));
     }
 
     public Optional<User> findByEmail(String emailAddress) {
-        List<User> users = JsonStore.readList(DataPaths.userDataPath, userListType);
-        for (User user : users) {
-            if (user.getEmail() != null && user.getEmail().equalsIgnoreCase(emailAddress)) {
-                return Optional.of(user);
-            }
+        List<User> users = store.findBy(emailIndex, emailKey(emailAddress));
+        return users.isEmpty() ? Optional.empty() : Optional.of(users.get(0));
+    }
+
+    /** Finds the user for a login key: an email address first, then a user id. Both ignore case. */
+    public Optional<User> findByLoginKey(String key) {
+        if (key == null) return Optional.empty();
+        Optional<User> byEmail = findByEmail(key);
+        return byEmail.isPresent() ? byEmail : store.findById(key);
+    }
+
+    /** Returns true if a user other than the excluded one already has this email, ignoring case. */
+    public boolean isEmailTaken(String emailAddress, String excludingUserId) {
+        for (User user : store.findBy(emailIndex, emailKey(emailAddress))) {
+            if (excludingUserId == null || !excludingUserId.equalsIgnoreCase(user.getUserId())) return true;
         }
-        return Optional.empty();
+        return false;
     }
 
 
     public Optional<User> findByName(String userName) {
-        List<User> users = JsonStore.readList(DataPaths.userDataPath, userListType);
+        List<User> users = store.readAll();
         for (User user: users) {
             if (user.getName() != null && user.getName().equals(userName)) {
                 return Optional.of(user);
@@ -40,33 +91,12 @@ public class UserRepository {
     }
 
     public  Optional<User> findByID(String userID) {
-        List<User> users = JsonStore.readList(DataPaths.userDataPath, userListType);
-        for (User user: users) {
-            if (user.getUserId() != null && user.getUserId().equalsIgnoreCase(userID)) {
-                return Optional.of(user);
-            }
-        }
-
-        return Optional.empty();
+        return store.findById(userID);
     }
 
+    // Replace the user with the same ID, or add the user if new.
     public void saveOrUpdate(User newUser) {
-        List<User> users = JsonStore.readList(DataPaths.userDataPath, userListType);
-        List<User> updatedUsers = new ArrayList<>();
-        boolean replaced = false;
-
-        for (User existingUser : users) {
-            if (existingUser.getUserId() != null && existingUser.getUserId().equals(newUser.getUserId())) {
-                updatedUsers.add(newUser); // Replace the matching user.
-                replaced = true;
-            } else {
-                updatedUsers.add(existingUser); // Keep others.
-            }
-        }
-        if (!replaced) {
-            updatedUsers.add(newUser); // Add as new if not found.
-        }
-        JsonStore.writeList(DataPaths.userDataPath, updatedUsers, userListType);
+        store.upsert(newUser);
     }
 
     /**
@@ -75,9 +105,12 @@ public class UserRepository {
      * @param userToDelete The User object to delete.
      */
     public void delete(User userToDelete) {
-        List<User> users = JsonStore.readList(DataPaths.userDataPath, userListType);
         // Remove the user with matching userId.
-        users.removeIf(user -> user.getUserId() != null && user.getUserId().equals(userToDelete.getUserId()));
-        JsonStore.writeList(DataPaths.userDataPath, users, userListType);
+        store.delete(userToDelete.getUserId());
+    }
+
+    // Used by UnitOfWork to write many users at once. Returns false if the write failed.
+    static boolean applyBatch(List<User> saves, List<String> deleteIds) {
+        return store.applyBatch(saves, deleteIds);
     }
 }
\ No newline at end of file
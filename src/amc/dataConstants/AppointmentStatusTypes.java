@@ -1,11 +1,16 @@
 package amc.dataConstants;
 
-/** This class holds appointment status strings. It should not be instantiated. */
-public final class AppointmentStatusTypes {
-    private AppointmentStatusTypes() {} // Prevents creating this utility class.
+/**
+ * This enum lists the appointment statuses. Records store the name, like "COMPLETED".
+ * Stored text is read with parse, which ignores case, so files written as "Completed" still load.
+ */
+public enum AppointmentStatusTypes {
+    PENDING, CONFIRMED, COMPLETED, CANCELLED;
 
-    public static final String pending   = "PENDING";
-    public static final String confirmed = "CONFIRMED";
-    public static final String completed = "COMPLETED";
-    public static final String cancelled = "CANCELLED";
-}
\ No newline at end of file
+    private static final AppointmentStatusTypes[] constants = values();
+
+    /** Returns the status named by the text in any case, or null if it names none. */
+    public static AppointmentStatusTypes parse(String text) {
+        return EnumNames.parse(constants, text);
+    }
+}
@@ -0,0 +1,20 @@
+package amc.dataConstants;
+
+// Reads a stored name back into one of the constants of the enums in this package.
+final class EnumNames {
+    private EnumNames() {} // Prevents instantiation.
+
+    /** Returns the constant whose name matches the text, ignoring case and surrounding spaces, or null. */
+    static <E extends Enum<E>> E parse(E[] constants, String text) {
+        if (text == null) return null;
+        // Records keep the constant's own name string, so most lookups end here without comparing text.
+        for (E constant : constants) {
+            if (constant.name() == text) return constant;
+        }
+        String name = text.trim();
+        for (E constant : constants) {
+            if (constant.name().equalsIgnoreCase(name)) return constant;
+        }
+        return null;
+    }
+}
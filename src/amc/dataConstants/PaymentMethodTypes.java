@@ -1,10 +1,16 @@
 package amc.dataConstants;
 
-/** This class holds payment method strings. It should not be instantiated. */
-public final class PaymentMethodTypes {
-    private PaymentMethodTypes() {} // Prevents creating this utility class.
+/**
+ * This enum lists the payment methods. Records store the name, like "CASH".
+ * Stored text is read with parse, which ignores case, so files written as "Cash" still load.
+ */
+public enum PaymentMethodTypes {
+    CASH, CARD, EWALLET;
 
-    public static final String cash    = "CASH";
-    public static final String card    = "CARD";
-    public static final String ewallet = "EWALLET";
-}
\ No newline at end of file
+    private static final PaymentMethodTypes[] constants = values();
+
+    /** Returns the method named by the text in any case, or null if it names none. */
+    public static PaymentMethodTypes parse(String text) {
+        return EnumNames.parse(constants, text);
+    }
+}
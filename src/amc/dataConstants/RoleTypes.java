@@ -1,22 +1,18 @@
 package amc.dataConstants;
 
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+/**
+ * This enum lists the user roles used across the app. Records store the name, like "DOCTOR".
+ * Stored text is read with parse, which ignores case, so files written as "Doctor" still load.
+ */
+public enum RoleTypes {
+    MANAGER, STAFF, DOCTOR, CUSTOMER;
 
-/** This class holds role strings used across the app. It should not be instantiated. */
-public final class RoleTypes {
-    private RoleTypes() {} // Prevents creating this utility class.
+    private static final RoleTypes[] constants = values();
 
-    public static final String manager  = "MANAGER";
-    public static final String staff    = "STAFF";
-    public static final String doctor   = "DOCTOR";
-    public static final String customer = "CUSTOMER";
-
-    // A set of all valid roles for quick lookup.
-    private static final Set<String> VALID_ROLES = new HashSet<>(Arrays.asList(
-            manager, staff, doctor, customer
-    ));
+    /** Returns the role named by the text in any case, or null if it names none. */
+    public static RoleTypes parse(String text) {
+        return EnumNames.parse(constants, text);
+    }
 
     /**
      * Checks if the given role string is one of the predefined valid roles.
@@ -25,6 +21,6 @@ public final class RoleTypes {
      * @return true if the role is valid, false otherwise.
      */
     public static boolean isValidRole(String role) {
-        return role != null && VALID_ROLES.contains(role.toUpperCase());
+        return parse(role) != null;
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package amc.dataModels;
 
+import amc.dataConstants.AppointmentStatusTypes;
+
 /** This class represents one appointment record stored in appointmentData.json. */
 public class Appointment {
 
@@ -18,7 +20,9 @@ public class Appointment {
     // Optional notes for the appointment.
 
 
-    // Status string: PENDING, CONFIRMED, COMPLETED, or CANCELLED.
+    // Status: PENDING, CONFIRMED, COMPLETED, or CANCELLED.
+    // A known status is kept as the constant's name in any case it was given, so records share one string.
+    // Text naming none is kept as stored, so a save writes it back unchanged.
     private String status;
 
     // Total charge for this appointment. Use 0.0 if not set yet.
@@ -42,11 +46,17 @@ public void setNote(String notes) { this.notes = notes; }
         this.doctorId = doctorId;
         this.dateTimeIso = dateTimeIso;
         this.notes = notes;
-        this.status = status;
+        setStatus(status);
         this.charge = charge;
         this.createdBy = createdBy;
     }
 
+    /** Copy constructor. Records read from a repository are shared with its cache, so edits go to a copy. */
+    public Appointment(Appointment other) {
+        this(other.appointmentId, other.customerId, other.doctorId, other.dateTimeIso,
+                other.notes, other.status, other.charge, other.createdBy);
+    }
+
     public String getAppointmentId() { return appointmentId; }
     public void setAppointmentId(String appointmentId) { this.appointmentId = appointmentId; }
 
@@ -63,7 +73,14 @@ public void setNote(String notes) { this.notes = notes; }
     public void setNotes(String notes) { this.notes = notes; }
 
     public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    public void setStatus(String status) {
+        AppointmentStatusTypes known = AppointmentStatusTypes.parse(status);
+        this.status = known == null ? status : known.name();
+    }
+
+    // Text naming no status reads as null but is still kept.
+    public AppointmentStatusTypes getStatusType() { return AppointmentStatusTypes.parse(status); }
+    public void setStatusType(AppointmentStatusTypes status) { this.status = status == null ? null : status.name(); }
 
     public double getCharge() { return charge; }
     public void setCharge(double charge) { this.charge = charge; }
@@ -1,5 +1,7 @@
 package amc.dataModels;
 
+import amc.dataConstants.PaymentMethodTypes;
+
 /** This class represents one payment record stored in paymentData.json. */
 public class Payment {
 
@@ -12,12 +14,18 @@ public class Payment {
     // Total amount paid. Use 0.0 if not set yet.
     private double amount;
 
-    // Method string: CASH, CARD, or EWALLET.
+    // Method: CASH, CARD, or EWALLET.
+    // A known method is kept as the constant's name in any case it was given, so records share one string.
+    // Text naming none is kept as stored, so a save writes it back unchanged.
     private String method;
 
     // Date and time in ISO format, for example 2025-08-20T15:10.
     private String timestampIso;
 
+    // Key of the receipt form that created it, so submitting the same form twice saves one payment.
+    // Null for payments saved before keys existed.
+    private String idempotencyKey;
+
     /** Empty constructor for JSON loading and general use. */
     public Payment() {}
 
@@ -27,7 +35,7 @@ public class Payment {
         this.paymentId = paymentId;
         this.appointmentId = appointmentId;
         this.amount = amount;
-        this.method = method;
+        setMethod(method);
         this.timestampIso = timestampIso;
     }
 
@@ -41,8 +49,18 @@ public class Payment {
     public void setAmount(double amount) { this.amount = amount; }
 
     public String getMethod() { return method; }
-    public void setMethod(String method) { this.method = method; }
+    public void setMethod(String method) {
+        PaymentMethodTypes known = PaymentMethodTypes.parse(method);
+        this.method = known == null ? method : known.name();
+    }
+
+    // Text naming no method reads as null but is still kept.
+    public PaymentMethodTypes getMethodType() { return PaymentMethodTypes.parse(method); }
+    public void setMethodType(PaymentMethodTypes method) { this.method = method == null ? null : method.name(); }
 
     public String getTimestampIso() { return timestampIso; }
     public void setTimestampIso(String timestampIso) { this.timestampIso = timestampIso; }
+
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package amc.dataModels;
 
+import amc.dataConstants.RoleTypes;
+
 /**
  * This class represents one user record stored in userData.json.
  * It is a simple data holder with getters and setters.
@@ -9,7 +11,9 @@ public class User {
     // Unique id like U001. It identifies the user.
     private String userId;
 
-    // Role string like MANAGER, STAFF, DOCTOR, or CUSTOMER.
+    // Role: MANAGER, STAFF, DOCTOR, or CUSTOMER.
+    // A known role is kept as the constant's name in any case it was given, so records share one string.
+    // Text naming none is kept as stored, so a save writes it back unchanged.
     private String role;
 
     // Full name of the user.
@@ -34,7 +38,7 @@ public class User {
     public User(String userId, String role, String name, String email,
                 String phone, String address, String password) {
         this.userId = userId;
-        this.role = role;
+        setRole(role);
         this.name = name;
         this.email = email;
         this.phone = phone;
@@ -42,13 +46,25 @@ public class User {
         this.password = password;
     }
 
+    // Copy constructor. Records read from a repository are shared with its cache, so edits go to a copy.
+    public User(User other) {
+        this(other.userId, other.role, other.name, other.email, other.phone, other.address, other.password);
+    }
+
     // Getters and setters. They expose fields in a controlled way.
 
     public String getUserId() { return userId; }
     public void setUserId(String userId) { this.userId = userId; }
 
     public String getRole() { return role; }
-    public void setRole(String role) { this.role = role; }
+    public void setRole(String role) {
+        RoleTypes known = RoleTypes.parse(role);
+        this.role = known == null ? role : known.name();
+    }
+
+    // Text naming no role reads as null but is still kept.
+    public RoleTypes getRoleType() { return RoleTypes.parse(role); }
+    public void setRoleType(RoleTypes role) { this.role = role == null ? null : role.name(); }
 
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
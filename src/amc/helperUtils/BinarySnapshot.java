@@ -0,0 +1,405 @@
+package amc.helperUtils;
+
+import amc.dataModels.Appointment;
+import amc.dataModels.Feedback;
+import amc.dataModels.Payment;
+import amc.dataModels.Report;
+import amc.dataModels.User;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class reads and writes a compact binary copy of an entity file, for example appointmentData.bin.
+ * Layout: magic "AMCB", format version, a string dictionary, the record count, then each record
+ * as a byte length followed by its fields. Counts and lengths are variable-length ints.
+ * Status, role and method strings, and user ids that repeat across records, are stored as
+ * dictionary indexes. Timestamps in the usual yyyy-MM-ddTHH:mm form are stored as epoch minutes;
+ * any other timestamp text is kept as is so it reads back unchanged.
+ */
+public final class BinarySnapshot {
+    private BinarySnapshot() {} // Prevents instantiation.
+
+    private static final int magic = 0x414D4342; // "AMCB"
+    // Version 2 added the payment idempotency key. Snapshots of another version are not read, so they get rebuilt.
+    private static final int formatVersion = 2;
+
+    // Timestamp tags.
+    private static final byte noTime = 0;
+    private static final byte epochMinuteTime = 1;
+    private static final byte textTime = 2;
+
+    /** Encodes and decodes the fields of one record type. */
+    private interface RecordCodec<T> {
+        void write(T record, DataOutputStream out, Dictionary dictionary) throws IOException;
+        T read(ByteBuffer in, String[] dictionary);
+    }
+
+    // Strings that repeat across records, stored once per file and referenced by index.
+    private static final class Dictionary {
+        private final Map<String, Integer> indexes = new HashMap<String, Integer>();
+        private final List<String> values = new ArrayList<String>();
+
+        int indexOf(String value) {
+            if (value == null) return -1;
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = values.size();
+                indexes.put(value, index);
+                values.add(value);
+            }
+            return index;
+        }
+    }
+
+    private static final Map<Class<?>, RecordCodec<?>> codecs = new HashMap<Class<?>, RecordCodec<?>>();
+
+    static {
+        codecs.put(Appointment.class, new RecordCodec<Appointment>() {
+            public void write(Appointment a, DataOutputStream out, Dictionary dictionary) throws IOException {
+                writeString(out, a.getAppointmentId());
+                writeWord(out, dictionary, a.getCustomerId());
+                writeWord(out, dictionary, a.getDoctorId());
+                writeTime(out, a.getDateTimeIso());
+                writeString(out, a.getNotes());
+                writeWord(out, dictionary, a.getStatus());
+                out.writeDouble(a.getCharge());
+                writeWord(out, dictionary, a.getCreatedBy());
+            }
+            public Appointment read(ByteBuffer in, String[] dictionary) {
+                Appointment a = new Appointment();
+                a.setAppointmentId(readString(in));
+                a.setCustomerId(readWord(in, dictionary));
+                a.setDoctorId(readWord(in, dictionary));
+                a.setDateTimeIso(readTime(in));
+                a.setNotes(readString(in));
+                a.setStatus(readWord(in, dictionary));
+                a.setCharge(in.getDouble());
+                a.setCreatedBy(readWord(in, dictionary));
+                return a;
+            }
+        });
+        codecs.put(User.class, new RecordCodec<User>() {
+            public void write(User u, DataOutputStream out, Dictionary dictionary) throws IOException {
+                writeString(out, u.getUserId());
+                writeWord(out, dictionary, u.getRole());
+                writeString(out, u.getName());
+                writeString(out, u.getEmail());
+                writeString(out, u.getPhone());
+                writeString(out, u.getAddress());
+                writeString(out, u.getPassword());
+            }
+            public User read(ByteBuffer in, String[] dictionary) {
+                User u = new User();
+                u.setUserId(readString(in));
+                u.setRole(readWord(in, dictionary));
+                u.setName(readString(in));
+                u.setEmail(readString(in));
+                u.setPhone(readString(in));
+                u.setAddress(readString(in));
+                u.setPassword(readString(in));
+                return u;
+            }
+        });
+        codecs.put(Payment.class, new RecordCodec<Payment>() {
+            public void write(Payment p, DataOutputStream out, Dictionary dictionary) throws IOException {
+                writeString(out, p.getPaymentId());
+                writeString(out, p.getAppointmentId());
+                out.writeDouble(p.getAmount());
+                writeWord(out, dictionary, p.getMethod());
+                writeTime(out, p.getTimestampIso());
+                writeString(out, p.getIdempotencyKey());
+            }
+            public Payment read(ByteBuffer in, String[] dictionary) {
+                Payment p = new Payment();
+                p.setPaymentId(readString(in));
+                p.setAppointmentId(readString(in));
+                p.setAmount(in.getDouble());
+                p.setMethod(readWord(in, dictionary));
+                p.setTimestampIso(readTime(in));
+                p.setIdempotencyKey(readString(in));
+                return p;
+            }
+        });
+        codecs.put(Feedback.class, new RecordCodec<Feedback>() {
+            public void write(Feedback f, DataOutputStream out, Dictionary dictionary) throws IOException {
+                writeString(out, f.getFeedbackId());
+                writeWord(out, dictionary, f.getFromUserId());
+                writeWord(out, dictionary, f.getToUserId());
+                writeString(out, f.getAppointmentId());
+                writeVarInt(out, f.getRating() + 1);
+                writeString(out, f.getComment());
+                writeTime(out, f.getTimestampIso());
+            }
+            public Feedback read(ByteBuffer in, String[] dictionary) {
+                Feedback f = new Feedback();
+                f.setFeedbackId(readString(in));
+                f.setFromUserId(readWord(in, dictionary));
+                f.setToUserId(readWord(in, dictionary));
+                f.setAppointmentId(readString(in));
+                f.setRating(readVarInt(in) - 1);
+                f.setComment(readString(in));
+                f.setTimestampIso(readTime(in));
+                return f;
+            }
+        });
+        codecs.put(Report.class, new RecordCodec<Report>() {
+            public void write(Report r, DataOutputStream out, Dictionary dictionary) throws IOException {
+                writeString(out, r.getReportId());
+                writeString(out, r.getTitle());
+                writeWord(out, dictionary, r.getGeneratedByUserId());
+                writeTime(out, r.getGeneratedAtIso());
+                out.writeInt(r.getTotalAppointments());
+                out.writeDouble(r.getTotalRevenue());
+            }
+            public Report read(ByteBuffer in, String[] dictionary) {
+                Report r = new Report();
+                r.setReportId(readString(in));
+                r.setTitle(readString(in));
+                r.setGeneratedByUserId(readWord(in, dictionary));
+                r.setGeneratedAtIso(readTime(in));
+                r.setTotalAppointments(in.getInt());
+                r.setTotalRevenue(in.getDouble());
+                return r;
+            }
+        });
+    }
+
+    /** Returns the binary path for a data file, for example textFiles/userData.bin. */
+    public static String binaryPathFor(String dataPath) {
+        if (dataPath.endsWith(".json")) {
+            return dataPath.substring(0, dataPath.length() - ".json".length()) + ".bin";
+        }
+        return dataPath + ".bin";
+    }
+
+    /** Returns true if records of this List type can be stored in the binary format. */
+    public static boolean supports(Type listType) {
+        return codecs.containsKey(elementClassOf(listType));
+    }
+
+    /** Writes the records to a temp file and renames it over the target. Returns false on error. */
+    @SuppressWarnings("unchecked")
+    public static <T> boolean write(String binaryPath, List<T> records, Type listType) {
+        RecordCodec<T> codec = (RecordCodec<T>) codecs.get(elementClassOf(listType));
+        if (codec == null) return false;
+        File target = new File(binaryPath);
+        File tempFile = null;
+        try {
+            // Records go first into a buffer so the dictionary is complete before it is written.
+            Dictionary dictionary = new Dictionary();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            DataOutputStream bodyOut = new DataOutputStream(body);
+            ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+            DataOutputStream recordOut = new DataOutputStream(recordBytes);
+            for (T record : records) {
+                recordBytes.reset();
+                codec.write(record, recordOut, dictionary);
+                recordOut.flush();
+                writeVarInt(bodyOut, recordBytes.size());
+                recordBytes.writeTo(bodyOut);
+            }
+            bodyOut.flush();
+
+            File folder = target.getAbsoluteFile().getParentFile();
+            if (folder != null && !folder.exists()) folder.mkdirs();
+            tempFile = File.createTempFile(target.getName() + ".", ".tmp", folder);
+            try (FileOutputStream output = new FileOutputStream(tempFile);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output, 1 << 16))) {
+                out.writeInt(magic);
+                out.writeByte(formatVersion);
+                writeVarInt(out, dictionary.values.size());
+                for (String value : dictionary.values) writeString(out, value);
+                writeVarInt(out, records.size());
+                body.writeTo(out);
+                out.flush();
+                output.getFD().sync();
+            }
+            try {
+                Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            if (tempFile != null) tempFile.delete();
+            return false;
+        }
+    }
+
+    /** Reads all records of a binary file. Returns null if the file is missing, unsupported or damaged. */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> read(String binaryPath, Type listType) {
+        RecordCodec<T> codec = (RecordCodec<T>) codecs.get(elementClassOf(listType));
+        File file = new File(binaryPath);
+        if (codec == null || !file.exists()) return null;
+        try {
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+            if (in.getInt() != magic || in.get() != formatVersion) return null;
+            String[] dictionary = new String[readVarInt(in)];
+            for (int i = 0; i < dictionary.length; i++) dictionary[i] = readString(in).intern();
+            int count = readVarInt(in);
+            List<T> records = new ArrayList<T>(count);
+            for (int i = 0; i < count; i++) {
+                int length = readVarInt(in);
+                int next = in.position() + length;
+                records.add(codec.read(in, dictionary));
+                in.position(next); // Skip any fields a newer writer appended.
+            }
+            return records;
+        } catch (Exception ex) {
+            System.err.println("Ignoring unreadable binary snapshot " + binaryPath + ": " + ex);
+            return null;
+        }
+    }
+
+    private static Class<?> elementClassOf(Type listType) {
+        if (listType instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) listType).getActualTypeArguments();
+            if (arguments.length == 1 && arguments[0] instanceof Class) return (Class<?>) arguments[0];
+        }
+        return null;
+    }
+
+    // Unsigned variable-length int: 7 bits per byte, high bit set while more bytes follow.
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = in.get();
+            value |= (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+        return value;
+    }
+
+    // Strings are stored as (byte length + 1) and UTF-8 bytes; 0 means null.
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readVarInt(in) - 1;
+        if (length < 0) return null;
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    // Repeated strings are stored as (dictionary index + 1); 0 means null.
+    private static void writeWord(DataOutputStream out, Dictionary dictionary, String value) throws IOException {
+        writeVarInt(out, dictionary.indexOf(value) + 1);
+    }
+
+    private static String readWord(ByteBuffer in, String[] dictionary) {
+        int index = readVarInt(in) - 1;
+        return index < 0 ? null : dictionary[index];
+    }
+
+    // Store exact yyyy-MM-ddTHH:mm values as epoch minutes and everything else as text.
+    private static void writeTime(DataOutputStream out, String iso) throws IOException {
+        if (iso == null) {
+            out.writeByte(noTime);
+            return;
+        }
+        if (isMinuteTimestamp(iso)) {
+            try {
+                LocalDateTime time = LocalDateTime.of(digits(iso, 0, 4), digits(iso, 5, 2), digits(iso, 8, 2),
+                        digits(iso, 11, 2), digits(iso, 14, 2));
+                out.writeByte(epochMinuteTime);
+                out.writeInt((int) (time.toEpochSecond(ZoneOffset.UTC) / 60));
+                return;
+            } catch (Exception ignore) {
+                // Digits in the right places but not a real date; keep the text below.
+            }
+        }
+        out.writeByte(textTime);
+        writeString(out, iso);
+    }
+
+    private static String readTime(ByteBuffer in) {
+        byte tag = in.get();
+        if (tag == noTime) return null;
+        if (tag == epochMinuteTime) return formatMinute(in.getInt());
+        return readString(in);
+    }
+
+    // True for text shaped exactly like 2025-08-20T14:30.
+    private static boolean isMinuteTimestamp(String iso) {
+        if (iso.length() != 16) return false;
+        for (int i = 0; i < 16; i++) {
+            char c = iso.charAt(i);
+            boolean ok;
+            switch (i) {
+                case 4: case 7: ok = c == '-'; break;
+                case 10:        ok = c == 'T'; break;
+                case 13:        ok = c == ':'; break;
+                default:        ok = c >= '0' && c <= '9';
+            }
+            if (!ok) return false;
+        }
+        return true;
+    }
+
+    private static int digits(String text, int start, int width) {
+        int value = 0;
+        for (int i = start; i < start + width; i++) value = value * 10 + (text.charAt(i) - '0');
+        return value;
+    }
+
+    // Format epoch minutes as yyyy-MM-ddTHH:mm without going through a formatter.
+    private static String formatMinute(int epochMinute) {
+        LocalDateTime time = LocalDateTime.ofEpochSecond(epochMinute * 60L, 0, ZoneOffset.UTC);
+        char[] text = new char[16];
+        putDigits(text, 0, time.getYear(), 4);
+        text[4] = '-';
+        putDigits(text, 5, time.getMonthValue(), 2);
+        text[7] = '-';
+        putDigits(text, 8, time.getDayOfMonth(), 2);
+        text[10] = 'T';
+        putDigits(text, 11, time.getHour(), 2);
+        text[13] = ':';
+        putDigits(text, 14, time.getMinute(), 2);
+        return new String(text);
+    }
+
+    private static void putDigits(char[] text, int start, int value, int width) {
+        for (int i = start + width - 1; i >= start; i--) {
+            text[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package amc.helperUtils;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class guards one data file across processes, for example several front desks sharing textFiles/.
+ * It takes an advisory FileChannel lock on a side file like appointmentData.lock, which also holds
+ * the file's generation: a counter that every writer increases after a write. A writer that read the
+ * data at an older generation knows its copy is stale and must re-apply its change on the latest data.
+ * The lock is reentrant for the thread that holds it. Channels stay open, so an uncontended
+ * acquire is one lock call plus an 8-byte read.
+ */
+public final class DataFileLock implements AutoCloseable {
+
+    // One open channel and one in-process lock per lock file.
+    private static final class LockFile {
+        private final ReentrantLock threadLock = new ReentrantLock();
+        private FileChannel channel;
+        private FileLock fileLock;
+    }
+
+    private static final Map<String, LockFile> lockFiles = new ConcurrentHashMap<>();
+
+    private final LockFile lockFile;
+
+    private DataFileLock(LockFile lockFile) {
+        this.lockFile = lockFile;
+    }
+
+    /** Returns the lock path for a data file, for example textFiles/userData.lock. */
+    public static String lockPathFor(String dataPath) {
+        if (dataPath.endsWith(".json")) {
+            return dataPath.substring(0, dataPath.length() - ".json".length()) + ".lock";
+        }
+        return dataPath + ".lock";
+    }
+
+    /** Blocks until this thread holds the lock of the data file. Close it to release. */
+    public static DataFileLock acquire(String dataPath) {
+        LockFile lockFile = lockFileFor(dataPath);
+        lockFile.threadLock.lock();
+        try {
+            if (lockFile.threadLock.getHoldCount() == 1) {
+                lockFile.fileLock = channelOf(lockFile, dataPath).lock();
+            }
+        } catch (Exception ex) {
+            // Without a file lock this process still serializes its own writers.
+            System.err.println("Could not lock " + lockPathFor(dataPath) + ": " + ex.getMessage());
+        }
+        return new DataFileLock(lockFile);
+    }
+
+    /** Reads the generation without locking. Returns 0 if no writer has stamped the file yet. */
+    public static long peekGeneration(String dataPath) {
+        LockFile lockFile = lockFileFor(dataPath);
+        try {
+            return readGeneration(channelOf(lockFile, dataPath));
+        } catch (Exception ex) {
+            return 0;
+        }
+    }
+
+    /** Returns the generation stored in the lock file. */
+    public long generation() {
+        try {
+            return readGeneration(lockFile.channel);
+        } catch (Exception ex) {
+            return 0;
+        }
+    }
+
+    /** Stores the next generation and returns it. Call after the data file was replaced. */
+    public long bumpGeneration() {
+        long next = generation() + 1;
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+            buffer.putLong(next).flip();
+            while (buffer.hasRemaining()) lockFile.channel.write(buffer, buffer.position());
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+        return next;
+    }
+
+    /** Releases the lock. The file lock is dropped when the outermost hold is closed. */
+    @Override
+    public void close() {
+        try {
+            if (lockFile.threadLock.getHoldCount() == 1 && lockFile.fileLock != null) {
+                lockFile.fileLock.release();
+                lockFile.fileLock = null;
+            }
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        } finally {
+            lockFile.threadLock.unlock();
+        }
+    }
+
+    private static LockFile lockFileFor(String dataPath) {
+        return lockFiles.computeIfAbsent(new File(lockPathFor(dataPath)).getAbsolutePath(), key -> new LockFile());
+    }
+
+    // Open the lock file once and keep it open. Synchronized so two threads do not both open it.
+    private static FileChannel channelOf(LockFile lockFile, String dataPath) throws Exception {
+        synchronized (lockFile) {
+            if (lockFile.channel == null || !lockFile.channel.isOpen()) {
+                File file = new File(lockPathFor(dataPath));
+                File parentFolder = file.getAbsoluteFile().getParentFile();
+                if (parentFolder != null && !parentFolder.exists()) { parentFolder.mkdirs(); }
+                lockFile.channel = FileChannel.open(file.toPath(),
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            return lockFile.channel;
+        }
+    }
+
+    private static long readGeneration(FileChannel channel) throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) return 0; // Shorter than 8 bytes: never stamped.
+        }
+        buffer.flip();
+        return buffer.getLong();
+    }
+}
@@ -10,4 +10,15 @@ public final class DataPaths {
     public static final String feedbackDataPath    = "textFiles/feedbackData.json";
     public static final String reportDataPath      = "textFiles/reportData.json";
     public static final String temporaryIdFilePath = "textFiles/temporaryId.json";
+    public static final String storageSettingsPath = "textFiles/storageSettings.properties";
+
+    // Changes of a unit of work while they are being written; see UnitOfWork.
+    public static final String pendingWorkPath = "textFiles/pendingWork.json";
+
+    // Lock taken while a new receipt checks its idempotency key; see PaymentRepository.saveNew.
+    public static final String newReceiptLockPath = "textFiles/newReceipt";
+
+    // Folders of the per-month files used when month partitions are on.
+    public static final String appointmentPartitionFolder = "textFiles/appointmentPartitions";
+    public static final String paymentPartitionFolder     = "textFiles/paymentPartitions";
 }
\ No newline at end of file
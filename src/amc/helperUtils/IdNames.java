@@ -0,0 +1,139 @@
+package amc.helperUtils;
+
+import amc.helperUtils.primitives.IntArrays;
+import amc.helperUtils.primitives.LongObjectMap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * This class holds names by record id, like user names by user id, for screens that show a name
+ * for every id in a table. Ids are looked up by their packed RecordId key in a primitive map, so
+ * a lookup needs no String hashing and the table keeps no boxed keys or map entries.
+ * Ids ignore case, like repository lookups. Names can also be listed in order and looked up back.
+ */
+public final class IdNames {
+
+    // Names ignore case first, and equal names sort next to each other.
+    private static final Comparator<String> nameOrder = String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+    private final LongObjectMap<String> namesByKey;
+    // Each id as it was first put, so idOf hands back the caller's own spelling of it.
+    private final LongObjectMap<String> idsByKey;
+    // Ids that do not pack into a key, like ones with a long prefix, are kept as text.
+    private Map<String, String> namesByOtherId;
+    private Map<String, String> otherIds;
+
+    // Built on first use after the names change: every id and name, and their positions in name order.
+    private String[] sortedIds;
+    private String[] sortedNames;
+    private int[] byName;
+
+    /** Creates an empty table with room for the expected number of ids. */
+    public IdNames(int expectedSize) {
+        namesByKey = new LongObjectMap<>(expectedSize);
+        idsByKey = new LongObjectMap<>(expectedSize);
+    }
+
+    public IdNames() {
+        this(16);
+    }
+
+    /** Sets the name of an id. A null id or name is ignored. */
+    public void put(String id, String name) {
+        if (id == null || name == null) return;
+        String upperId = normalized(id);
+        long key = RecordId.key(upperId);
+        if (key >= 0) {
+            namesByKey.put(key, name);
+            idsByKey.computeIfAbsent(key, _ -> id);
+        } else {
+            if (namesByOtherId == null) {
+                namesByOtherId = new HashMap<>();
+                otherIds = new HashMap<>();
+            }
+            namesByOtherId.put(upperId, name);
+            otherIds.putIfAbsent(upperId, id);
+        }
+        byName = null;
+    }
+
+    /** Returns the name of an id, or null if it has none. */
+    public String get(String id) {
+        return getOrDefault(id, null);
+    }
+
+    /** Returns the name of an id, or the default if it has none. */
+    public String getOrDefault(String id, String defaultName) {
+        if (id == null) return defaultName;
+        String upperId = normalized(id);
+        long key = RecordId.key(upperId);
+        if (key >= 0) return namesByKey.getOrDefault(key, defaultName);
+        return namesByOtherId == null ? defaultName : namesByOtherId.getOrDefault(upperId, defaultName);
+    }
+
+    // Ids ignore case and surrounding spaces. An id already in that form is returned as it is, with no copy.
+    private static String normalized(String id) {
+        return id.trim().toUpperCase(Locale.ROOT);
+    }
+
+    public int size() {
+        return namesByKey.size() + (namesByOtherId == null ? 0 : namesByOtherId.size());
+    }
+
+    /** Returns each different name once, in alphabetical order ignoring case. */
+    public List<String> sortedNames() {
+        int[] order = byName();
+        List<String> sorted = new ArrayList<>(order.length);
+        for (int position : order) {
+            String name = sortedNames[position];
+            if (sorted.isEmpty() || !sorted.get(sorted.size() - 1).equals(name)) sorted.add(name);
+        }
+        return sorted;
+    }
+
+    /** Returns the id with this name, ignoring case, or null if none has it. Of several, the first in name order. */
+    public String idOf(String name) {
+        if (name == null) return null;
+        int[] order = byName();
+        int found = IntArrays.binarySearch(order, position -> String.CASE_INSENSITIVE_ORDER.compare(sortedNames[position], name));
+        return found < 0 ? null : sortedIds[order[found]];
+    }
+
+    // Entry positions sorted by name, built again after the names change.
+    private int[] byName() {
+        if (byName == null) {
+            String[] ids = new String[size()];
+            String[] names = new String[ids.length];
+            long[] keys = new long[ids.length];
+            int[] count = new int[1];
+            namesByKey.forEach((key, name) -> {
+                keys[count[0]] = key;
+                ids[count[0]] = idsByKey.get(key);
+                names[count[0]++] = name;
+            });
+            if (namesByOtherId != null) {
+                for (Map.Entry<String, String> entry : namesByOtherId.entrySet()) {
+                    keys[count[0]] = -1;
+                    ids[count[0]] = otherIds.get(entry.getKey());
+                    names[count[0]++] = entry.getValue();
+                }
+            }
+            int[] order = IntArrays.positions(ids.length);
+            // Equal names fall back to id order, so the same name always gives the same id.
+            IntArrays.sort(order, (a, b) -> {
+                int byNames = nameOrder.compare(names[a], names[b]);
+                if (byNames != 0) return byNames;
+                return keys[a] >= 0 && keys[b] >= 0 ? Long.compare(keys[a], keys[b]) : ids[a].compareTo(ids[b]);
+            });
+            sortedIds = ids;
+            sortedNames = names;
+            byName = order;
+        }
+        return byName;
+    }
+}
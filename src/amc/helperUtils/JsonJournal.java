@@ -0,0 +1,191 @@
+package amc.helperUtils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class keeps an append-only log of record changes next to a JSON data file.
+ * Each line is one JSON object like {"op":"upsert","id":"A001","record":{...}}.
+ * Replaying the log over the data file gives the current state. Replaying twice gives the same result,
+ * so a snapshot that already contains some of the log is safe.
+ */
+public final class JsonJournal {
+    private JsonJournal() {} // Prevents instantiation.
+
+    public static final String upsertOp = "upsert";
+    public static final String deleteOp = "delete";
+
+    // Compact output keeps one change on one line.
+    private static final Gson gson = ModelAdapters.builder().create();
+
+    /** One replayed change. The record is null for a delete. */
+    public static final class Entry<T> {
+        private final String op;
+        private final String id;
+        private final T record;
+
+        private Entry(String op, String id, T record) {
+            this.op = op;
+            this.id = id;
+            this.record = record;
+        }
+
+        public String getOp() { return op; }
+        public String getId() { return id; }
+        public T getRecord() { return record; }
+        public boolean isDelete() { return deleteOp.equals(op); }
+
+        /** Returns an insert-or-replace of one record, for appendBatch. */
+        public static <T> Entry<T> upsert(String id, T record) { return new Entry<T>(upsertOp, id, record); }
+
+        /** Returns the removal of one record, for appendBatch. */
+        public static <T> Entry<T> delete(String id) { return new Entry<T>(deleteOp, id, null); }
+    }
+
+    /** Returns the journal path for a data file, for example textFiles/userData.journal. */
+    public static String journalPathFor(String dataPath) {
+        if (dataPath.endsWith(".json")) {
+            return dataPath.substring(0, dataPath.length() - ".json".length()) + ".journal";
+        }
+        return dataPath + ".journal";
+    }
+
+    /** Appends an insert-or-replace of one record. Returns false if the append failed. */
+    public static <T> boolean appendUpsert(String journalPath, String id, T record) {
+        return appendLines(journalPath, lineOf(Entry.upsert(id, record)));
+    }
+
+    /** Appends the removal of one record. Returns false if the append failed. */
+    public static boolean appendDelete(String journalPath, String id) {
+        return appendLines(journalPath, lineOf(Entry.delete(id)));
+    }
+
+    /**
+     * Appends several changes with one write and one sync. Returns false if the append failed.
+     * A crash can leave the last line torn, which replay skips; the lines before it stay applied.
+     * The next append cuts the torn line off before writing, so it never swallows a later change.
+     */
+    public static <T> boolean appendBatch(String journalPath, List<Entry<T>> entries) {
+        if (entries.isEmpty()) return true;
+        StringBuilder lines = new StringBuilder();
+        for (Entry<T> entry : entries) {
+            if (lines.length() > 0) lines.append('\n');
+            lines.append(lineOf(entry));
+        }
+        return appendLines(journalPath, lines.toString());
+    }
+
+    private static String lineOf(Entry<?> entry) {
+        JsonObject line = new JsonObject();
+        line.addProperty("op", entry.getOp());
+        line.addProperty("id", entry.getId());
+        if (!entry.isDelete()) line.add("record", gson.toJsonTree(entry.getRecord()));
+        return gson.toJson(line);
+    }
+
+    /**
+     * Reads every change in the journal in order. A torn last line from a crash during append is skipped;
+     * the next append removes it.
+     */
+    public static <T> List<Entry<T>> readEntries(String journalPath, Class<T> recordClass) {
+        List<Entry<T>> entries = new ArrayList<Entry<T>>();
+        File file = new File(journalPath);
+        if (!file.exists()) return entries;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            String text;
+            int lineNumber = 0;
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (text.trim().isEmpty()) continue;
+                try {
+                    JsonObject line = JsonParser.parseString(text).getAsJsonObject();
+                    String op = line.get("op").getAsString();
+                    JsonElement idElement = line.get("id");
+                    String id = idElement == null || idElement.isJsonNull() ? null : idElement.getAsString();
+                    T record = deleteOp.equals(op) ? null : gson.fromJson(line.get("record"), recordClass);
+                    entries.add(new Entry<T>(op, id, record));
+                } catch (Exception ex) {
+                    System.err.println("Skipping unreadable journal line " + lineNumber + " in " + journalPath);
+                }
+            }
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+        return entries;
+    }
+
+    /** Returns the journal size in bytes, or 0 if it does not exist. */
+    public static long length(String journalPath) {
+        return new File(journalPath).length();
+    }
+
+    /** Empties the journal after its changes were folded into the data file. */
+    public static void truncate(String journalPath) {
+        File file = new File(journalPath);
+        if (!file.exists()) return;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(0);
+            channel.force(true);
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    // Append the lines and sync them, so a returned write survives a crash.
+    // A torn last line left by a crash was never acknowledged; it is cut off first, otherwise
+    // the new lines would continue it and replay would skip them along with it.
+    private static boolean appendLines(String journalPath, String lines) {
+        File file = new File(journalPath);
+        File parentFolder = file.getAbsoluteFile().getParentFile();
+        if (parentFolder != null && !parentFolder.exists()) { parentFolder.mkdirs(); }
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long end = completeLength(channel);
+            if (end < channel.size()) {
+                System.err.println("Cutting a torn last line off " + journalPath);
+                channel.truncate(end);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap((lines + "\n").getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                end += channel.write(buffer, end);
+            }
+            channel.force(true);
+            return true;
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            return false;
+        }
+    }
+
+    // The length of the journal up to and including its last newline: everything but a torn last line.
+    private static long completeLength(FileChannel channel) throws IOException {
+        long size = channel.size();
+        ByteBuffer chunk = ByteBuffer.allocate(4096);
+        long chunkEnd = size;
+        while (chunkEnd > 0) {
+            long chunkStart = Math.max(0, chunkEnd - chunk.capacity());
+            chunk.clear();
+            chunk.limit((int) (chunkEnd - chunkStart));
+            while (chunk.hasRemaining()) {
+                if (channel.read(chunk, chunkStart + chunk.position()) < 0) break;
+            }
+            for (int i = chunk.position() - 1; i >= 0; i--) {
+                if (chunk.get(i) == '\n') return chunkStart + i + 1;
+            }
+            chunkEnd = chunkStart;
+        }
+        return 0;
+    }
+}
@@ -1,21 +1,211 @@
 package amc.helperUtils;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 // Simple JSON helper. It reads and writes List<T> to a file.
+// Parsed lists are cached per file and reused until the file changes on disk.
+// Writes go to a temp file that is synced and renamed over the target, so a crash never
+// leaves a half-written file. Writes to one file that arrive while another is queued or being
+// written share one rewrite; a lone write does not wait for company.
+// With binary snapshots on, a compact copy is kept next to each file and read first when newer.
+// With write-behind on, writes return at once and a background thread writes them shortly after.
+// A background write that fails stays queued and is tried again; until it succeeds, writes to that file report failure,
+// and the write-failure listener hears about it once, so the screens can tell the user.
+// Every write holds the file's DataFileLock. If another process wrote the file since our copy was read,
+// changes made through update() are re-applied on its version instead of overwriting it.
+// Files are written in the configured serialization profile: pretty, compact, or compact+gzip.
+// Reads detect gzip from the first bytes, so files written with any profile can be read.
 public final class JsonStore {
-    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    // Models are read and written by the hand-written adapters in ModelAdapters, not by reflection.
+    private static final Gson gson = ModelAdapters.builder().setPrettyPrinting().create();
+    private static final Gson compactGson = ModelAdapters.builder().create();
+
+    // The two bytes every gzip stream starts with.
+    private static final int gzipMagic1 = 0x1f;
+    private static final int gzipMagic2 = 0x8b;
+
+    // How long the first writer waits for more writes to the same file before writing,
+    // when other writes to it are already queued.
+    private static final long groupCommitWindowMillis = 5;
+
+    // How long the writer thread waits before trying a failed write-behind write again.
+    private static final long writeBehindRetryMillis = 1000;
+
+    // Parsed snapshots keyed by absolute file path.
+    private static final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    // Group commit state keyed by absolute file path.
+    private static final Map<String, CommitQueue> commitQueues = new ConcurrentHashMap<>();
+
+    // Told when a write-behind write starts failing; null when nobody listens.
+    private static volatile Consumer<String> writeFailureListener;
+
+    // Background thread that writes queued lists in write-behind mode.
+    private static final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "json-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        // Queued lists must reach the disk when the application exits normally.
+        Runtime.getRuntime().addShutdownHook(new Thread(JsonStore::flushAll, "json-writer-shutdown"));
+    }
+
     private JsonStore(){}
 
+    // Identifies one version of a file on disk: inode, size and modification time. RecordOffsetReader keys its scans on it too.
+    static final class FileStamp {
+        private final Object fileKey;
+        private final long size;
+        private final long modifiedNanos;
+
+        private FileStamp(Object fileKey, long size, long modifiedNanos) {
+            this.fileKey = fileKey;
+            this.size = size;
+            this.modifiedNanos = modifiedNanos;
+        }
+
+        // Read the current stamp of a file. Return null if it cannot be read.
+        static FileStamp of(File file) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+                return new FileStamp(attributes.fileKey(), attributes.size(),
+                        attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS));
+            } catch (Exception ex) {
+                return null;
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof FileStamp)) return false;
+            FileStamp that = (FileStamp) other;
+            return size == that.size && modifiedNanos == that.modifiedNanos && Objects.equals(fileKey, that.fileKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fileKey, size, modifiedNanos);
+        }
+    }
+
+    // An immutable parsed list together with the file version and generation it came from.
+    private static final class Snapshot {
+        private final Type listType;
+        private final FileStamp stamp;
+        private final long generation;
+        private final List<?> records;
+
+        private Snapshot(Type listType, FileStamp stamp, long generation, List<?> records) {
+            this.listType = listType;
+            this.stamp = stamp;
+            this.generation = generation;
+            this.records = records;
+        }
+    }
+
+    // Writes waiting for one file. The newest list wins; every waiting writer is released
+    // once a physical write that includes its ticket has finished.
+    // The changes that produced the newest list are kept with the file version they started from,
+    // so they can be replayed on a newer version written by another process.
+    private static final class CommitQueue {
+        private Batch openBatch = new Batch();
+        private List<?> pendingData;
+        private Type pendingType;
+        private final List<UnaryOperator<List<Object>>> pendingChanges = new ArrayList<>();
+        private long baseGeneration;
+        private FileStamp baseStamp;
+        private long requestedTicket;
+        private long committedTicket;
+        private boolean leaderActive;
+        private boolean flushScheduled;
+        private boolean lastWriteFailed;
+    }
+
+    // The outcome of one physical write, shared by the writers whose tickets it covers.
+    private static final class Batch {
+        private boolean done;
+        private boolean written;
+    }
+
+    private static String cacheKey(String filePath) {
+        return new File(filePath).getAbsolutePath();
+    }
+
+    // Remember a parsed list for this file version. A null stamp means the file state is unknown.
+    // The list is kept without copying, so it must not be changed afterwards. A queued list is
+    // already unmodifiable and is kept as the same instance, so readShared returns one list
+    // from the moment it is queued until the file changes again.
+    private static void remember(String filePath, Type listType, FileStamp stamp, long generation, List<?> data) {
+        if (stamp == null) {
+            snapshots.remove(cacheKey(filePath));
+            return;
+        }
+        List<?> records = Collections.unmodifiableList(data);
+        snapshots.put(cacheKey(filePath), new Snapshot(listType, stamp, generation, records));
+    }
+
+    // The shared Gson instance, for helpers in this package that parse single records.
+    static Gson gson() {
+        return gson;
+    }
+
+    /** Returns true if a read of this file would be served from memory without parsing. */
+    public static boolean isCached(String filePath, Type listType) {
+        return peekShared(filePath, listType) != null;
+    }
+
+    // Like readShared, but return null instead of parsing when the file is not in memory.
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> peekShared(String filePath, Type listType) {
+        return (List<T>) currentRecords(filePath, listType, FileStamp.of(new File(filePath)));
+    }
+
+    /** Drops the cached snapshot of one file so the next read parses it again. */
+    public static void invalidate(String filePath) {
+        snapshots.remove(cacheKey(filePath));
+    }
+
     // Ensure the file and its folder exist. Create an empty JSON array if missing.
     private static void ensureFile(String filePath) {
         try {
@@ -48,15 +238,66 @@ public final class JsonStore {
         }
     }
 
+    // Return the newest parsed list for this file without touching the disk contents:
+    // a write still waiting for its group commit, or a snapshot whose stamp matches the file.
+    // Return null when the file has to be parsed.
+    private static List<?> currentRecords(String filePath, Type listType, FileStamp stamp) {
+        // A write still waiting for its group commit is newer than anything on disk.
+        CommitQueue queue = commitQueues.get(cacheKey(filePath));
+        if (queue != null) {
+            synchronized (queue) {
+                if (queue.committedTicket < queue.requestedTicket && listType.equals(queue.pendingType)) {
+                    return queue.pendingData;
+                }
+            }
+        }
+        Snapshot cached = snapshots.get(cacheKey(filePath));
+        if (cached != null && stamp != null && cached.stamp.equals(stamp) && cached.listType.equals(listType)) {
+            return cached.records;
+        }
+        return null;
+    }
+
     // Read a JSON array into a list. Return an empty list on error.
+    // The file is only parsed when its stamp differs from the cached snapshot.
+    // The returned list is a fresh copy, but the records in it are shared with the cache,
+    // so a changed record must be saved back through writeList.
+    @SuppressWarnings("unchecked")
     public static <T> List<T> readList(String filePath, Type listType) {
         ensureFile(filePath);
+        FileStamp stamp = FileStamp.of(new File(filePath));
+        List<?> current = currentRecords(filePath, listType, stamp);
+        if (current != null) {
+            return new ArrayList<T>((List<T>) current);
+        }
+        // Writers replace the file before raising the generation, so reading the generation first
+        // can only make our copy look older than it is, never newer.
+        long generation = DataFileLock.peekGeneration(filePath);
+
+        boolean useBinary = StorageSettings.isBinarySnapshots() && BinarySnapshot.supports(listType);
+        File binaryFile = new File(BinarySnapshot.binaryPathFor(filePath));
+        boolean binaryIsNewer = useBinary && binaryFile.exists()
+                && binaryFile.lastModified() >= new File(filePath).lastModified();
+        if (binaryIsNewer) {
+            List<T> data = BinarySnapshot.read(binaryFile.getPath(), listType);
+            if (data != null) {
+                remember(filePath, listType, stamp, generation, data);
+                return new ArrayList<T>(data);
+            }
+            // An old-format or damaged copy is rebuilt from the JSON below.
+            binaryIsNewer = false;
+        }
+
         Reader reader = null;
         try {
-            reader = new FileReader(filePath);
+            reader = openReader(filePath);
             List<T> data = gson.fromJson(reader, listType);
-            if (data == null) return new ArrayList<T>();
-            return data;
+            if (data == null) data = new ArrayList<T>();
+            // The stamp was taken before parsing, so a change during the read forces a re-parse next time.
+            remember(filePath, listType, stamp, generation, data);
+            // Refresh a missing or outdated binary copy so the next start can skip the JSON parse.
+            if (useBinary && !binaryIsNewer) BinarySnapshot.write(binaryFile.getPath(), data, listType);
+            return new ArrayList<T>(data);
         } catch (Exception ex) {
             ex.printStackTrace();
             return new ArrayList<T>();
@@ -65,26 +306,444 @@ public final class JsonStore {
         }
     }
 
+    // Return the newest list of the file without copying it. The list must not be changed.
+    // The same list instance is returned until the data changes, so callers can keep
+    // derived data like an index and rebuild it only when the instance differs.
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> readShared(String filePath, Type listType) {
+        ensureFile(filePath);
+        List<?> current = currentRecords(filePath, listType, FileStamp.of(new File(filePath)));
+        if (current != null) return (List<T>) current;
+        List<T> data = readList(filePath, listType);
+        current = currentRecords(filePath, listType, FileStamp.of(new File(filePath)));
+        return current != null ? (List<T>) current : Collections.unmodifiableList(data);
+    }
+
+    // Return only the records of a JSON array that pass the filter. Return an empty list on error.
+    // A cached snapshot is filtered in memory. Otherwise the file is read one element at a time,
+    // so only the matches are kept and the full list is never built.
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> stream(String filePath, Class<T> classOfT, Predicate<? super T> filter) {
+        ensureFile(filePath);
+        Type listType = TypeToken.getParameterized(List.class, classOfT).getType();
+        List<T> matches = new ArrayList<T>();
+        List<?> current = currentRecords(filePath, listType, FileStamp.of(new File(filePath)));
+        if (current != null) {
+            for (T record : (List<T>) current) {
+                if (filter.test(record)) matches.add(record);
+            }
+            return matches;
+        }
+
+        try (JsonReader reader = new JsonReader(openReader(filePath))) {
+            if (reader.peek() == JsonToken.NULL) return matches;
+            TypeAdapter<T> adapter = gson.getAdapter(classOfT);
+            reader.beginArray();
+            while (reader.hasNext()) {
+                T record = adapter.read(reader);
+                if (record != null && filter.test(record)) matches.add(record);
+            }
+            reader.endArray();
+            return matches;
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            return new ArrayList<T>();
+        }
+    }
+
     // Write the whole list back to the file. Overwrite existing content.
-    public static <T> void writeList(String filePath, List<T> data, Type listType) {
+    // With write-behind on, the list is queued and the call returns at once; the writer thread
+    // writes it within the configured latency, merged with any later writes to the same file.
+    // Otherwise the call returns once a write containing this list is on disk. Concurrent writes to
+    // the same file are coalesced: writers that queue while one is writing are written together next,
+    // and a writer that finds others queued waits a short window for more before writing the newest list.
+    // The cached snapshot is replaced with the written list, so the next read does not parse.
+    // The list replaces whatever another process wrote meanwhile; use update() to merge instead.
+    // Returns false if the write failed, or with write-behind on, if an earlier write of the file
+    // failed and is still waiting to be tried again (the list stays queued behind it).
+    public static <T> boolean writeList(String filePath, List<T> data, Type listType) {
+        ensureFile(filePath);
+        CommitQueue queue = commitQueues.computeIfAbsent(cacheKey(filePath), key -> new CommitQueue());
+        List<Object> copy = new ArrayList<Object>(data);
+        long ticket;
+        Batch batch;
+        synchronized (queue) {
+            if (queue.committedTicket >= queue.requestedTicket) startBatch(queue, loadSnapshot(filePath, listType));
+            queue.pendingData = Collections.unmodifiableList(copy);
+            queue.pendingType = listType;
+            queue.pendingChanges.add(ignored -> new ArrayList<Object>(copy));
+            ticket = ++queue.requestedTicket;
+            batch = queue.openBatch;
+        }
+        return commit(filePath, queue, ticket, batch);
+    }
+
+    // Apply a change to the newest list of the file and write the result like writeList does.
+    // The change gets a fresh copy and returns the new list. It must only depend on that list,
+    // for example "replace the record with this id", because it runs again on the latest
+    // version if another process writes the file before our write reaches the disk.
+    // Returns false on failure, like writeList.
+    public static <T> boolean update(String filePath, Type listType, UnaryOperator<List<T>> change) {
+        return submitUpdate(filePath, listType, change).await();
+    }
+
+    /**
+     * Queues a change like update does, but returns before the write: await waits for it.
+     * The queued write tells which shared list the change was applied to and which list it made,
+     * so a caller keeping data derived from readShared can apply the same change to it.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PendingWrite<T> submitUpdate(String filePath, Type listType, UnaryOperator<List<T>> change) {
         ensureFile(filePath);
-        Writer writer = null;
+        CommitQueue queue = commitQueues.computeIfAbsent(cacheKey(filePath), key -> new CommitQueue());
+        synchronized (queue) {
+            List<T> before;
+            if (queue.committedTicket < queue.requestedTicket && listType.equals(queue.pendingType)) {
+                before = (List<T>) queue.pendingData;
+            } else {
+                Snapshot snapshot = loadSnapshot(filePath, listType);
+                startBatch(queue, snapshot);
+                before = (List<T>) snapshot.records;
+            }
+            List<T> after = Collections.unmodifiableList(change.apply(new ArrayList<T>(before)));
+            queue.pendingData = after;
+            queue.pendingType = listType;
+            queue.pendingChanges.add((UnaryOperator<List<Object>>) (UnaryOperator<?>) change);
+            return new PendingWrite<T>(filePath, queue, ++queue.requestedTicket, queue.openBatch, before, after);
+        }
+    }
+
+    /** A change queued by submitUpdate, with the list it was applied to and the list it made. */
+    public static final class PendingWrite<T> {
+        private final String filePath;
+        private final CommitQueue queue;
+        private final long ticket;
+        private final Batch batch;
+        private final List<T> before;
+        private final List<T> after;
+
+        private PendingWrite(String filePath, CommitQueue queue, long ticket, Batch batch, List<T> before, List<T> after) {
+            this.filePath = filePath;
+            this.queue = queue;
+            this.ticket = ticket;
+            this.batch = batch;
+            this.before = before;
+            this.after = after;
+        }
+
+        /** The newest list of the file when the change was queued, as readShared returned it. */
+        public List<T> before() { return before; }
+
+        /** The list with the change applied, which readShared returns until the file changes again. */
+        public List<T> after() { return after; }
+
+        /** Writes the change like update does and returns false on failure. Call it once. */
+        public boolean await() {
+            return commit(filePath, queue, ticket, batch);
+        }
+    }
+
+    // Return the snapshot of the file, parsing it if needed. The generation is 0 and the stamp
+    // null if the file could not be cached, which makes the next write re-check the file.
+    private static Snapshot loadSnapshot(String filePath, Type listType) {
+        List<Object> records = readList(filePath, listType);
+        Snapshot snapshot = snapshots.get(cacheKey(filePath));
+        if (snapshot != null && snapshot.listType.equals(listType)
+                && snapshot.stamp.equals(FileStamp.of(new File(filePath)))) {
+            return snapshot;
+        }
+        return new Snapshot(listType, null, 0, records);
+    }
+
+    // A new batch starts from the given file version.
+    private static void startBatch(CommitQueue queue, Snapshot base) {
+        queue.pendingChanges.clear();
+        queue.baseGeneration = base.generation;
+        queue.baseStamp = base.stamp;
+    }
+
+    // Hand a queued ticket to the writer thread, or wait until it is written. Returns false on failure.
+    private static boolean commit(String filePath, CommitQueue queue, long ticket, Batch batch) {
+        if (StorageSettings.isWriteBehind()) {
+            boolean schedule;
+            boolean failing;
+            synchronized (queue) {
+                schedule = !queue.flushScheduled;
+                queue.flushScheduled = true;
+                failing = queue.lastWriteFailed;
+            }
+            if (schedule) {
+                writer.schedule(() -> flushQueue(filePath, queue), StorageSettings.writeBehindLatencyMillis(), TimeUnit.MILLISECONDS);
+            }
+            return !failing;
+        }
+
+        boolean interrupted = false;
+        boolean leader = false;
+        boolean othersPending = false;
+        synchronized (queue) {
+            while (queue.committedTicket < ticket) {
+                if (!queue.leaderActive) {
+                    queue.leaderActive = true;
+                    leader = true;
+                    othersPending = queue.requestedTicket - queue.committedTicket > 1;
+                    break;
+                }
+                try {
+                    queue.wait();
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+        }
+
+        if (leader) {
+            // A lone write goes straight to disk; the window only pays off when other writers are active.
+            if (othersPending) {
+                try {
+                    Thread.sleep(groupCommitWindowMillis);
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+            writeBatch(filePath, queue);
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        synchronized (queue) {
+            return batch.written;
+        }
+    }
+
+    /**
+     * Sets who is told when a queued write-behind write fails, with a message naming the file.
+     * It is called once when a file starts failing, on the writer thread, not again for each retry.
+     */
+    public static void onWriteFailure(Consumer<String> listener) {
+        writeFailureListener = listener;
+    }
+
+    /** Writes every queued list to disk now. Runs on shutdown; screens may also call it before exit. */
+    public static void flushAll() {
+        for (Map.Entry<String, CommitQueue> entry : commitQueues.entrySet()) {
+            flushQueue(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /** Writes the queued list of one file to disk now, if there is one. Returns false if the last write of the file failed. */
+    public static boolean flush(String filePath) {
+        CommitQueue queue = commitQueues.get(cacheKey(filePath));
+        if (queue == null) return true;
+        flushQueue(filePath, queue);
+        synchronized (queue) {
+            return !queue.lastWriteFailed;
+        }
+    }
+
+    // Write the newest queued list of one file if it is not on disk yet.
+    // If another thread is writing the file, wait for it and then check again.
+    // The file lock is taken before becoming the writer and released while waiting: a thread that
+    // holds it and flushes its own write must never wait for a writer that is waiting for the lock.
+    private static void flushQueue(String filePath, CommitQueue queue) {
+        boolean interrupted = false;
+        while (true) {
+            boolean leader = false;
+            try (DataFileLock _ = DataFileLock.acquire(filePath)) {
+                synchronized (queue) {
+                    queue.flushScheduled = false;
+                    if (queue.committedTicket >= queue.requestedTicket) break;
+                    if (!queue.leaderActive) {
+                        queue.leaderActive = true;
+                        leader = true;
+                    }
+                }
+                if (leader) {
+                    writeBatch(filePath, queue);
+                    break;
+                }
+            }
+            synchronized (queue) {
+                while (queue.leaderActive) {
+                    try {
+                        queue.wait();
+                    } catch (InterruptedException ex) {
+                        interrupted = true;
+                    }
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    // Write the newest queued list as the current leader, then release the waiting writers.
+    // Under the file lock, a generation or stamp that moved since the batch started means another
+    // process wrote the file: its version is parsed and the queued changes are replayed on it.
+    // A failed write-behind batch stays queued and is tried again; a failed waited-for batch is
+    // reported to its writers and dropped.
+    private static void writeBatch(String filePath, CommitQueue queue) {
+        Batch batch;
+        List<?> batchData;
+        Type batchType;
+        long batchTicket;
+        List<UnaryOperator<List<Object>>> batchChanges;
+        long baseGeneration;
+        FileStamp baseStamp;
+        File file = new File(filePath);
+        boolean written = false;
+        boolean rebased = false;
+        long generation = 0;
+        FileStamp stamp = null;
+        DataFileLock lock = DataFileLock.acquire(filePath);
+        synchronized (queue) {
+            batch = queue.openBatch;
+            queue.openBatch = new Batch();
+            batchData = queue.pendingData;
+            batchType = queue.pendingType;
+            batchTicket = queue.requestedTicket;
+            batchChanges = new ArrayList<>(queue.pendingChanges);
+            baseGeneration = queue.baseGeneration;
+            baseStamp = queue.baseStamp;
+        }
         try {
-            writer = new FileWriter(filePath, false);
-            gson.toJson(data, listType, writer);
+            if (lock.generation() != baseGeneration || !Objects.equals(FileStamp.of(file), baseStamp)) {
+                List<Object> latest = parseFile(filePath, batchType);
+                if (latest != null) {
+                    for (UnaryOperator<List<Object>> change : batchChanges) {
+                        latest = change.apply(new ArrayList<Object>(latest));
+                    }
+                    batchData = latest;
+                    rebased = true;
+                }
+            }
+            written = writeAtomically(file, batchData, batchType);
+            if (written) {
+                generation = lock.bumpGeneration();
+                stamp = FileStamp.of(file);
+                if (StorageSettings.isBinarySnapshots() && BinarySnapshot.supports(batchType)) {
+                    BinarySnapshot.write(BinarySnapshot.binaryPathFor(filePath), batchData, batchType);
+                }
+            }
+        } finally {
+            if (written) {
+                remember(filePath, batchType, stamp, generation, batchData);
+            } else {
+                invalidate(filePath);
+            }
+            boolean retry = !written && StorageSettings.isWriteBehind();
+            boolean newlyFailing;
+            synchronized (queue) {
+                newlyFailing = retry && !queue.lastWriteFailed;
+                batch.done = true;
+                batch.written = written;
+                queue.lastWriteFailed = !written;
+                if (retry) {
+                    // The tickets stay unwritten and the changes queued, so the next try starts from the same base.
+                    if (!queue.flushScheduled) {
+                        queue.flushScheduled = true;
+                        writer.schedule(() -> flushQueue(filePath, queue), writeBehindRetryMillis, TimeUnit.MILLISECONDS);
+                    }
+                } else {
+                    queue.committedTicket = batchTicket;
+                    queue.pendingChanges.subList(0, batchChanges.size()).clear();
+                    queue.baseGeneration = generation;
+                    queue.baseStamp = stamp;
+                    // Changes queued during the write were applied to the old list; move them onto ours.
+                    if (rebased && queue.committedTicket < queue.requestedTicket) {
+                        List<Object> replayed = new ArrayList<Object>(batchData);
+                        for (UnaryOperator<List<Object>> change : queue.pendingChanges) {
+                            replayed = change.apply(new ArrayList<Object>(replayed));
+                        }
+                        queue.pendingData = Collections.unmodifiableList(replayed);
+                    }
+                }
+                queue.leaderActive = false;
+                queue.notifyAll();
+            }
+            if (retry) System.err.println("Could not write " + filePath + "; its changes stay queued and are tried again.");
+            lock.close();
+            Consumer<String> listener = writeFailureListener;
+            if (newlyFailing && listener != null) {
+                listener.accept("Could not save " + file.getName() + ".\nThe changes are kept and saving is retried"
+                        + " until it succeeds. Check the data folder and free disk space.");
+            }
+        }
+    }
+
+    // Parse the file as it is on disk, ignoring caches. Return null on error.
+    private static List<Object> parseFile(String filePath, Type listType) {
+        try (Reader reader = openReader(filePath)) {
+            List<Object> data = gson.fromJson(reader, listType);
+            return data == null ? new ArrayList<Object>() : data;
         } catch (Exception ex) {
             ex.printStackTrace();
-        } finally {
-            try { if (writer != null) writer.close(); } catch (Exception ignore) {}
+            return null;
+        }
+    }
+
+    // Open a file for reading as text, unpacking it first if it starts with the gzip header.
+    private static Reader openReader(String filePath) throws IOException {
+        InputStream input = new BufferedInputStream(new FileInputStream(filePath), 64 * 1024);
+        try {
+            input.mark(2);
+            boolean gzipped = input.read() == gzipMagic1 && input.read() == gzipMagic2;
+            input.reset();
+            if (gzipped) input = new GZIPInputStream(input, 64 * 1024);
+            return new InputStreamReader(input, StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            input.close();
+            throw ex;
+        }
+    }
+
+    // Serialize into a temp file next to the target, sync it, then rename it over the target.
+    // The serialization profile decides between indented text, compact text, and gzip.
+    private static boolean writeAtomically(File target, Object data, Type type) {
+        File folder = target.getAbsoluteFile().getParentFile();
+        File tempFile = null;
+        String profile = StorageSettings.serializationProfile();
+        Gson profileGson = profile.equals(StorageSettings.prettyProfile) ? gson : compactGson;
+        try {
+            tempFile = File.createTempFile(target.getName() + ".", ".tmp", folder);
+            try (FileOutputStream output = new FileOutputStream(tempFile)) {
+                OutputStream stream = new BufferedOutputStream(output, 64 * 1024);
+                GZIPOutputStream gzip = null;
+                if (profile.equals(StorageSettings.gzipProfile)) {
+                    gzip = new GZIPOutputStream(stream, 64 * 1024);
+                    stream = gzip;
+                }
+                Writer writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8);
+                if (type == null) profileGson.toJson(data, writer); else profileGson.toJson(data, type, writer);
+                writer.flush();
+                if (gzip != null) gzip.finish();
+                stream.flush();
+                output.getFD().sync();
+            }
+            try {
+                Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            syncFolder(folder);
+            return true;
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            if (tempFile != null) tempFile.delete();
+            return false;
         }
     }
 
+    // Make the rename durable. Some platforms cannot open a folder, which is fine to skip.
+    private static void syncFolder(File folder) {
+        try (FileChannel channel = FileChannel.open(folder.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (Exception ignore) {}
+    }
+
     // Read a JSON object into a generic type. Return a new instance on error or if file is empty.
     public static <T> T readObject(String filePath, Class<T> classOfT) {
         ensureObjectFile(filePath);
         Reader reader = null;
         try {
-            reader = new FileReader(filePath);
+            reader = openReader(filePath);
             T data = gson.fromJson(reader, classOfT);
             if (data == null) {
                 try {
@@ -107,17 +766,9 @@ public final class JsonStore {
         }
     }
 
-    // Write a generic object to a JSON file. Overwrite existing content.
-    public static <T> void writeObject(String filePath, T object) {
+    // Write a generic object to a JSON file. Overwrite existing content. Return false if the write failed.
+    public static <T> boolean writeObject(String filePath, T object) {
         ensureObjectFile(filePath);
-        Writer writer = null;
-        try {
-            writer = new FileWriter(filePath, false);
-            gson.toJson(object, writer);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        } finally {
-            try { if (writer != null) writer.close(); } catch (Exception ignore) {}
-        }
+        return writeAtomically(new File(filePath), object, null);
     }
 }
\ No newline at end of file
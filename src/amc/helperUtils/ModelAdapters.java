@@ -0,0 +1,273 @@
+package amc.helperUtils;
+
+import amc.dataConstants.AppointmentStatusTypes;
+import amc.dataConstants.PaymentMethodTypes;
+import amc.dataConstants.RoleTypes;
+import amc.dataModels.Appointment;
+import amc.dataModels.Feedback;
+import amc.dataModels.Payment;
+import amc.dataModels.Report;
+import amc.dataModels.User;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class reads and writes the data models with hand-written Gson adapters instead of reflection.
+ * Each adapter streams the fields by name: unknown fields are skipped without being parsed into objects,
+ * statuses, roles and payment methods are interned to their constants' names, and unknown values keep their text.
+ * Fields are written in declaration order and null fields are left out, exactly like reflective Gson,
+ * so files written either way are the same. Every Gson of the storage layer registers the factory.
+ */
+public final class ModelAdapters {
+    private ModelAdapters() {} // Prevents instantiation.
+
+    /** Hands out the adapter of each data model class to Gson. */
+    public static final TypeAdapterFactory factory = new TypeAdapterFactory() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            Class<? super T> rawType = type.getRawType();
+            if (rawType == Appointment.class) return (TypeAdapter<T>) appointmentAdapter;
+            if (rawType == User.class) return (TypeAdapter<T>) userAdapter;
+            if (rawType == Payment.class) return (TypeAdapter<T>) paymentAdapter;
+            if (rawType == Feedback.class) return (TypeAdapter<T>) feedbackAdapter;
+            if (rawType == Report.class) return (TypeAdapter<T>) reportAdapter;
+            return null;
+        }
+    };
+
+    /** Returns a GsonBuilder with the model adapters registered. */
+    public static GsonBuilder builder() {
+        return new GsonBuilder().registerTypeAdapterFactory(factory);
+    }
+
+    // Reads and writes one record. Subclasses list the fields.
+    private abstract static class ModelAdapter<T> extends TypeAdapter<T> {
+
+        abstract T newRecord();
+
+        // Read one field into the record. Return false for a field this model does not have.
+        abstract boolean readField(String name, JsonReader in, T record) throws IOException;
+
+        abstract void writeFields(JsonWriter out, T record) throws IOException;
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            T record = newRecord();
+            in.beginObject();
+            while (in.hasNext()) {
+                if (!readField(in.nextName(), in, record)) in.skipValue();
+            }
+            in.endObject();
+            return record;
+        }
+
+        @Override
+        public void write(JsonWriter out, T record) throws IOException {
+            if (record == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            writeFields(out, record);
+            out.endObject();
+        }
+    }
+
+    // Like Gson's String adapter: numbers and booleans are read as their text.
+    private static String readString(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN) return Boolean.toString(in.nextBoolean());
+        return in.nextString();
+    }
+
+    // The status, role and method names, so every record shares one copy of each.
+    private static final Map<String, String> constants = new HashMap<>();
+    static {
+        for (Enum<?>[] values : new Enum<?>[][] {
+                AppointmentStatusTypes.values(), RoleTypes.values(), PaymentMethodTypes.values()}) {
+            for (Enum<?> value : values) constants.put(value.name(), value.name());
+        }
+    }
+
+    // Text spelled like a constant comes back as the constant's name; other text is returned as read.
+    private static String readConstant(JsonReader in) throws IOException {
+        String value = readString(in);
+        return value == null ? null : constants.getOrDefault(value, value);
+    }
+
+    // A null number keeps the field's default, like reflective Gson does for primitive fields.
+    private static boolean isNull(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.NULL) return false;
+        in.nextNull();
+        return true;
+    }
+
+    // A null value leaves the field out, since Gson's writers do not serialize nulls.
+    private static void writeString(JsonWriter out, String name, String value) throws IOException {
+        out.name(name).value(value);
+    }
+
+    private static final ModelAdapter<Appointment> appointmentAdapter = new ModelAdapter<Appointment>() {
+        @Override Appointment newRecord() { return new Appointment(); }
+
+        @Override
+        boolean readField(String name, JsonReader in, Appointment record) throws IOException {
+            switch (name) {
+                case "appointmentId": record.setAppointmentId(readString(in)); return true;
+                case "customerId": record.setCustomerId(readString(in)); return true;
+                case "doctorId": record.setDoctorId(readString(in)); return true;
+                case "dateTimeIso": record.setDateTimeIso(readString(in)); return true;
+                case "status": record.setStatus(readConstant(in)); return true;
+                case "charge": if (!isNull(in)) record.setCharge(in.nextDouble()); return true;
+                case "createdBy": record.setCreatedBy(readString(in)); return true;
+                // Appointment has both getNote and getNotes for one field; accept either name, write "notes".
+                case "notes":
+                case "note": record.setNotes(readString(in)); return true;
+                default: return false;
+            }
+        }
+
+        @Override
+        void writeFields(JsonWriter out, Appointment record) throws IOException {
+            writeString(out, "appointmentId", record.getAppointmentId());
+            writeString(out, "customerId", record.getCustomerId());
+            writeString(out, "doctorId", record.getDoctorId());
+            writeString(out, "dateTimeIso", record.getDateTimeIso());
+            writeString(out, "status", record.getStatus());
+            out.name("charge").value(record.getCharge());
+            writeString(out, "createdBy", record.getCreatedBy());
+            writeString(out, "notes", record.getNotes());
+        }
+    };
+
+    private static final ModelAdapter<User> userAdapter = new ModelAdapter<User>() {
+        @Override User newRecord() { return new User(); }
+
+        @Override
+        boolean readField(String name, JsonReader in, User record) throws IOException {
+            switch (name) {
+                case "userId": record.setUserId(readString(in)); return true;
+                case "role": record.setRole(readConstant(in)); return true;
+                case "name": record.setName(readString(in)); return true;
+                case "email": record.setEmail(readString(in)); return true;
+                case "phone": record.setPhone(readString(in)); return true;
+                case "address": record.setAddress(readString(in)); return true;
+                case "password": record.setPassword(readString(in)); return true;
+                default: return false;
+            }
+        }
+
+        @Override
+        void writeFields(JsonWriter out, User record) throws IOException {
+            writeString(out, "userId", record.getUserId());
+            writeString(out, "role", record.getRole());
+            writeString(out, "name", record.getName());
+            writeString(out, "email", record.getEmail());
+            writeString(out, "phone", record.getPhone());
+            writeString(out, "address", record.getAddress());
+            writeString(out, "password", record.getPassword());
+        }
+    };
+
+    private static final ModelAdapter<Payment> paymentAdapter = new ModelAdapter<Payment>() {
+        @Override Payment newRecord() { return new Payment(); }
+
+        @Override
+        boolean readField(String name, JsonReader in, Payment record) throws IOException {
+            switch (name) {
+                case "paymentId": record.setPaymentId(readString(in)); return true;
+                case "appointmentId": record.setAppointmentId(readString(in)); return true;
+                case "amount": if (!isNull(in)) record.setAmount(in.nextDouble()); return true;
+                case "method": record.setMethod(readConstant(in)); return true;
+                case "timestampIso": record.setTimestampIso(readString(in)); return true;
+                case "idempotencyKey": record.setIdempotencyKey(readString(in)); return true;
+                default: return false;
+            }
+        }
+
+        @Override
+        void writeFields(JsonWriter out, Payment record) throws IOException {
+            writeString(out, "paymentId", record.getPaymentId());
+            writeString(out, "appointmentId", record.getAppointmentId());
+            out.name("amount").value(record.getAmount());
+            writeString(out, "method", record.getMethod());
+            writeString(out, "timestampIso", record.getTimestampIso());
+            writeString(out, "idempotencyKey", record.getIdempotencyKey());
+        }
+    };
+
+    private static final ModelAdapter<Feedback> feedbackAdapter = new ModelAdapter<Feedback>() {
+        @Override Feedback newRecord() { return new Feedback(); }
+
+        @Override
+        boolean readField(String name, JsonReader in, Feedback record) throws IOException {
+            switch (name) {
+                case "feedbackId": record.setFeedbackId(readString(in)); return true;
+                case "fromUserId": record.setFromUserId(readString(in)); return true;
+                case "toUserId": record.setToUserId(readString(in)); return true;
+                case "appointmentId": record.setAppointmentId(readString(in)); return true;
+                case "rating": if (!isNull(in)) record.setRating(in.nextInt()); return true;
+                case "comment": record.setComment(readString(in)); return true;
+                case "timestampIso": record.setTimestampIso(readString(in)); return true;
+                default: return false;
+            }
+        }
+
+        @Override
+        void writeFields(JsonWriter out, Feedback record) throws IOException {
+            writeString(out, "feedbackId", record.getFeedbackId());
+            writeString(out, "fromUserId", record.getFromUserId());
+            writeString(out, "toUserId", record.getToUserId());
+            writeString(out, "appointmentId", record.getAppointmentId());
+            out.name("rating").value(record.getRating());
+            writeString(out, "comment", record.getComment());
+            writeString(out, "timestampIso", record.getTimestampIso());
+        }
+    };
+
+    private static final ModelAdapter<Report> reportAdapter = new ModelAdapter<Report>() {
+        @Override Report newRecord() { return new Report(); }
+
+        @Override
+        boolean readField(String name, JsonReader in, Report record) throws IOException {
+            switch (name) {
+                case "reportId": record.setReportId(readString(in)); return true;
+                case "title": record.setTitle(readString(in)); return true;
+                case "generatedByUserId": record.setGeneratedByUserId(readString(in)); return true;
+                case "generatedAtIso": record.setGeneratedAtIso(readString(in)); return true;
+                case "totalAppointments": if (!isNull(in)) record.setTotalAppointments(in.nextInt()); return true;
+                case "totalRevenue": if (!isNull(in)) record.setTotalRevenue(in.nextDouble()); return true;
+                default: return false;
+            }
+        }
+
+        @Override
+        void writeFields(JsonWriter out, Report record) throws IOException {
+            writeString(out, "reportId", record.getReportId());
+            writeString(out, "title", record.getTitle());
+            writeString(out, "generatedByUserId", record.getGeneratedByUserId());
+            writeString(out, "generatedAtIso", record.getGeneratedAtIso());
+            out.name("totalAppointments").value(record.getTotalAppointments());
+            out.name("totalRevenue").value(record.getTotalRevenue());
+        }
+    };
+}
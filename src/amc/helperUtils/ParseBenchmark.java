@@ -0,0 +1,83 @@
+package amc.helperUtils;
+
+import amc.dataModels.Appointment;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.FileReader;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * This tool measures how fast appointmentData.json parses with reflective Gson and with the
+ * hand-written adapters in ModelAdapters. The file's records are repeated to make a larger list,
+ * which is parsed by each Gson in turn, and both results are checked to be the same.
+ *
+ * Usage: ParseBenchmark [copies] [rounds]
+ * copies is how many times the file's records are repeated (default 2000), rounds how many
+ * timed parses each Gson gets after warming up (default 10).
+ */
+public final class ParseBenchmark {
+    private ParseBenchmark() {} // Prevents instantiation.
+
+    private static final Type listType = new TypeToken<List<Appointment>>(){}.getType();
+
+    public static void main(String[] args) throws Exception {
+        int copies = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        JsonArray original;
+        try (Reader reader = new FileReader(DataPaths.appointmentDataPath)) {
+            original = JsonParser.parseReader(reader).getAsJsonArray();
+        }
+        JsonArray repeated = new JsonArray();
+        for (int copy = 0; copy < copies; copy++) {
+            for (JsonElement record : original) repeated.add(record);
+        }
+        String json = repeated.toString();
+        int records = repeated.size();
+        System.out.println("Parsing " + records + " appointments (" + json.length() / 1024 + " KB), " + rounds + " rounds each");
+
+        Gson reflective = new Gson();
+        Gson adapters = ModelAdapters.builder().create();
+        List<Appointment> expected = reflective.fromJson(json, listType);
+        List<Appointment> actual = adapters.fromJson(json, listType);
+        if (!reflective.toJson(expected, listType).equals(reflective.toJson(actual, listType))) {
+            System.out.println("The two parsers disagree; not timing them.");
+            return;
+        }
+
+        // Warm up both, then time them alternately so neither gets a warmer JVM.
+        for (int round = 0; round < rounds; round++) {
+            parse(reflective, json);
+            parse(adapters, json);
+        }
+        long reflectiveNanos = 0;
+        long adapterNanos = 0;
+        for (int round = 0; round < rounds; round++) {
+            reflectiveNanos += parse(reflective, json);
+            adapterNanos += parse(adapters, json);
+        }
+        report("reflective", records, rounds, reflectiveNanos);
+        report("adapters", records, rounds, adapterNanos);
+        System.out.printf("speedup: %.2fx%n", (double) reflectiveNanos / adapterNanos);
+    }
+
+    // Parse the list once and return the time taken.
+    private static long parse(Gson gson, String json) {
+        long start = System.nanoTime();
+        List<Appointment> parsed = gson.fromJson(json, listType);
+        long elapsed = System.nanoTime() - start;
+        if (parsed.isEmpty()) System.out.println("Nothing parsed.");
+        return elapsed;
+    }
+
+    private static void report(String name, int records, int rounds, long nanos) {
+        double millisPerRound = nanos / 1e6 / rounds;
+        System.out.printf("%-10s %8.1f ms per parse, %,12.0f records/s%n", name, millisPerRound, records / (millisPerRound / 1000));
+    }
+}
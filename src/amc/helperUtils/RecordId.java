@@ -0,0 +1,140 @@
+package amc.helperUtils;
+
+import java.util.Locale;
+
+/**
+ * This class is a record id like U001 or A1000 read once into its prefix and number.
+ * Ids are the prefix and the number padded to at least 3 digits, so the ids written so far
+ * (A030, U321) read as they are, and numbers past 999 simply get longer (A999, A1000).
+ * Compare, hash and sort ids through this class rather than as text: as text "A1000" sorts before
+ * "A999", while here the number is compared as a long.
+ * Only that form is read, so "U0200" and "U20" are not taken for U200. The prefix ignores case,
+ * like repository lookups, so "u200" is the same id as U200; key(String) takes only the exact form.
+ */
+public final class RecordId implements Comparable<RecordId> {
+
+    private static final int minimumDigits = 3;
+
+    // A packed key holds up to 3 prefix letters, 5 bits each, above a 48-bit number.
+    private static final int keyPrefixLetters = 3;
+    private static final int keyNumberBits = 48;
+    private static final long keyNumberMask = (1L << keyNumberBits) - 1;
+
+    private final String prefix;
+    private final long number;
+
+    private RecordId(String prefix, long number) {
+        this.prefix = prefix;
+        this.number = number;
+    }
+
+    /** Returns the id with this prefix and number. The prefix is kept in upper case. */
+    public static RecordId of(String prefix, long number) {
+        return new RecordId(prefix.toUpperCase(Locale.ROOT), number);
+    }
+
+    /**
+     * Reads an id made of letters followed by digits, ignoring case and surrounding spaces.
+     * Returns null for anything else, including digits not written like format writes them
+     * and a number too large for a long.
+     */
+    public static RecordId parse(String id) {
+        if (id == null) return null;
+        String text = id.trim();
+        int digitsStart = 0;
+        while (digitsStart < text.length() && Character.isLetter(text.charAt(digitsStart))) digitsStart++;
+        if (digitsStart == 0 || !isCanonicalNumber(text, digitsStart, text.length())) return null;
+        long number = 0;
+        for (int i = digitsStart; i < text.length(); i++) {
+            int digit = Character.digit(text.charAt(i), 10);
+            if (digit < 0 || number > (Long.MAX_VALUE - digit) / 10) return null;
+            number = number * 10 + digit;
+        }
+        return new RecordId(text.substring(0, digitsStart).toUpperCase(Locale.ROOT), number);
+    }
+
+    /**
+     * Returns the id packed into one long, for the primitive maps in helperUtils.primitives.
+     * Only an id written exactly like toString writes it gets a key, so different text never shares one.
+     * Reads the text without creating objects. Returns -1 for any other text, like "u200", " U200" or
+     * "U0200", and for more than 3 prefix letters or a number of 2^48 or more; callers keep those as text.
+     */
+    public static long key(String id) {
+        if (id == null) return -1;
+        int end = id.length();
+        long prefixCode = 0;
+        int digitsStart = 0;
+        for (; digitsStart < end; digitsStart++) {
+            int letter = id.charAt(digitsStart) - 'A' + 1;
+            if (letter < 1 || letter > 26) break;
+            if (digitsStart == keyPrefixLetters) return -1;
+            prefixCode = prefixCode * 32 + letter;
+        }
+        if (digitsStart == 0 || !isCanonicalNumber(id, digitsStart, end)) return -1;
+        long number = 0;
+        for (int i = digitsStart; i < end; i++) {
+            int digit = id.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            number = number * 10 + digit;
+            if (number > keyNumberMask) return -1;
+        }
+        return prefixCode << keyNumberBits | number;
+    }
+
+    // The digits are padded to exactly 3 with zeros, and longer numbers have no leading zero, like format.
+    private static boolean isCanonicalNumber(String text, int start, int end) {
+        int digits = end - start;
+        return digits == minimumDigits || digits > minimumDigits && text.charAt(start) != '0';
+    }
+
+    /** Returns this id packed into one long, or -1 if it does not fit. See key(String). */
+    public long key() {
+        return key(toString());
+    }
+
+    /** Reads an id back from a key made by key(String). Returns null for -1. */
+    public static RecordId fromKey(long key) {
+        if (key < 0) return null;
+        StringBuilder prefix = new StringBuilder(keyPrefixLetters);
+        for (long code = key >>> keyNumberBits; code != 0; code /= 32) {
+            prefix.insert(0, (char) ('A' + code % 32 - 1));
+        }
+        return new RecordId(prefix.toString(), key & keyNumberMask);
+    }
+
+    /** Writes the id text for a prefix and number, like F001, F010, F100 or F1000. */
+    public static String format(String prefix, long number) {
+        String digits = Long.toString(number);
+        StringBuilder id = new StringBuilder(prefix.length() + Math.max(minimumDigits, digits.length())).append(prefix);
+        for (int i = digits.length(); i < minimumDigits; i++) id.append('0');
+        return id.append(digits).toString();
+    }
+
+    public String getPrefix() { return prefix; }
+    public long getNumber() { return number; }
+
+    // Ids of one prefix sort by number; different prefixes sort by prefix.
+    @Override
+    public int compareTo(RecordId other) {
+        int byPrefix = prefix.compareTo(other.prefix);
+        return byPrefix != 0 ? byPrefix : Long.compare(number, other.number);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof RecordId)) return false;
+        RecordId id = (RecordId) other;
+        return number == id.number && prefix.equals(id.prefix);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * prefix.hashCode() + Long.hashCode(number);
+    }
+
+    @Override
+    public String toString() {
+        return format(prefix, number);
+    }
+}
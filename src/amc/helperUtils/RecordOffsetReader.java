@@ -0,0 +1,278 @@
+package amc.helperUtils;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class reads single records from a JSON array file by their byte offsets.
+ * One pass over the file finds where every record starts and ends and notes its key field,
+ * without building any objects. A lookup then reads and parses only the bytes of the record it needs.
+ * Bytes are read through a FileChannel into heap buffers, so the file is never left mapped or open
+ * after a call and can always be replaced by the next write.
+ * Offsets are reused until the file's generation or stamp (inode, size and modification time) changes.
+ */
+public final class RecordOffsetReader {
+
+    // Scanned files keyed by absolute path and key field.
+    private static final Map<String, RecordOffsetReader> readers = new ConcurrentHashMap<>();
+
+    // How many bytes the scan reads at a time.
+    private static final int scanChunkBytes = 64 * 1024;
+
+    private final File file;
+    private final long generation;
+    private final JsonStore.FileStamp stamp;
+    private final long[] offsets;
+    private final int[] lengths;
+    private final int count;
+    private final int keyedCount;
+    private final Map<String, Integer> keyIndex;
+
+    private RecordOffsetReader(File file, long generation, JsonStore.FileStamp stamp, long[] offsets, int[] lengths,
+                               int count, int keyedCount, Map<String, Integer> keyIndex) {
+        this.file = file;
+        this.generation = generation;
+        this.stamp = stamp;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.count = count;
+        this.keyedCount = keyedCount;
+        this.keyIndex = keyIndex;
+    }
+
+    /**
+     * Returns a reader for the file that indexes records by the given top-level string field,
+     * for example "appointmentId". Returns null if the file cannot be read, is gzipped, or is not a JSON array.
+     */
+    public static RecordOffsetReader open(String filePath, String keyField) {
+        File file = new File(filePath).getAbsoluteFile();
+        String cacheKey = file.getPath() + "#" + keyField;
+        // Writers replace the file before raising the generation, so reading the generation first
+        // can only make a scan look older than it is, never newer.
+        long generation = DataFileLock.peekGeneration(file.getPath());
+        RecordOffsetReader cached = readers.get(cacheKey);
+        if (cached != null && cached.generation == generation && cached.stamp.equals(JsonStore.FileStamp.of(file))) {
+            return cached;
+        }
+        RecordOffsetReader scanned = scan(file, keyField, generation);
+        if (scanned != null) readers.put(cacheKey, scanned); else readers.remove(cacheKey);
+        return scanned;
+    }
+
+    /** Returns the number of records in the array. */
+    public int recordCount() { return count; }
+
+    /** Returns how many records repeat the key of an earlier record, ignoring case. Records without the key are not counted. */
+    public int duplicateKeyCount() { return keyedCount - keyIndex.size(); }
+
+    /** Returns the byte offset of one record in the file. */
+    public long offsetOf(int index) { return offsets[index]; }
+
+    /** Returns the byte length of one record. */
+    public int lengthOf(int index) { return lengths[index]; }
+
+    /** Returns the position of the first record whose key matches (ignoring case), or -1. */
+    public int indexOfKey(String key) {
+        if (key == null) return -1;
+        Integer index = keyIndex.get(key.toUpperCase(Locale.ROOT));
+        return index == null ? -1 : index;
+    }
+
+    /** Parses one record from its bytes. Returns null on error, or if the file changed since it was scanned. */
+    public <T> T read(int index, Class<T> classOfT) {
+        try (FileChannel channel = openScanned()) {
+            if (channel == null) return null;
+            byte[] bytes = readBytes(channel, offsets[index], lengths[index]);
+            return JsonStore.gson().fromJson(new String(bytes, StandardCharsets.UTF_8), classOfT);
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Reads records from one position up to another (exclusive) with one read of their bytes,
+     * keeping only the named top-level fields. Other fields are skipped without building anything.
+     * Returns null on error, or if the file changed since it was scanned.
+     */
+    public List<JsonObject> readFields(int from, int to, Collection<String> fields) {
+        List<JsonObject> rows = new ArrayList<JsonObject>();
+        if (from >= to) return rows;
+        long start = offsets[from];
+        long end = offsets[to - 1] + lengths[to - 1];
+        try (FileChannel channel = openScanned()) {
+            if (channel == null) return null;
+            byte[] span = readBytes(channel, start, (int) (end - start));
+            for (int index = from; index < to; index++) {
+                String text = new String(span, (int) (offsets[index] - start), lengths[index], StandardCharsets.UTF_8);
+                JsonReader reader = new JsonReader(new StringReader(text));
+                JsonObject row = new JsonObject();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if (fields.contains(name)) {
+                        row.add(name, JsonParser.parseReader(reader));
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                rows.add(row);
+            }
+            return rows;
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    /** Finds and parses the record with this key, or returns null. */
+    public <T> T findByKey(String key, Class<T> classOfT) {
+        int index = indexOfKey(key);
+        return index < 0 ? null : read(index, classOfT);
+    }
+
+    // Open the file, or return null if it is no longer the version that was scanned.
+    // The stamp is checked after opening, so a match means the channel reads the scanned bytes.
+    private FileChannel openScanned() throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        if (stamp.equals(JsonStore.FileStamp.of(file))) return channel;
+        channel.close();
+        return null;
+    }
+
+    private static byte[] readBytes(FileChannel channel, long start, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) throw new EOFException("Record past the end of the file");
+        }
+        return buffer.array();
+    }
+
+    // Read the file once in chunks, tracking strings and nesting, to find record bounds and keys.
+    // Only field names and key values of records are copied out; everything else is just counted past.
+    private static RecordOffsetReader scan(File file, String keyField, long generation) {
+        if (!file.exists()) return null;
+        byte[] keyBytes = keyField.getBytes(StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            JsonStore.FileStamp stamp = JsonStore.FileStamp.of(file);
+            if (stamp == null) return null;
+
+            long[] offsets = new long[64];
+            int[] lengths = new int[64];
+            int count = 0;
+            int keyedCount = 0;
+            Map<String, Integer> keyIndex = new HashMap<String, Integer>();
+
+            int depth = 0;
+            boolean inString = false;
+            boolean escaped = false;
+            boolean expectingName = false;
+            boolean nextValueIsKey = false;
+            boolean copying = false;
+            byte[] text = new byte[64];
+            int textLength = 0;
+            long recordStart = -1;
+            String recordKey = null;
+
+            ByteBuffer chunk = ByteBuffer.allocate(scanChunkBytes);
+            long chunkStart = 0;
+            while (true) {
+                chunk.clear();
+                int read = channel.read(chunk, chunkStart);
+                if (read <= 0) break;
+                // A gzip file has no record bounds to find; callers fall back to a full read.
+                if (chunkStart == 0 && read >= 2 && (chunk.get(0) & 0xff) == 0x1f && (chunk.get(1) & 0xff) == 0x8b) return null;
+                for (int i = 0; i < read; i++) {
+                    byte b = chunk.get(i);
+                    if (inString) {
+                        if (escaped) {
+                            escaped = false;
+                        } else if (b == '\\') {
+                            escaped = true;
+                        } else if (b == '"') {
+                            inString = false;
+                            if (depth == 2) {
+                                if (expectingName) {
+                                    nextValueIsKey = Arrays.equals(text, 0, textLength, keyBytes, 0, keyBytes.length);
+                                    expectingName = false;
+                                } else if (nextValueIsKey) {
+                                    recordKey = new String(text, 0, textLength, StandardCharsets.UTF_8);
+                                    nextValueIsKey = false;
+                                }
+                            }
+                            continue;
+                        }
+                        if (copying) {
+                            if (textLength == text.length) text = Arrays.copyOf(text, textLength * 2);
+                            text[textLength++] = b;
+                        }
+                        continue;
+                    }
+                    switch (b) {
+                        case '"':
+                            inString = true;
+                            copying = depth == 2 && (expectingName || nextValueIsKey);
+                            textLength = 0;
+                            break;
+                        case '{':
+                        case '[':
+                            if (depth == 1) {
+                                recordStart = chunkStart + i;
+                                recordKey = null;
+                            }
+                            depth++;
+                            if (depth == 2) expectingName = b == '{';
+                            break;
+                        case '}':
+                        case ']':
+                            depth--;
+                            if (depth == 1 && recordStart >= 0) {
+                                if (count == offsets.length) {
+                                    offsets = Arrays.copyOf(offsets, count * 2);
+                                    lengths = Arrays.copyOf(lengths, count * 2);
+                                }
+                                offsets[count] = recordStart;
+                                lengths[count] = (int) (chunkStart + i + 1 - recordStart);
+                                if (recordKey != null) {
+                                    keyIndex.putIfAbsent(recordKey.toUpperCase(Locale.ROOT), count);
+                                    keyedCount++;
+                                }
+                                count++;
+                                recordStart = -1;
+                            }
+                            break;
+                        case ',':
+                            if (depth == 2) expectingName = true;
+                            nextValueIsKey = false;
+                            break;
+                        default:
+                            break;
+                    }
+                }
+                chunkStart += read;
+            }
+            return new RecordOffsetReader(file, generation, stamp, offsets, lengths, count, keyedCount, keyIndex);
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+}
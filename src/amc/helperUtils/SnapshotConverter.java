@@ -0,0 +1,84 @@
+package amc.helperUtils;
+
+import amc.dataModels.Appointment;
+import amc.dataModels.Feedback;
+import amc.dataModels.Payment;
+import amc.dataModels.Report;
+import amc.dataModels.User;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.File;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * This tool converts entity files between JSON and the binary snapshot format.
+ * JSON stays the export format; the binary copy only speeds up loading.
+ *
+ * Usage: SnapshotConverter toBinary|toJson [entity]
+ * The entity is one of users, appointments, payments, feedback, reports. Without it, all are converted.
+ */
+public final class SnapshotConverter {
+    private SnapshotConverter() {} // Prevents instantiation.
+
+    private static final String[] entityNames = { "users", "appointments", "payments", "feedback", "reports" };
+
+    public static void main(String[] args) {
+        if (args.length < 1 || (!args[0].equals("toBinary") && !args[0].equals("toJson"))) {
+            System.out.println("Usage: SnapshotConverter toBinary|toJson [users|appointments|payments|feedback|reports]");
+            return;
+        }
+        boolean toBinary = args[0].equals("toBinary");
+        String[] selected = args.length > 1 ? new String[] { args[1] } : entityNames;
+        for (String entity : selected) {
+            String dataPath = dataPathFor(entity);
+            Type listType = listTypeFor(entity);
+            if (dataPath == null) {
+                System.out.println("Unknown entity: " + entity);
+                continue;
+            }
+            int count = toBinary ? jsonToBinary(dataPath, listType) : binaryToJson(dataPath, listType);
+            System.out.println(entity + ": " + (count < 0 ? "failed" : count + " records converted"));
+        }
+    }
+
+    /** Writes the binary copy of a JSON file. Returns the record count, or -1 on error. */
+    public static int jsonToBinary(String dataPath, Type listType) {
+        List<Object> records = JsonStore.readList(dataPath, listType);
+        boolean written = BinarySnapshot.write(BinarySnapshot.binaryPathFor(dataPath), records, listType);
+        return written ? records.size() : -1;
+    }
+
+    /** Rewrites a JSON file from its binary copy. Returns the record count, or -1 on error. */
+    public static int binaryToJson(String dataPath, Type listType) {
+        String binaryPath = BinarySnapshot.binaryPathFor(dataPath);
+        List<Object> records = BinarySnapshot.read(binaryPath, listType);
+        if (records == null) return -1;
+        if (!JsonStore.writeList(dataPath, records, listType) || !JsonStore.flush(dataPath)) return -1;
+        // Keep the binary copy at least as new as the JSON it was written from.
+        new File(binaryPath).setLastModified(new File(dataPath).lastModified());
+        return records.size();
+    }
+
+    private static String dataPathFor(String entity) {
+        switch (entity) {
+            case "users":        return DataPaths.userDataPath;
+            case "appointments": return DataPaths.appointmentDataPath;
+            case "payments":     return DataPaths.paymentDataPath;
+            case "feedback":     return DataPaths.feedbackDataPath;
+            case "reports":      return DataPaths.reportDataPath;
+            default:             return null;
+        }
+    }
+
+    private static Type listTypeFor(String entity) {
+        switch (entity) {
+            case "users":        return new TypeToken<List<User>>(){}.getType();
+            case "appointments": return new TypeToken<List<Appointment>>(){}.getType();
+            case "payments":     return new TypeToken<List<Payment>>(){}.getType();
+            case "feedback":     return new TypeToken<List<Feedback>>(){}.getType();
+            case "reports":      return new TypeToken<List<Report>>(){}.getType();
+            default:             return null;
+        }
+    }
+}
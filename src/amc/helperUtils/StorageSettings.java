@@ -0,0 +1,129 @@
+package amc.helperUtils;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.Reader;
+import java.util.Properties;
+
+/**
+ * This class holds the storage options of the data layer.
+ * Values come from textFiles/storageSettings.properties when the file exists.
+ * A JVM system property with the "amc." prefix overrides the file, for example -Damc.journalMode=true.
+ */
+public final class StorageSettings {
+    private StorageSettings() {} // Prevents instantiation.
+
+    private static final Properties fileValues = loadFile();
+
+    /** Returns true when repositories append mutations to a journal instead of rewriting files. */
+    public static boolean isJournalMode() {
+        return getBoolean("journalMode", false);
+    }
+
+    /** Returns the journal size in bytes after which it is folded into a fresh snapshot. */
+    public static long journalCompactBytes() {
+        return getLong("journalCompactBytes", 1024L * 1024L);
+    }
+
+    /** Returns true when a binary copy is kept next to each JSON file and read first when newer. */
+    public static boolean isBinarySnapshots() {
+        return getBoolean("binarySnapshots", false);
+    }
+
+    /**
+     * Returns true when list writes are queued and written by a background thread, so a save on the
+     * Swing thread never waits for the disk. On by default. A background write that fails stays queued
+     * and is tried again; the failure is reported through JsonStore.onWriteFailure, and the next save
+     * of that file throws until a retry succeeds.
+     */
+    public static boolean isWriteBehind() {
+        return getBoolean("writeBehind", true);
+    }
+
+    /** Returns the longest time a queued write waits before the background thread writes it. */
+    public static long writeBehindLatencyMillis() {
+        return getLong("writeBehindLatencyMillis", 200L);
+    }
+
+    /** Returns true when appointments and payments are stored in one file per month. */
+    public static boolean isMonthPartitions() {
+        return getBoolean("monthPartitions", false);
+    }
+
+    /** Returns how many ids of one prefix idGenerator reserves with each write of the id file. At least 1. */
+    public static long idBlockSize() {
+        return Math.max(1L, getLong("idBlockSize", 20L));
+    }
+
+    public static final String prettyProfile  = "pretty";
+    public static final String compactProfile = "compact";
+    public static final String gzipProfile    = "gzip";
+
+    /**
+     * Returns how data files are written: "pretty" (indented, for reading by hand),
+     * "compact" (no whitespace) or "gzip" (compact and compressed).
+     */
+    public static String serializationProfile() {
+        String value = getValue("serializationProfile");
+        if (value == null || value.isEmpty()) return prettyProfile;
+        if (value.equals(prettyProfile) || value.equals(compactProfile) || value.equals(gzipProfile)) return value;
+        System.err.println("Invalid storage setting serializationProfile=" + value + ", using " + prettyProfile);
+        return prettyProfile;
+    }
+
+    public static final String jsonBackend = "json";
+    public static final String sqlBackend  = "sql";
+
+    /**
+     * Returns where repositories keep their records: "json" (the files in textFiles/)
+     * or "sql" (an embedded database file, see sqlUrl). Use StorageMigrator to copy data between them.
+     */
+    public static String storageBackend() {
+        String value = getValue("storageBackend");
+        if (value == null || value.isEmpty()) return jsonBackend;
+        if (value.equals(jsonBackend) || value.equals(sqlBackend)) return value;
+        System.err.println("Invalid storage setting storageBackend=" + value + ", using " + jsonBackend);
+        return jsonBackend;
+    }
+
+    /** Returns the JDBC address of the embedded database used by the sql backend. */
+    public static String sqlUrl() {
+        String value = getValue("sqlUrl");
+        return value == null || value.isEmpty() ? "jdbc:h2:./textFiles/amcDatabase" : value;
+    }
+
+    // Read one raw value. The system property wins over the settings file.
+    static String getValue(String key) {
+        String value = System.getProperty("amc." + key);
+        if (value == null) value = fileValues.getProperty(key);
+        return value == null ? null : value.trim();
+    }
+
+    static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getValue(key);
+        return value == null || value.isEmpty() ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    static long getLong(String key, long defaultValue) {
+        String value = getValue(key);
+        try {
+            return value == null || value.isEmpty() ? defaultValue : Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            System.err.println("Invalid storage setting " + key + "=" + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    // Load the optional settings file once. A missing file means all defaults.
+    private static Properties loadFile() {
+        Properties properties = new Properties();
+        File file = new File(DataPaths.storageSettingsPath);
+        if (!file.exists()) return properties;
+        try (Reader reader = new FileReader(file)) {
+            properties.load(reader);
+        } catch (Exception ex) {
+            System.err.println("Error reading storage settings: " + ex.getMessage());
+        }
+        return properties;
+    }
+}
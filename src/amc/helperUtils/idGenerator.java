@@ -1,116 +1,127 @@
 package amc.helperUtils;
 
-import java.util.List;
+import amc.helperUtils.primitives.LongIntMap;
+
+import java.util.Collection;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * This class creates next ids like U001, A001, P001, or F001.
- * It provides methods to generate unique identifiers with a given prefix,
- * ensuring sequential numbering and optionally checking against a list of existing IDs
- * to prevent collisions.
+ * This class creates next ids like U001, A001, P001, or F001; past 999 the number
+ * simply gets longer, like A1000 (see RecordId).
+ * Ids are reserved in blocks: one locked write of the temporary ID file moves the prefix's
+ * mark past a whole block (see StorageSettings.idBlockSize), and the ids of the block are then
+ * handed out from memory with no lock and no file access. After a restart the next block starts
+ * after the mark, so an id is never handed out twice; ids left unused in a block are skipped.
+ * Each workstation reserves its own blocks under the file lock, so their ids never collide,
+ * though they no longer come out in one sequence across workstations.
  */
 public final class idGenerator {
     // Private constructor to prevent instantiation, as this is a utility class with static methods.
     private idGenerator() {}
 
+    // The ids reserved in memory for one prefix: the next number to hand out and the last one reserved.
+    private static final class Block {
+        private final AtomicLong next;
+        private final long last;
+
+        private Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+    }
+
+    private static final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
     /**
-     * Returns the next id with the same prefix and a 3-digit number.
-     * This method is synchronized to ensure thread-safe ID generation.
-     * It reads the last used ID from a JSON file, increments it, and updates the file.
+     * Returns the next id with the same prefix and a number of at least 3 digits.
+     * The id comes from the prefix's reserved block; only when the block is used up is
+     * the temporary ID file read and written, once, to reserve the next one.
      *
      * @param prefix The prefix for the ID (e.g., "U", "A", "P", "F", "R").
      * @return The newly generated unique ID.
      */
+    public static String nextId(String prefix) {
+        return RecordId.format(prefix, nextNumber(prefix));
+    }
 
-    public static synchronized String nextId(String prefix) {
-        Map<String, String> lastIds = new HashMap<>();
-        try {
-            // Read existing IDs from the temporary ID file.
-            // If the file doesn't exist or is empty, a new HashMap will be used.
-            lastIds = (Map<String, String>) JsonStore.readObject(DataPaths.temporaryIdFilePath, HashMap.class);
-            if (lastIds == null) {
-                // Initialize if no data was read (e.g., file not found or empty).
-                lastIds = new HashMap<>();
+    /**
+     * Returns the next id with the same prefix and a number of at least 3 digits, ensuring it is
+     * unique among a given list of existing IDs. The existing IDs are read once into the numbers
+     * taken under this prefix, and taken numbers are skipped from the reserved block.
+     *
+     * @param prefix The prefix for the ID (e.g., "U", "A", "P", "F", "R").
+     * @param existingIds The existing IDs that the newly generated ID must not match.
+     * @return The newly generated unique ID.
+     */
+    public static String nextId(String prefix, Collection<String> existingIds) {
+        // Taken numbers are kept as primitive keys; the value is unused.
+        LongIntMap takenNumbers = new LongIntMap(existingIds.size());
+        for (String existingId : existingIds) {
+            RecordId id = RecordId.parse(existingId);
+            if (id != null && id.getPrefix().equalsIgnoreCase(prefix)) takenNumbers.put(id.getNumber(), 1);
+        }
+        long number;
+        do {
+            number = nextNumber(prefix);
+        } while (takenNumbers.containsKey(number));
+        return RecordId.format(prefix, number);
+    }
+
+    // Take the next number of the prefix's block, reserving a new block when it is used up.
+    private static long nextNumber(String prefix) {
+        while (true) {
+            Block block = blocks.get(prefix);
+            if (block != null) {
+                long number = block.next.getAndIncrement();
+                if (number <= block.last) return number;
             }
-        } catch (Exception e) {
-            // If file doesn't exist or is corrupted, start with an empty map.
-            // This ensures the application can proceed even if the ID file is problematic.
-            System.err.println("Error reading temporary ID file, initializing new map: " + e.getMessage());
-            lastIds = new HashMap<>();
+            reserveBlock(prefix, block);
         }
+    }
 
-        // Get the last used ID for the given prefix, or start with "000" if none exists.
-        String lastId = lastIds.getOrDefault(prefix, prefix + "000");
-        // Extract the numeric part of the last ID.
-        int currentNumber = extractNumber(lastId);
-        // Increment the number to get the next sequential ID.
-        int nextNumber = currentNumber + 1;
-        // Format the new ID with the prefix and a 3-digit padded number (e.g., F001, F010, F100).
-        String newId = prefix + String.format("%03d", nextNumber);
+    // Move the prefix's mark in the id file past one more block, and hand that block out from memory.
+    // Holding the file lock from read to write keeps two workstations from reserving the same numbers.
+    // If another thread already replaced the used-up block, there is nothing to do.
+    private static synchronized void reserveBlock(String prefix, Block usedUp) {
+        if (blocks.get(prefix) != usedUp) return;
+        try (DataFileLock _ = DataFileLock.acquire(DataPaths.temporaryIdFilePath)) {
+            Map<String, String> reservedUpTo = readReservedIds();
+            // The file holds the last reserved id per prefix; none reserved yet counts as 0.
+            long last = lastReserved(prefix, reservedUpTo.get(prefix));
+            long blockSize = StorageSettings.idBlockSize();
+            reservedUpTo.put(prefix, RecordId.format(prefix, last + blockSize));
+            if (!JsonStore.writeObject(DataPaths.temporaryIdFilePath, reservedUpTo)) {
+                // Without a saved mark only one id is handed out, so at most that one could repeat after a restart.
+                System.err.println("Error writing temporary ID file; reserving one id for " + prefix);
+                blockSize = 1;
+            }
+            blocks.put(prefix, new Block(last + 1, last + blockSize));
+        }
+    }
 
-        // Update the map with the new ID and write it back to the temporary ID file.
-        // This persists the last generated ID for future use.
-        lastIds.put(prefix, newId);
+    // Read the last reserved id per prefix. A missing or broken file counts as empty.
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> readReservedIds() {
         try {
-            JsonStore.writeObject(DataPaths.temporaryIdFilePath, lastIds);
+            Map<String, String> reservedUpTo = (Map<String, String>) JsonStore.readObject(DataPaths.temporaryIdFilePath, HashMap.class);
+            return reservedUpTo != null ? reservedUpTo : new HashMap<>();
         } catch (Exception e) {
-            // Log the error if writing fails. Depending on the application's robustness requirements,
-            // this might warrant throwing a runtime exception or more severe logging.
-            System.err.println("Error writing temporary ID file: " + e.getMessage());
+            System.err.println("Error reading temporary ID file, initializing new map: " + e.getMessage());
+            return new HashMap<>();
         }
-
-        // Return the newly generated ID.
-        return newId;
     }
 
-    /**
-     * Extracts the numeric part from the end of an ID string.
-     * If no numeric part is found, it returns 0.
-     *
-     * @param id The ID string from which to extract the number (e.g., "F001", "U123").
-     * @return The integer number extracted from the ID, or 0 if no number is present.
-     */
-    private static int extractNumber(String id) {
-        try {
-            // Remove all non-digit characters from the ID string.
-            String digits = id.replaceAll("\\D+", "");
-            if (digits.length() == 0) {
-                // If no digits are found, return 0.
-                return 0;
-            }
-            // Parse the remaining digits string into an integer.
-            return Integer.parseInt(digits);
-        } catch (NumberFormatException ex) {
-            // Catch NumberFormatException if parsing fails (e.g., digits string is too large).
-            // Return 0 in case of an error during number extraction.
-            System.err.println("Error parsing number from ID: " + id + " - " + ex.getMessage());
-            return 0;
-        } catch (Exception ex) {
-            // Catch any other unexpected exceptions.
-            System.err.println("Unexpected error extracting number from ID: " + id + " - " + ex.getMessage());
+    // Read the number of the last reserved id. An id that does not parse counts as 0, as before.
+    private static long lastReserved(String prefix, String reservedId) {
+        if (reservedId == null) return 0;
+        RecordId id = RecordId.parse(reservedId);
+        if (id == null) {
+            System.err.println("Error parsing number from ID: " + reservedId + " for " + prefix);
             return 0;
         }
-    }
-
-    /**
-     * Returns the next id with the same prefix and a 3-digit number, ensuring it is unique
-     * among a given list of existing IDs. This method is synchronized to ensure thread-safe
-     * ID generation and uniqueness checking. It repeatedly generates new IDs until one is
-     * found that is not present in the provided list of existing IDs.
-     *
-     * @param prefix The prefix for the ID (e.g., "U", "A", "P", "F", "R").
-     * @param existingIds A list of existing IDs that the newly generated ID must not match.
-     * @return The newly generated unique ID.
-     */
-    public static synchronized String nextId(String prefix, List<String> existingIds) {
-        String newId;
-        // Loop until a unique ID is generated.
-        do {
-            // Generate a new ID using the existing nextId(String) method.
-            // This ensures sequential generation and persistence of the last used ID.
-            newId = nextId(prefix);
-        } while (existingIds.contains(newId)); // Keep generating until an ID not in existingIds is found.
-        return newId;
+        return id.getNumber();
     }
 }
@@ -0,0 +1,28 @@
+package amc.helperUtils.primitives;
+
+// Slot sizing and hashing shared by the open-addressing maps. Tables are a power of two and at most 3/4 full.
+final class HashSlots {
+
+    private static final int maxCapacity = 1 << 30;
+
+    private HashSlots() {}
+
+    /** Returns the table size that holds the entries without growing. */
+    static int capacityFor(int expectedSize) {
+        long needed = Math.max(4L, (long) Math.max(0, expectedSize) * 4 / 3 + 1);
+        return needed >= maxCapacity ? maxCapacity : Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    /** Returns how many entries a table of this size takes before it grows. */
+    static int maxFill(int capacity) {
+        return capacity - capacity / 4;
+    }
+
+    // Ids packed by RecordId differ only in a few low bits, so spread every bit over the slot (the murmur3 finisher).
+    static int slotOf(long key, int mask) {
+        long hash = key;
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (int) (hash ^ (hash >>> 33)) & mask;
+    }
+}
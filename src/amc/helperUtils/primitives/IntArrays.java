@@ -0,0 +1,97 @@
+package amc.helperUtils.primitives;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * This class sorts and searches int arrays, mostly arrays of positions into other arrays,
+ * ordered by what is at those positions. It saves sorting boxed Integers with a Comparator.
+ */
+public final class IntArrays {
+
+    /** Compares two ints by what they stand for, like a Comparator of positions. */
+    public interface IntComparator {
+        int compare(int a, int b);
+    }
+
+    private static final int insertionSortLength = 16;
+
+    private IntArrays() {}
+
+    /** Returns 0, 1, ..., length - 1. */
+    public static int[] positions(int length) {
+        int[] positions = new int[length];
+        for (int i = 0; i < length; i++) positions[i] = i;
+        return positions;
+    }
+
+    /** Returns the array grown to hold at least minLength ints, or the same array if it already does. */
+    public static int[] grow(int[] array, int minLength) {
+        if (array.length >= minLength) return array;
+        return Arrays.copyOf(array, Math.max(minLength, array.length + (array.length >> 1) + 1));
+    }
+
+    /** Sorts the ints from 'from' up to 'to' (excluded) with the comparator. Equal ints keep their order. */
+    public static void sort(int[] array, int from, int to, IntComparator order) {
+        if (to - from < 2) return;
+        int[] buffer = Arrays.copyOfRange(array, from, to);
+        mergeSort(buffer, array, from, to, -from, order);
+    }
+
+    /** Sorts the whole array with the comparator. Equal ints keep their order. */
+    public static void sort(int[] array, IntComparator order) {
+        sort(array, 0, array.length, order);
+    }
+
+    /**
+     * Finds the first int from 'from' up to 'to' (excluded) that matches, in an array sorted so that
+     * the comparison grows along it. The comparison returns below zero for an int before the target,
+     * zero for a match and above zero after it.
+     * Returns the position of the first match, or -(insertion point) - 1 like Arrays.binarySearch.
+     */
+    public static int binarySearch(int[] array, int from, int to, IntUnaryOperator compareToTarget) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareToTarget.applyAsInt(array[middle]) < 0) low = middle + 1;
+            else high = middle;
+        }
+        return low < to && compareToTarget.applyAsInt(array[low]) == 0 ? low : -(low + 1);
+    }
+
+    /** Finds the first matching int in a whole sorted array. See binarySearch(int[], int, int, IntUnaryOperator). */
+    public static int binarySearch(int[] array, IntUnaryOperator compareToTarget) {
+        return binarySearch(array, 0, array.length, compareToTarget);
+    }
+
+    // Sort source[from + offset, to + offset) into target[from, to), using target's range as scratch.
+    private static void mergeSort(int[] source, int[] target, int from, int to, int offset, IntComparator order) {
+        int length = to - from;
+        if (length < insertionSortLength) {
+            for (int i = from; i < to; i++) {
+                int value = source[i + offset];
+                int j = i;
+                while (j > from && order.compare(target[j - 1], value) > 0) {
+                    target[j] = target[j - 1];
+                    j--;
+                }
+                target[j] = value;
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        // Sort each half of target into source, then merge them back into target.
+        mergeSort(target, source, from + offset, middle + offset, -offset, order);
+        mergeSort(target, source, middle + offset, to + offset, -offset, order);
+        int left = from + offset;
+        int right = middle + offset;
+        for (int i = from; i < to; i++) {
+            if (right >= to + offset || (left < middle + offset && order.compare(source[left], source[right]) <= 0)) {
+                target[i] = source[left++];
+            } else {
+                target[i] = source[right++];
+            }
+        }
+    }
+}
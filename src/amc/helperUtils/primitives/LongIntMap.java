@@ -0,0 +1,102 @@
+package amc.helperUtils.primitives;
+
+import java.util.Arrays;
+
+/**
+ * This class is a hash map from long keys to int values that stores both in plain arrays,
+ * with no boxed Long or Integer per entry. Collisions go to the next free slot (open addressing).
+ * Entries can be added and replaced but not removed, which is all a join built once needs.
+ */
+public final class LongIntMap {
+
+    // Key 0 marks a free slot, so an entry with key 0 is kept apart.
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    /** Creates a map with room for the expected number of entries before it grows. */
+    public LongIntMap(int expectedSize) {
+        int capacity = HashSlots.capacityFor(expectedSize);
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    public LongIntMap() {
+        this(16);
+    }
+
+    /** Returns the value for the key, or -1 if the key is not in the map. */
+    public int get(long key) {
+        return getOrDefault(key, -1);
+    }
+
+    /** Returns the value for the key, or the default if the key is not in the map. */
+    public int getOrDefault(long key, int defaultValue) {
+        if (key == 0) return hasZeroKey ? zeroValue : defaultValue;
+        for (int slot = HashSlots.slotOf(key, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return values[slot];
+        }
+        return defaultValue;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) return hasZeroKey;
+        for (int slot = HashSlots.slotOf(key, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return true;
+        }
+        return false;
+    }
+
+    /** Sets the value for the key. Returns the value it replaced, or -1 if the key is new. */
+    public int put(long key, int value) {
+        if (key == 0) {
+            int previous = hasZeroKey ? zeroValue : -1;
+            if (!hasZeroKey) size++;
+            hasZeroKey = true;
+            zeroValue = value;
+            return previous;
+        }
+        int slot = HashSlots.slotOf(key, mask);
+        for (; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > HashSlots.maxFill(keys.length)) grow();
+        return -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Removes every entry and keeps the arrays for reuse. */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int old = 0; old < oldKeys.length; old++) {
+            if (oldKeys[old] == 0) continue;
+            int slot = HashSlots.slotOf(oldKeys[old], mask);
+            while (keys[slot] != 0) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[old];
+            values[slot] = oldValues[old];
+        }
+    }
+}
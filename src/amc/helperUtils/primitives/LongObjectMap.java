@@ -0,0 +1,125 @@
+package amc.helperUtils.primitives;
+
+import java.util.Arrays;
+import java.util.function.LongFunction;
+
+/**
+ * This class is a hash map from long keys to objects that keeps the keys in a plain long array,
+ * with no boxed Long or map entry per value. Collisions go to the next free slot (open addressing).
+ * Entries can be added and replaced but not removed. Null values are not stored.
+ */
+public final class LongObjectMap<V> {
+
+    // Key 0 marks a free slot, so the value of key 0 is kept apart.
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private V zeroValue;
+
+    /** Creates a map with room for the expected number of entries before it grows. */
+    public LongObjectMap(int expectedSize) {
+        int capacity = HashSlots.capacityFor(expectedSize);
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    public LongObjectMap() {
+        this(16);
+    }
+
+    /** Returns the value for the key, or null if the key is not in the map. */
+    public V get(long key) {
+        return getOrDefault(key, null);
+    }
+
+    /** Returns the value for the key, or the default if the key is not in the map. */
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(long key, V defaultValue) {
+        if (key == 0) return zeroValue != null ? zeroValue : defaultValue;
+        for (int slot = HashSlots.slotOf(key, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return (V) values[slot];
+        }
+        return defaultValue;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /** Sets the value for the key. Returns the value it replaced, or null if the key is new. */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) throw new IllegalArgumentException("LongObjectMap does not store null values");
+        if (key == 0) {
+            V previous = zeroValue;
+            if (previous == null) size++;
+            zeroValue = value;
+            return previous;
+        }
+        int slot = HashSlots.slotOf(key, mask);
+        for (; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > HashSlots.maxFill(keys.length)) grow();
+        return null;
+    }
+
+    /** Returns the value for the key, computing and storing it first if the key is new. A null result is not stored. */
+    public V computeIfAbsent(long key, LongFunction<? extends V> compute) {
+        V value = get(key);
+        if (value == null) {
+            value = compute.apply(key);
+            if (value != null) put(key, value);
+        }
+        return value;
+    }
+
+    /** Receives each key and value of a map, for forEach. */
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    /** Calls the consumer with every entry, in no particular order. */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> consumer) {
+        if (zeroValue != null) consumer.accept(0L, zeroValue);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) consumer.accept(keys[slot], (V) values[slot]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Removes every entry and keeps the arrays for reuse. */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(values, null);
+        zeroValue = null;
+        size = 0;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int old = 0; old < oldKeys.length; old++) {
+            if (oldKeys[old] == 0) continue;
+            int slot = HashSlots.slotOf(oldKeys[old], mask);
+            while (keys[slot] != 0) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[old];
+            values[slot] = oldValues[old];
+        }
+    }
+}
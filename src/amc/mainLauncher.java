@@ -1,11 +1,23 @@
 package amc;
 
+import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
+import amc.dataAccess.PaymentRepository;
+import amc.dataAccess.UnitOfWork;
+import amc.helperUtils.JsonStore;
 import amc.roleModules.Universal.universalScreens.LoginScreen;
 
 public class mainLauncher {
 
     public static void main(String[] args) {
+// Saves are written in the background; tell the user when one cannot reach the disk.
+        JsonStore.onWriteFailure(message -> SwingUtilities.invokeLater(() ->
+                JOptionPane.showMessageDialog(null, message, "Error", JOptionPane.ERROR_MESSAGE)));
+// Finish any batch of changes that was cut off when the program last stopped.
+        UnitOfWork.recoverPendingWork();
+// Drop repeated payment rows left by older versions; a clean file is left as it is.
+        PaymentRepository.removeDuplicates();
+
 // Run the GUI in the Event Dispatch Thread for thread safety.
         SwingUtilities.invokeLater(() -> {
 
@@ -1,5 +1,8 @@
 package amc.roleModules.Customer.customerScreens;
 
+import amc.appCore.LiveUpdates;
+import amc.dataAccess.RecordChange;
+import amc.dataConstants.AppointmentStatusTypes;
 import amc.dataModels.Appointment;
 
 import javax.swing.*;
@@ -8,8 +11,10 @@ import java.awt.*;
 import java.lang.reflect.Method;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Predicate;
 
 public class AppointmentHistoryPanel extends JPanel {
     private final CustomerService service;
@@ -23,6 +28,10 @@ public class AppointmentHistoryPanel extends JPanel {
 
     private boolean useDateFilter = true;
 
+    // The rows on screen in order, and the filters they were chosen with, so saves can be patched in.
+    private List<Appointment> shownAppointments = new ArrayList<>();
+    private Predicate<Appointment> currentFilter = a -> true;
+
     private static final DateTimeFormatter DISPLAY_DT =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
@@ -31,6 +40,7 @@ public class AppointmentHistoryPanel extends JPanel {
         this.customerId = customerId;
         initUI();
         refresh();
+        LiveUpdates.bind(this, Appointment.class, this::applyChange);
     }
 
     private void initUI() {
@@ -117,6 +127,60 @@ public class AppointmentHistoryPanel extends JPanel {
 
 public void refresh() {
     List<Appointment> all = service.listAppointmentsByCustomer(customerId);
+    currentFilter = buildFilter();
+
+    var filtered = all.stream()
+            .filter(currentFilter)
+            // الأحدث أولاً
+            .sorted(this::compareNewestFirst)
+            .toList();
+
+    // تعبئة الجدول
+    tableModel.setRowCount(0);
+    for (Appointment a : filtered) {
+        tableModel.addRow(rowFor(a));
+    }
+    shownAppointments = new ArrayList<>(filtered);
+}
+
+    // Patch one saved appointment into the table: drop its old row, then insert the new
+    // version where the newest-first order puts it if it still passes the filters.
+    private void applyChange(RecordChange<Appointment> change) {
+        for (int i = 0; i < shownAppointments.size(); i++) {
+            if (Objects.equals(shownAppointments.get(i).getAppointmentId(), change.getId())) {
+                shownAppointments.remove(i);
+                tableModel.removeRow(i);
+                break;
+            }
+        }
+        Appointment a = change.getRecord();
+        if (change.isDelete() || a == null || a.getCustomerId() == null || !a.getCustomerId().equalsIgnoreCase(customerId) || !currentFilter.test(a)) return;
+        int position = 0;
+        while (position < shownAppointments.size() && compareNewestFirst(shownAppointments.get(position), a) <= 0) {
+            position++;
+        }
+        shownAppointments.add(position, a);
+        tableModel.insertRow(position, rowFor(a));
+    }
+
+    private Object[] rowFor(Appointment a) {
+        LocalDateTime dt = resolveDateTime(a);
+        String when   = (dt != null) ? dt.format(DISPLAY_DT) : "—";
+        String doctor = service.doctorNameOrPlaceholder(a.getDoctorId());
+        return new Object[]{ when, doctor, a.getStatus(), a.getCharge(), safeNote(a) };
+    }
+
+    private int compareNewestFirst(Appointment x, Appointment y) {
+        LocalDateTime dx = resolveDateTime(x);
+        LocalDateTime dy = resolveDateTime(y);
+        if (dx == null && dy == null) return 0;
+        if (dx == null) return 1;
+        if (dy == null) return -1;
+        return dy.compareTo(dx);
+    }
+
+    // The status and date filters as they are set now.
+    private Predicate<Appointment> buildFilter() {
     // اختَر القيمة من الكومبو ونظّفها
     String s = Objects.toString(statusFilter.getSelectedItem(), "All").trim();
 
@@ -136,42 +200,23 @@ public void refresh() {
         toDtF = null;
     }
 
-    var filtered = all.stream()
-           
-            .filter(a -> {
-                if ("All".equalsIgnoreCase(s)) return true;
-                String st = (a != null && a.getStatus() != null) ? a.getStatus().trim() : "";
-                return s.equalsIgnoreCase(st);
-            })
-            // ✅ فلتر التاريخ (إن كان مفعّل)
-            .filter(a -> {
-                if (!useDateFilter) return true;
-                LocalDateTime dt = resolveDateTime(a);
-                boolean okFrom = (fromDtF == null) || (dt != null && !dt.isBefore(fromDtF));
-                boolean okTo   = (toDtF   == null) || (dt != null && !dt.isAfter(toDtF.with(LocalTime.MAX)));
-                return okFrom && okTo;
-            })
-            // الأحدث أولاً
-            .sorted((x, y) -> {
-                LocalDateTime dx = resolveDateTime(x);
-                LocalDateTime dy = resolveDateTime(y);
-                if (dx == null && dy == null) return 0;
-                if (dx == null) return 1;
-                if (dy == null) return -1;
-                return dy.compareTo(dx);
-            })
-            .toList();
+    final boolean dateFilterOn = useDateFilter;
 
-    // تعبئة الجدول
-    tableModel.setRowCount(0);
-    for (Appointment a : filtered) {
+    final boolean allStatuses = "All".equalsIgnoreCase(s);
+    final AppointmentStatusTypes wanted = AppointmentStatusTypes.parse(s);
+    Predicate<Appointment> statusOk = a -> allStatuses || (a != null && wanted != null && a.getStatusType() == wanted);
+    // ✅ فلتر التاريخ (إن كان مفعّل)
+    Predicate<Appointment> dateOk = a -> {
+        if (!dateFilterOn) return true;
         LocalDateTime dt = resolveDateTime(a);
-        String when   = (dt != null) ? dt.format(DISPLAY_DT) : "—";
-        String doctor = service.doctorNameOrPlaceholder(a.getDoctorId());
-        tableModel.addRow(new Object[]{ when, doctor, a.getStatus(), a.getCharge(), safeNote(a) });
-    }
+        boolean okFrom = (fromDtF == null) || (dt != null && !dt.isBefore(fromDtF));
+        boolean okTo   = (toDtF   == null) || (dt != null && !dt.isAfter(toDtF.with(LocalTime.MAX)));
+        return okFrom && okTo;
+    };
+    return statusOk.and(dateOk);
 }
 
+
     private String safeNote(Appointment a) {
         if (a == null) return "";
         try {
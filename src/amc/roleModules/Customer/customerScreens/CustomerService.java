@@ -1,5 +1,7 @@
 package amc.roleModules.Customer.customerScreens;
 
+import amc.dataAccess.AppointmentQuery;
+import amc.dataConstants.AppointmentStatusTypes;
 import amc.dataModels.Appointment;
 import amc.dataModels.Feedback;
 import amc.dataModels.User;
@@ -60,45 +62,20 @@ public class CustomerService {
     // ===================== Appointments =====================
 
     public List<Appointment> listAppointmentsByCustomer(String customerId) {
-        if (customerId == null || customerId.isBlank() || appointmentController == null) {
+        if (customerId == null || customerId.isBlank()) {
             return Collections.emptyList();
         }
-        String[] candidates = {
-                "listByCustomer","getByCustomer","findByCustomer",
-                "listAppointmentsForCustomer","getAppointmentsForCustomer","getAppointmentsByCustomer"
-        };
-        for (String name : candidates) {
-            try {
-                Method m = appointmentController.getClass().getMethod(name, String.class);
-                Object r = m.invoke(appointmentController, customerId);
-                return unwrapAppointmentList(r);
-            } catch (NoSuchMethodException ignored) {
-            } catch (Throwable t) { t.printStackTrace(); }
-        }
-
-
-        try {
-            Method m = appointmentController.getClass().getMethod("listAll");
-            Object r = m.invoke(appointmentController);
-            List<Appointment> all = unwrapAppointmentList(r);
-            List<Appointment> out = new ArrayList<>();
-            for (Appointment a : all) {
-                if (a != null && customerId.equalsIgnoreCase(a.getCustomerId())) out.add(a);
-            }
-            return out;
-        } catch (Throwable ignored) {}
-
-        return Collections.emptyList();
+        return AppointmentQuery.create().customer(customerId).list();
     }
 
     public List<Appointment> listCompletedAppointments(String customerId) {
-        List<Appointment> src = listAppointmentsByCustomer(customerId);
-        List<Appointment> out = new ArrayList<>();
-        for (Appointment a : src) {
-            String st = (a != null ? a.getStatus() : null);
-            if (st != null && st.equalsIgnoreCase("COMPLETED")) out.add(a);
+        if (customerId == null || customerId.isBlank()) {
+            return Collections.emptyList();
         }
-        return out;
+        return AppointmentQuery.create()
+                .customer(customerId)
+                .status(AppointmentStatusTypes.COMPLETED)
+                .list();
     }
 
     public boolean updateNoteForAppointment(String appointmentId, String notes) {
@@ -111,8 +88,9 @@ public class CustomerService {
         } catch (NoSuchMethodException ignored) {
         } catch (Throwable t) { t.printStackTrace(); }
 
-        Appointment a = findAppointmentById(appointmentId);
-        if (a == null) return false;
+        Appointment found = findAppointmentById(appointmentId);
+        if (found == null) return false;
+        Appointment a = new Appointment(found);
         try { a.setNote(notes); } catch (Throwable ignored) {}
 
         for (String name : new String[]{"save","update","saveAppointment"}) {
@@ -125,7 +103,8 @@ public class CustomerService {
         }
         try {
             Method listAll = appointmentController.getClass().getMethod("listAll");
-            List<Appointment> all = (List<Appointment>) listAll.invoke(appointmentController);
+            List<Appointment> all = new ArrayList<>((List<Appointment>) listAll.invoke(appointmentController));
+            all.replaceAll(other -> other != null && appointmentId.equals(other.getAppointmentId()) ? a : other);
             Method saveAll = appointmentController.getClass().getMethod("saveAll", List.class);
             saveAll.invoke(appointmentController, all);
             return true;
@@ -2,6 +2,7 @@ package amc.roleModules.Customer.customerScreens;
 
 import amc.dataModels.Appointment;
 import amc.dataModels.Feedback;
+import amc.helperUtils.RecordId;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
@@ -94,16 +95,16 @@ public class FeedbackPanel extends JPanel {
 
         List<Feedback> myFbs = service.listFeedbacksForCustomer(customerId);
 
-        Set<String> alreadyRated = new HashSet<>();
+        // Match feedback to appointments by parsed id, so A030 and a030 are the same appointment.
+        Set<RecordId> alreadyRated = new HashSet<>();
         for (Feedback f : myFbs) {
-            if (f != null && f.getAppointmentId() != null) {
-                alreadyRated.add(f.getAppointmentId());
-            }
+            RecordId rated = f == null ? null : RecordId.parse(f.getAppointmentId());
+            if (rated != null) alreadyRated.add(rated);
         }
 
         List<Appointment> available = completed.stream()
                 .filter(a -> a != null && a.getAppointmentId() != null)
-                .filter(a -> !alreadyRated.contains(a.getAppointmentId()))
+                .filter(a -> !alreadyRated.contains(RecordId.parse(a.getAppointmentId())))
                 .collect(Collectors.toList());
 
 
@@ -21,18 +21,10 @@ public class LoginScreen extends javax.swing.JFrame {
         LoginController.UserLookup userLookup = key -> {
             UserRepository repository = new UserRepository();
 
-// Try to find a user by email first.
-            for (User u : repository.findAll()) {
-                if (u.getEmail() != null && u.getEmail().equalsIgnoreCase(key)) {
-                    return new SimpleUserRecord(u);
-                }
-            }
-
-// If not found, try to match by userID.
-            for (User u : repository.findAll()) {
-                if (u.getUserId() != null && u.getUserId().equalsIgnoreCase(key)) {
-                    return new SimpleUserRecord(u);
-                }
+// Try to find a user by email first, then by userID.
+            Optional<User> found = repository.findByLoginKey(key);
+            if (found.isPresent()) {
+                return new SimpleUserRecord(found.get());
             }
 
 // If neither match, return null meaning "user not found".
@@ -60,11 +52,9 @@ public class LoginScreen extends javax.swing.JFrame {
 
 // If still not found, try by userID.
                 if (matchedUser == null && record.getUsername() != null) {
-                    for (User u : repository.findAll()) {
-                        if (u.getUserId().equalsIgnoreCase(record.getUsername())) {
-                            matchedUser = u;
-                            break;
-                        }
+                    Optional<User> found = repository.findByID(record.getUsername());
+                    if (found.isPresent()) {
+                        matchedUser = found.get();
                     }
                 }
 
@@ -6,7 +6,6 @@ import amc.userSession;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.List;
 
 /**
  * This class provides a reusable profile editor as a popup panel
@@ -227,14 +226,16 @@ public final class ProfileUpdater extends JPanel {
 
             String currentUserId = userSession.getUserId();
             UserRepository userRepository = new UserRepository();
-            User user = loadByUserId(userRepository, currentUserId);
+            User loaded = loadByUserId(userRepository, currentUserId);
 
-            if (user == null) {
+            if (loaded == null) {
                 error("We could not find your user record in the data file.");
                 return;
             }
 
-            // Apply the edits from the form to the loaded user object.
+            // Apply the edits from the form to a copy of the loaded user object.
+            // The loaded one is shared with the repository's cache, so it must not change before the save.
+            User user = new User(loaded);
             user.setName(txtProfileName.getText().trim());
             user.setEmail(txtProfileEmail.getText().trim());
             user.setPhone(txtProfilePhone.getText().trim());
@@ -270,13 +271,7 @@ public final class ProfileUpdater extends JPanel {
 
     // This helper loads a user by id using an existing repository.
     private User loadByUserId(UserRepository repo, String userId) {
-        List<User> allUsers = repo.findAll();
-        for (User u : allUsers) {
-            if (u != null && u.getUserId() != null && u.getUserId().equalsIgnoreCase(userId)) {
-                return u;
-            }
-        }
-        return null;
+        return repo.findByID(userId).orElse(null);
     }
 
     // This helper closes the dialog or window that contains this panel.
@@ -7,10 +7,10 @@ import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Map;
 
 // Project-specific imports.
 import amc.dataModels.Appointment;
+import amc.helperUtils.IdNames;
 import amc.roleModules.Manager.managerUtil.AppointmentUtil; // For printAppointment
 
 /**
@@ -21,19 +21,19 @@ public class AppointmentDetailsDialog extends JDialog {
 
     // STEP 1: Declare fields to hold the appointment data and name mappings.
     private final Appointment appointmentToDisplay;
-    private final Map<String, String> doctorNameMap;
-    private final Map<String, String> patientNameMap;
+    private final IdNames doctorNameMap;
+    private final IdNames patientNameMap;
 
     /**
      * PURPOSE: The constructor for the AppointmentDetailsDialog.
      * INPUTS:
      *   owner: The parent window of this dialog.
      *   appointmentToDisplay: The Appointment object whose details are to be shown.
-     *   doctorNameMap: A map of doctor IDs to their full names.
-     *   patientNameMap: A map of patient IDs to their full names.
+     *   doctorNameMap: The doctors' full names by ID.
+     *   patientNameMap: The patients' full names by ID.
      * OUTPUT: A new instance of AppointmentDetailsDialog.
      */
-    public AppointmentDetailsDialog(Window owner, Appointment appointmentToDisplay, Map<String, String> doctorNameMap, Map<String, String> patientNameMap) {
+    public AppointmentDetailsDialog(Window owner, Appointment appointmentToDisplay, IdNames doctorNameMap, IdNames patientNameMap) {
         // STEP 1: Call the super constructor to set up the dialog's basic properties.
         super(owner, "Appointment Details", ModalityType.APPLICATION_MODAL);
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
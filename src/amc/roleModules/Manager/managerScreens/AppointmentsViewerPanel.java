@@ -19,12 +19,13 @@ import java.beans.PropertyChangeListener;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.List;
-import java.util.Map;
 import java.util.Vector;
 
 // Project-specific imports.
+import amc.dataAccess.AppointmentQuery;
 import amc.dataConstants.AppointmentStatusTypes;
 import amc.dataModels.Appointment;
+import amc.helperUtils.IdNames;
 import amc.roleModules.Manager.managerUtil.AppointmentUtil;
 import amc.userSession;
 
@@ -45,8 +46,8 @@ public class AppointmentsViewerPanel extends JPanel {
     private JButton viewPrintButton;
 
     // STEP 2: Declare maps to cache user IDs to names for efficient display.
-    private final Map<String, String> doctorIdToName;
-    private final Map<String, String> patientIdToName;
+    private final IdNames doctorIdToName;
+    private final IdNames patientIdToName;
 
     /**
      * PURPOSE: The main constructor for the panel.
@@ -148,7 +149,7 @@ public class AppointmentsViewerPanel extends JPanel {
         panel.add(toDateField);
 
         // STEP 5: Create the status filter dropdown.
-        String[] statuses = {"All", AppointmentStatusTypes.pending, AppointmentStatusTypes.confirmed, AppointmentStatusTypes.completed, AppointmentStatusTypes.cancelled};
+        String[] statuses = {"All", AppointmentStatusTypes.PENDING.name(), AppointmentStatusTypes.CONFIRMED.name(), AppointmentStatusTypes.COMPLETED.name(), AppointmentStatusTypes.CANCELLED.name()};
         statusFilterComboBox = new JComboBox<>(statuses);
         statusFilterComboBox.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         statusFilterComboBox.setBorder(BorderFactory.createTitledBorder("Status"));
@@ -158,7 +159,7 @@ public class AppointmentsViewerPanel extends JPanel {
         // STEP 6: Create the doctor filter dropdown.
         Vector<String> doctorNames = new Vector<>();
         doctorNames.add("All");
-        doctorIdToName.values().forEach(doctorNames::add);
+        doctorNames.addAll(doctorIdToName.sortedNames());
         doctorFilterComboBox = new JComboBox<>(doctorNames);
         doctorFilterComboBox.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         doctorFilterComboBox.setBorder(BorderFactory.createTitledBorder("Doctor"));
@@ -271,26 +272,18 @@ public class AppointmentsViewerPanel extends JPanel {
      * OUTPUT: None.
      */
     private void refreshTable() {
-        // STEP 1: Read all appointments from the data source.
-        List<Appointment> allAppointments = AppointmentUtil.readAppointments();
-
-        // STEP 2: Get the current values from all filter components.
+        // STEP 1: Get the current values from all filter components.
         String query = searchField.getText();
         String status = (String) statusFilterComboBox.getSelectedItem();
         String selectedDoctorName = (String) doctorFilterComboBox.getSelectedItem();
 
-        // STEP 3: Convert the selected doctor's name back to an ID for filtering.
+        // STEP 2: Convert the selected doctor's name back to an ID for filtering.
         String doctorId = null;
         if (selectedDoctorName != null && !selectedDoctorName.equalsIgnoreCase("All")) {
-            for (Map.Entry<String, String> entry : doctorIdToName.entrySet()) {
-                if (entry.getValue().equalsIgnoreCase(selectedDoctorName)) {
-                    doctorId = entry.getKey();
-                    break;
-                }
-            }
+            doctorId = doctorIdToName.idOf(selectedDoctorName);
         }
 
-        // STEP 4: Get the selected dates from the date choosers.
+        // STEP 3: Get the selected dates from the date choosers.
         LocalDate fromDate = null;
         if (fromDateField.getDate() != null) {
             fromDate = fromDateField.getDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
@@ -300,11 +293,18 @@ public class AppointmentsViewerPanel extends JPanel {
             toDate = toDateField.getDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
         }
 
-        // STEP 5: Get the filtered list of appointments from the utility class.
-        List<Appointment> filteredAppointments = AppointmentUtil.filterAppointments(
-                allAppointments, query, fromDate, toDate, status, doctorId);
+        // STEP 4: Build the query from the filters. "All" leaves a filter out.
+        // The query reads only the appointments of its most selective index and returns them in date order.
+        AppointmentQuery appointmentQuery = AppointmentQuery.create()
+                .matching(query)
+                .doctor(doctorId)
+                .between(fromDate, toDate);
+        if (status != null && !status.equalsIgnoreCase("All")) {
+            appointmentQuery.status(status);
+        }
+        List<Appointment> filteredAppointments = appointmentQuery.list();
 
-        // STEP 6: Clear the table and repopulate it with the filtered data.
+        // STEP 5: Clear the table and repopulate it with the filtered data.
         tableModel.setRowCount(0);
         for (Appointment app : filteredAppointments) {
             String patientName = patientIdToName.getOrDefault(app.getCustomerId(), "Unknown Patient");
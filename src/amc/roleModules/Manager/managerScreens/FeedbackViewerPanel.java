@@ -2,7 +2,10 @@
 package amc.roleModules.Manager.managerScreens;
 
 // Project-specific imports for data models, utilities, and the user session.
+import amc.appCore.LiveUpdates;
+import amc.dataAccess.RecordChange;
 import amc.dataModels.Feedback;
+import amc.helperUtils.IdNames;
 import amc.roleModules.Manager.managerUtil.FeedbackViewerUtil;
 import amc.userSession;
 
@@ -14,6 +17,8 @@ import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Vector;
@@ -40,6 +45,9 @@ public class FeedbackViewerPanel extends JPanel {
     // STEP 2: Declare the utility class that handles business logic.
     private final FeedbackViewerUtil util;
 
+    // STEP 3: Keep the feedback shown in the table, in row order, so saved changes can be patched in.
+    private List<Feedback> shownFeedback = new ArrayList<>();
+
     /**
      * PURPOSE: The main constructor for the panel.
      * INPUTS: None.
@@ -52,6 +60,8 @@ public class FeedbackViewerPanel extends JPanel {
         initializeUi();
         // STEP 3: Load the initial data into the table and statistics panels.
         refreshTable();
+        // STEP 4: Patch the table whenever feedback is saved while the panel is open.
+        LiveUpdates.bind(this, Feedback.class, this::applyChange);
     }
 
     /**
@@ -124,7 +134,7 @@ public class FeedbackViewerPanel extends JPanel {
         // STEP 3: Create the user filter dropdown, populating it with all unique user names.
         Vector<String> userNames = new Vector<>();
         userNames.add("All Users");
-        util.getUserIdToNameMap().values().stream().distinct().sorted().forEach(userNames::add);
+        userNames.addAll(util.getUserIdToNameMap().sortedNames());
         userFilterComboBox = new JComboBox<>(userNames);
         userFilterComboBox.setBorder(BorderFactory.createTitledBorder("Filter by User"));
         userFilterComboBox.addActionListener(event -> refreshTable());
@@ -226,22 +236,72 @@ public class FeedbackViewerPanel extends JPanel {
 
         // STEP 3: Clear the table and repopulate it with the new data.
         tableModel.setRowCount(0);
-        Map<String, String> userIdToNameMap = util.getUserIdToNameMap();
         for (Feedback feedback : filteredFeedback) {
-            tableModel.addRow(new Object[]{
-                feedback.getFeedbackId(),
-                userIdToNameMap.getOrDefault(feedback.getFromUserId(), "Unknown"),
-                userIdToNameMap.getOrDefault(feedback.getToUserId(), "Unknown"),
-                feedback.getRating(),
-                feedback.getComment(),
-                feedback.getTimestampIso() != null ? feedback.getTimestampIso().substring(0, 10) : "N/A"
-            });
+            tableModel.addRow(rowFor(feedback));
         }
+        shownFeedback = new ArrayList<>(filteredFeedback);
         
         // STEP 4: Update the statistics display based on the newly filtered list.
         updateStatistics(filteredFeedback);
     }
 
+    /**
+     * PURPOSE: To patch the table and statistics for one saved feedback entry, without reloading all feedback.
+     * INPUTS: The change published when the feedback was saved.
+     * OUTPUT: None.
+     */
+    private void applyChange(RecordChange<Feedback> change) {
+        // STEP 1: Remove the old row of this feedback, if it is shown.
+        int oldIndex = -1;
+        for (int index = 0; index < shownFeedback.size(); index++) {
+            if (shownFeedback.get(index).getFeedbackId().equals(change.getId())) {
+                oldIndex = index;
+                break;
+            }
+        }
+        if (oldIndex >= 0) {
+            shownFeedback.remove(oldIndex);
+            tableModel.removeRow(oldIndex);
+        }
+
+        // STEP 2: Insert the new version where the current sort puts it, if it passes the current filters.
+        Feedback feedback = change.getRecord();
+        String query = searchField.getText().toLowerCase();
+        String selectedUser = (String) userFilterComboBox.getSelectedItem();
+        if (!change.isDelete() && util.matchesFilter(feedback, query, selectedUser)) {
+            Comparator<Feedback> sortOrder = util.getSortOrder((String) ratingSortComboBox.getSelectedItem());
+            int position = oldIndex >= 0 ? oldIndex : shownFeedback.size();
+            if (sortOrder != null) {
+                position = 0;
+                while (position < shownFeedback.size() && sortOrder.compare(shownFeedback.get(position), feedback) <= 0) {
+                    position++;
+                }
+            }
+            shownFeedback.add(position, feedback);
+            tableModel.insertRow(position, rowFor(feedback));
+        }
+
+        // STEP 3: Recalculate the statistics from the rows on screen.
+        updateStatistics(shownFeedback);
+    }
+
+    /**
+     * PURPOSE: To build the table row of one feedback entry.
+     * INPUTS: The feedback to show.
+     * OUTPUT: The cell values in column order.
+     */
+    private Object[] rowFor(Feedback feedback) {
+        IdNames userIdToNameMap = util.getUserIdToNameMap();
+        return new Object[]{
+            feedback.getFeedbackId(),
+            userIdToNameMap.getOrDefault(feedback.getFromUserId(), "Unknown"),
+            userIdToNameMap.getOrDefault(feedback.getToUserId(), "Unknown"),
+            feedback.getRating(),
+            feedback.getComment(),
+            feedback.getTimestampIso() != null ? feedback.getTimestampIso().substring(0, 10) : "N/A"
+        };
+    }
+
     /**
      * PURPOSE: To update the text of the statistics labels based on a list of feedback.
      * INPUTS: The list of feedback to be analyzed.
@@ -2,6 +2,7 @@
 package amc.roleModules.Manager.managerScreens;
 
 // Project-specific imports for data models, constants, and utilities.
+import amc.appCore.PagedTableModel;
 import amc.dataModels.User;
 import amc.roleModules.Manager.managerUtil.ManageUsersUtil;
 import amc.dataConstants.RoleTypes;
@@ -31,6 +32,8 @@ public class ManageUsers extends JFrame {
     private JButton btnReturn;
     private JTable userTable;
     private DefaultTableModel tableModel;
+    private PagedTableModel pagedModel;
+    private static final String[] columnNames = {"User ID", "Name", "Email", "Phone", "Address", "Role"};
 
     // STEP 2: Declare the utility class that handles all business logic.
     private final ManageUsersUtil manageUsersUtil;
@@ -125,7 +128,6 @@ public class ManageUsers extends JFrame {
         actionPanel.add(btnDelete, gbc);
 
         // STEP 6: Create the user data table.
-        String[] columnNames = {"User ID", "Name", "Email", "Phone", "Address", "Role"};
         tableModel = new DefaultTableModel(columnNames, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -180,18 +182,27 @@ public class ManageUsers extends JFrame {
 
     /**
      * PURPOSE: To load or refresh the user data displayed in the main table.
-     * INPUTS: A list of users to display. If the list is null, all users will be fetched.
+     * INPUTS: A list of users to display. If the list is null, all users are shown a page at a time.
      * OUTPUT: None.
      */
     private void loadUsersTable(List<User> usersToLoad) {
-        // STEP 1: Clear any existing data from the table.
+        // STEP 1: With no list, show every user through the paged model, which reads only the rows on screen.
+        if (usersToLoad == null) {
+            if (pagedModel == null) {
+                pagedModel = new PagedTableModel(columnNames, manageUsersUtil::countUsers, manageUsersUtil::getUserRows);
+            } else {
+                pagedModel.refresh();
+            }
+            userTable.setModel(pagedModel);
+            return;
+        }
+
+        // STEP 2: Otherwise clear the list model and show it in the table.
         tableModel.setRowCount(0);
-        
-        // STEP 2: If no specific list is provided, get all users. Otherwise, use the provided list.
-        List<User> userList = (usersToLoad == null) ? manageUsersUtil.getAllUsers() : usersToLoad;
+        userTable.setModel(tableModel);
 
         // STEP 3: Iterate through the list of users and add each one as a row to the table.
-        for (User user : userList) {
+        for (User user : usersToLoad) {
             tableModel.addRow(new Object[]{
                     user.getUserId(),
                     user.getName(),
@@ -242,12 +253,14 @@ public class ManageUsers extends JFrame {
         }
 
         // STEP 3: Get the user ID from the selected row.
-        String userId = (String) tableModel.getValueAt(selectedRow, 0);
+        String userId = (String) userTable.getModel().getValueAt(selectedRow, 0);
         Optional<User> userOptional = manageUsersUtil.getUserById(userId);
 
         // STEP 4: If the user exists, show the dialog in "edit" mode.
         if (userOptional.isPresent()) {
-            User userToEdit = userOptional.get();
+            // Edit a copy: the dialog changes it even when the edit is cancelled or rejected,
+            // and the found record is shared with the repository's cache.
+            User userToEdit = new User(userOptional.get());
             if (showUserDialog(userToEdit, false)) {
                 // STEP 5: If the user clicked "OK", attempt to update the user.
                 Optional<String> error = manageUsersUtil.updateUser(userToEdit);
@@ -280,7 +293,7 @@ public class ManageUsers extends JFrame {
         }
 
         // STEP 3: Get the user ID and ask for confirmation before deleting.
-        String userId = (String) tableModel.getValueAt(selectedRow, 0);
+        String userId = (String) userTable.getModel().getValueAt(selectedRow, 0);
         int confirm = JOptionPane.showConfirmDialog(this,
                 "Are you sure you want to delete user '" + userId + "'?", "Confirm Deletion",
                 JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
@@ -308,10 +321,16 @@ public class ManageUsers extends JFrame {
         // STEP 1: Get the search query from the text field.
         String query = txtSearch.getText().trim();
         
-        // STEP 2: Get the search results from the utility class.
+        // STEP 2: An empty search shows every user again, a page at a time.
+        if (query.isEmpty()) {
+            loadUsersTable(null);
+            return;
+        }
+
+        // STEP 3: Get the search results from the utility class.
         List<User> searchResults = manageUsersUtil.searchUsers(query);
         
-        // STEP 3: Load the filtered results into the table.
+        // STEP 4: Load the filtered results into the table.
         loadUsersTable(searchResults);
     }
 
@@ -330,9 +349,9 @@ public class ManageUsers extends JFrame {
         JPasswordField passwordField = new JPasswordField(userToDisplay.getPassword());
         JPasswordField confirmPasswordField = new JPasswordField(userToDisplay.getPassword());
         JComboBox<String> roleComboBox = new JComboBox<>(new String[]{
-                RoleTypes.manager, RoleTypes.staff, RoleTypes.doctor, RoleTypes.customer
+                RoleTypes.MANAGER.name(), RoleTypes.STAFF.name(), RoleTypes.DOCTOR.name(), RoleTypes.CUSTOMER.name()
         });
-        roleComboBox.setSelectedItem(userToDisplay.getRole() != null ? userToDisplay.getRole() : RoleTypes.customer);
+        roleComboBox.setSelectedItem(userToDisplay.getRoleType() != null ? userToDisplay.getRoleType().name() : RoleTypes.CUSTOMER.name());
 
         // STEP 2: Create the panel and use GridBagLayout for a structured form layout.
         JPanel panel = new JPanel(new GridBagLayout());
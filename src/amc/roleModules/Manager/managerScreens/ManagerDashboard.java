@@ -3,6 +3,7 @@ package amc.roleModules.Manager.managerScreens;
 
 // Project-specific imports.
 import amc.dataConstants.AppointmentStatusTypes;
+import amc.dataConstants.RoleTypes;
 import amc.dataModels.Feedback;
 import amc.logicControllers.AppointmentController;
 import amc.logicControllers.FeedbackController;
@@ -21,7 +22,9 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * PURPOSE: To create the main graphical user interface (GUI) for managers. It serves as a
@@ -297,25 +300,25 @@ public class ManagerDashboard extends JFrame {
         statsPanel.setBackground(Color.WHITE);
 
         // STEP 2: Fetch the data required for the statistics from the controllers.
-        int staffCount = userController.listByRole("Staff").size() + userController.listByRole("Doctor").size();
+        int staffCount = userController.listByRoles(EnumSet.of(RoleTypes.STAFF, RoleTypes.DOCTOR)).size();
         int appointmentCount = appointmentController.listAll().size();
         List<Feedback> feedbackList = feedbackController.listAll();
         int feedbackCount = feedbackList.size();
         
         // STEP 3: Calculate the number of upcoming appointments.
+        Set<AppointmentStatusTypes> closedStatuses = EnumSet.of(AppointmentStatusTypes.COMPLETED, AppointmentStatusTypes.CANCELLED);
         long upcomingAppointments = appointmentController.listAll().stream()
                 .filter(appointment -> {
                     // An appointment is upcoming if it has a date and status.
-                    if (appointment.getDateTimeIso() == null || appointment.getStatus() == null) {
+                    if (appointment.getDateTimeIso() == null || appointment.getStatusType() == null) {
                         return false;
                     }
                     // It must not be completed or cancelled.
-                    boolean isCompleted = appointment.getStatus().equals(AppointmentStatusTypes.completed);
-                    boolean isCancelled = appointment.getStatus().equals(AppointmentStatusTypes.cancelled);
+                    boolean isClosed = closedStatuses.contains(appointment.getStatusType());
                     // Its date must be in the future.
                     boolean isFuture = LocalDateTime.parse(appointment.getDateTimeIso(), DateTimeFormatter.ISO_DATE_TIME).isAfter(LocalDateTime.now());
                     
-                    return !isCompleted && !isCancelled && isFuture;
+                    return !isClosed && isFuture;
                 })
                 .count();
 
@@ -15,6 +15,7 @@ import java.util.List;
 import java.util.Map;
 
 // Project-specific imports for data models and utility classes.
+import amc.dataAccess.StorageException;
 import amc.dataModels.Report;
 import amc.roleModules.Manager.managerUtil.ViewReportsUtil;
 
@@ -237,7 +238,12 @@ public class ViewReportsPanel extends JPanel {
         }
 
         // STEP 4: Tell the utility class to generate the report.
-        util.generateTodaysReport();
+        try {
+            util.generateTodaysReport();
+        } catch (StorageException ex) {
+            JOptionPane.showMessageDialog(this, "Today's report could not be saved. Please try again.\n" + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
         // STEP 5: Show a success message and refresh the list of reports.
         JOptionPane.showMessageDialog(this, "Successfully generated today's report.", "Success", JOptionPane.INFORMATION_MESSAGE);
         refreshReportList();
@@ -1,32 +1,21 @@
 // This file provides static utility methods for handling appointment-related data and logic.
 package amc.roleModules.Manager.managerUtil;
 
-// Third-party library for JSON processing.
-import com.google.gson.reflect.TypeToken;
-
 // Standard Java library imports.
-import java.lang.reflect.Type;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 // Project-specific imports.
 import amc.dataModels.Appointment;
 import amc.dataModels.User;
+import amc.dataAccess.AppointmentRepository;
 import amc.dataAccess.UserRepository;
-import amc.helperUtils.JsonStore;
-import amc.helperUtils.DataPaths;
 import amc.dataConstants.RoleTypes;
+import amc.helperUtils.IdNames;
 
 /**
  * PURPOSE: To provide a set of helper functions for managing appointment data.
- * This includes reading, filtering, and retrieving appointments, as well as
+ * This includes reading and retrieving appointments, as well as
  * loading related user data. This is a utility class and cannot be instantiated.
  */
 public class AppointmentUtil {
@@ -46,112 +35,22 @@ public class AppointmentUtil {
      * OUTPUT: A list of all appointments. Returns an empty list if reading fails or the file is empty.
      */
     public static List<Appointment> readAppointments() {
-        // STEP 1: Define the specific type for a list of Appointment objects for the JSON parser.
-        Type appointmentListType = new TypeToken<List<Appointment>>() {}.getType();
-        
-        // STEP 2: Read the list from the JSON file using the JsonStore helper.
-        List<Appointment> allAppointments = JsonStore.readList(DataPaths.appointmentDataPath, appointmentListType);
+        // STEP 1: Read the list through the repository, which knows whether the data is split by month.
+        List<Appointment> allAppointments = new AppointmentRepository().listAll();
         
-        // STEP 3: If the result is null (e.g., file not found), return a new empty list to prevent errors.
+        // STEP 2: If the result is null (e.g., file not found), return a new empty list to prevent errors.
         return allAppointments != null ? allAppointments : new ArrayList<>();
     }
 
-    /**
-     * PURPOSE: To filter a list of appointments based on multiple criteria like search text, date, status, and doctor.
-     * INPUTS: A list of all appointments, a search query, start and end dates, a status filter, and a doctor ID filter.
-     * OUTPUT: A new list of appointments that match all the given criteria, sorted by date.
-     */
-    public static List<Appointment> filterAppointments(
-            List<Appointment> allAppointments,
-            String searchQuery,
-            LocalDate startDate,
-            LocalDate endDate,
-            String statusFilter,
-            String doctorIdFilter) {
-
-        // STEP 1: Load maps of user IDs to names to make searching by name possible.
-        Map<String, String> doctorIdToNameMap = loadDoctorIdToName();
-        Map<String, String> patientIdToNameMap = loadPatientIdToName();
-
-        // STEP 2: Start filtering the list of all appointments.
-        List<Appointment> filteredAppointments = allAppointments.stream()
-            .filter(appointment -> {
-                // STEP 2A: Filter by the text search query.
-                if (searchQuery != null && !searchQuery.trim().isEmpty()) {
-                    String lowerCaseQuery = searchQuery.trim().toLowerCase();
-                    String patientName = patientIdToNameMap.getOrDefault(appointment.getCustomerId(), "").toLowerCase();
-                    String doctorName = doctorIdToNameMap.getOrDefault(appointment.getDoctorId(), "").toLowerCase();
-                    String appointmentId = appointment.getAppointmentId().toLowerCase();
-
-                    // The appointment is kept only if the query matches the patient, doctor, or ID.
-                    if (!patientName.contains(lowerCaseQuery) &&
-                        !doctorName.contains(lowerCaseQuery) &&
-                        !appointmentId.contains(lowerCaseQuery)) {
-                        return false; // Exclude if no match is found.
-                    }
-                }
-
-                // STEP 2B: Filter by the date range.
-                if (appointment.getDateTimeIso() != null) {
-                    LocalDateTime appointmentDateTime = LocalDateTime.parse(appointment.getDateTimeIso(), DateTimeFormatter.ISO_DATE_TIME);
-                    LocalDate appointmentDate = appointmentDateTime.toLocalDate();
-
-                    // Exclude if the appointment date is before the start date.
-                    if (startDate != null && appointmentDate.isBefore(startDate)) {
-                        return false;
-                    }
-                    // Exclude if the appointment date is after the end date.
-                    if (endDate != null && appointmentDate.isAfter(endDate)) {
-                        return false;
-                    }
-                } else {
-                    // If an appointment has no date, it cannot match a date filter.
-                    if (startDate != null || endDate != null) {
-                        return false;
-                    }
-                }
-
-                // STEP 2C: Filter by appointment status.
-                if (statusFilter != null && !statusFilter.trim().isEmpty() && !statusFilter.equalsIgnoreCase("All")) {
-                    if (appointment.getStatus() == null || !appointment.getStatus().equalsIgnoreCase(statusFilter)) {
-                        return false; // Exclude if status does not match.
-                    }
-                }
-
-                // STEP 2D: Filter by the selected doctor.
-                if (doctorIdFilter != null && !doctorIdFilter.trim().isEmpty() && !doctorIdFilter.equalsIgnoreCase("All")) {
-                    if (appointment.getDoctorId() == null || !appointment.getDoctorId().equalsIgnoreCase(doctorIdFilter)) {
-                        return false; // Exclude if doctor ID does not match.
-                    }
-                }
-
-                // STEP 2E: If the appointment passed all filters, keep it.
-                return true;
-            })
-            .collect(Collectors.toList());
-
-        // STEP 3: Sort the final filtered list by date and time, from earliest to latest.
-        Collections.sort(filteredAppointments, Comparator.comparing(
-            appointment -> LocalDateTime.parse(appointment.getDateTimeIso(), DateTimeFormatter.ISO_DATE_TIME)
-        ));
-
-        // STEP 4: Return the filtered and sorted list.
-        return filteredAppointments;
-    }
-
     /**
      * PURPOSE: To find and retrieve a single appointment by its unique ID.
      * INPUTS: The appointmentId string to search for.
      * OUTPUT: The matching Appointment object, or null if it's not found.
      */
     public static Appointment getAppointmentById(String appointmentId) {
-        // STEP 1: Get all appointments from the data source.
-        List<Appointment> allAppointments = readAppointments();
-        
-        // STEP 2: Search through the list to find the first appointment with a matching ID (ignoring case).
-        return allAppointments.stream()
-                .filter(appointment -> appointment.getAppointmentId().equalsIgnoreCase(appointmentId))
-                .findFirst()
+        // STEP 1: Ask the repository for the first appointment with a matching ID (ignoring case).
+        // It reads only that record's bytes when the file is not already loaded.
+        return new AppointmentRepository().findByID(appointmentId)
                 .orElse(null); // Return null if no match is found.
     }
 
@@ -182,36 +81,38 @@ public class AppointmentUtil {
     /**
      * PURPOSE: To load all users with the 'Doctor' role into a map of ID to name.
      * INPUTS: None.
-     * OUTPUT: A map where each key is a doctor's ID and the value is their name.
+     * OUTPUT: The doctors' names by ID.
      */
-    public static Map<String, String> loadDoctorIdToName() {
-        // STEP 1: Create a repository to access user data.
-        UserRepository userRepository = new UserRepository();
-        
-        // STEP 2: Get all users from the repository.
-        List<User> allUsers = userRepository.findAll();
-        
-        // STEP 3: Filter for users who are doctors and collect them into a map of ID to name.
-        return allUsers.stream()
-                .filter(user -> user.getRole().equalsIgnoreCase(RoleTypes.doctor))
-                .collect(Collectors.toMap(User::getUserId, User::getName));
+    public static IdNames loadDoctorIdToName() {
+        return loadIdToName(RoleTypes.DOCTOR);
     }
 
     /**
      * PURPOSE: To load all users with the 'Customer' role into a map of ID to name.
      * INPUTS: None.
-     * OUTPUT: A map where each key is a patient's ID and the value is their name.
+     * OUTPUT: The patients' names by ID.
      */
-    public static Map<String, String> loadPatientIdToName() {
+    public static IdNames loadPatientIdToName() {
+        return loadIdToName(RoleTypes.CUSTOMER);
+    }
+
+    /**
+     * PURPOSE: To load the users of one role into names by ID, kept in primitive arrays rather than a HashMap.
+     * INPUTS: role (the role of the users to load).
+     * OUTPUT: The users' names by ID.
+     */
+    private static IdNames loadIdToName(RoleTypes role) {
         // STEP 1: Create a repository to access user data.
         UserRepository userRepository = new UserRepository();
         
         // STEP 2: Get all users from the repository.
         List<User> allUsers = userRepository.findAll();
         
-        // STEP 3: Filter for users who are customers and collect them into a map of ID to name.
-        return allUsers.stream()
-                .filter(user -> user.getRole().equalsIgnoreCase(RoleTypes.customer))
-                .collect(Collectors.toMap(User::getUserId, User::getName));
+        // STEP 3: Keep the users with the role and add each one's ID and name.
+        IdNames idToName = new IdNames(allUsers.size());
+        for (User user : allUsers) {
+            if (user.getRoleType() == role) idToName.put(user.getUserId(), user.getName());
+        }
+        return idToName;
     }
 }
\ No newline at end of file
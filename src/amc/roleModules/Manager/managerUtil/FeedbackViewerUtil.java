@@ -6,6 +6,7 @@ import amc.dataModels.Feedback;
 import amc.dataModels.User;
 import amc.dataAccess.FeedbackRepository;
 import amc.dataAccess.UserRepository;
+import amc.helperUtils.IdNames;
 
 // Standard Java library imports for date/time, collections, and streams.
 import java.time.LocalDate;
@@ -26,7 +27,7 @@ public class FeedbackViewerUtil {
     // STEP 1: Declare repositories for database access and a map for user ID to name caching.
     private final FeedbackRepository feedbackRepository;
     private final UserRepository userRepository;
-    private Map<String, String> userIdToNameMap;
+    private IdNames userIdToNameMap;
 
     /**
      * PURPOSE: Initializes the utility by creating repository instances and loading the user map.
@@ -50,12 +51,12 @@ public class FeedbackViewerUtil {
      * OUTPUT: None. Populates the userIdToNameMap.
      */
     public void loadUserIdToNameMap() {
-        // STEP 1: Create a new HashMap to store the mapping of user IDs to user names.
-        userIdToNameMap = new HashMap<>();
-
-        // STEP 2: Retrieve the list of all users from the user repository.
+        // STEP 1: Retrieve the list of all users from the user repository.
         List<User> allUsers = userRepository.findAll();
 
+        // STEP 2: Create the table of user names by ID, kept in primitive arrays rather than a HashMap.
+        userIdToNameMap = new IdNames(allUsers.size());
+
         // STEP 3: Iterate through each user in the list.
         for (User currentUser : allUsers) {
             // STEP 4: Add an entry to the map with the user's ID as the key and their name as the value.
@@ -68,7 +69,7 @@ public class FeedbackViewerUtil {
      * INPUTS: None.
      * OUTPUT: The map containing user IDs and their corresponding names.
      */
-    public Map<String, String> getUserIdToNameMap() {
+    public IdNames getUserIdToNameMap() {
         // STEP 1: Return the map that links user IDs to their full names.
         return this.userIdToNameMap;
     }
@@ -84,29 +85,51 @@ public class FeedbackViewerUtil {
 
         // STEP 2: Filter the feedback list based on the search query and selected user.
         List<Feedback> filteredFeedbackList = allFeedbackEntries.stream()
-            // STEP 2A: Keep feedback if the query is empty or if it matches the comment or the user's name.
-            .filter(feedback -> searchQuery.isEmpty() ||
-                           feedback.getComment().toLowerCase().contains(searchQuery.toLowerCase()) ||
-                           userIdToNameMap.getOrDefault(feedback.getFromUserId(), "").toLowerCase().contains(searchQuery.toLowerCase()))
-            // STEP 2B: Keep feedback if "All Users" is selected or if the feedback is from the selected user.
-            .filter(feedback -> "All Users".equals(selectedUserName) ||
-                           selectedUserName.equals(userIdToNameMap.get(feedback.getFromUserId())))
-            // STEP 2C: Collect the results into a new list.
+            .filter(feedback -> matchesFilter(feedback, searchQuery, selectedUserName))
             .collect(Collectors.toList());
 
         // STEP 3: Sort the filtered list based on the chosen sort option.
-        if ("Rating: Ascending".equals(sortOption)) {
-            // STEP 3A: If the sort option is ascending by rating, sort it from lowest to highest.
-            filteredFeedbackList.sort(Comparator.comparingInt(Feedback::getRating));
-        } else if ("Rating: Descending".equals(sortOption)) {
-            // STEP 3B: If the sort option is descending by rating, sort it from highest to lowest.
-            filteredFeedbackList.sort(Comparator.comparingInt(Feedback::getRating).reversed());
+        Comparator<Feedback> sortOrder = getSortOrder(sortOption);
+        if (sortOrder != null) {
+            filteredFeedbackList.sort(sortOrder);
         }
 
         // STEP 4: Return the fully filtered and sorted list.
         return filteredFeedbackList;
     }
 
+    /**
+     * PURPOSE: To check one feedback entry against the search query and the selected user.
+     * INPUTS: feedback (the entry to check), searchQuery (text to search for), selectedUserName (the user to filter by).
+     * OUTPUT: True if the entry should be shown.
+     */
+    public boolean matchesFilter(Feedback feedback, String searchQuery, String selectedUserName) {
+        // STEP 1: Keep feedback if the query is empty or if it matches the comment or the user's name.
+        boolean matchesQuery = searchQuery.isEmpty() ||
+                feedback.getComment().toLowerCase().contains(searchQuery.toLowerCase()) ||
+                userIdToNameMap.getOrDefault(feedback.getFromUserId(), "").toLowerCase().contains(searchQuery.toLowerCase());
+        // STEP 2: Keep feedback if "All Users" is selected or if the feedback is from the selected user.
+        boolean matchesUser = "All Users".equals(selectedUserName) ||
+                selectedUserName.equals(userIdToNameMap.get(feedback.getFromUserId()));
+        return matchesQuery && matchesUser;
+    }
+
+    /**
+     * PURPOSE: To get the ordering for a sort option.
+     * INPUTS: sortOption (how to order results).
+     * OUTPUT: A comparator by rating, or null to keep the stored order.
+     */
+    public Comparator<Feedback> getSortOrder(String sortOption) {
+        if ("Rating: Ascending".equals(sortOption)) {
+            // STEP 1A: If the sort option is ascending by rating, sort it from lowest to highest.
+            return Comparator.comparingInt(Feedback::getRating);
+        } else if ("Rating: Descending".equals(sortOption)) {
+            // STEP 1B: If the sort option is descending by rating, sort it from highest to lowest.
+            return Comparator.comparingInt(Feedback::getRating).reversed();
+        }
+        return null;
+    }
+
     /**
      * PURPOSE: To calculate average feedback ratings for different time periods.
      * INPUTS: A list of feedback entries to analyze.
@@ -2,6 +2,7 @@
 package amc.roleModules.Manager.managerUtil;
 
 // Project-specific imports for data access, data models, constants, and helpers.
+import amc.dataAccess.RowView;
 import amc.dataAccess.UserRepository;
 import amc.dataModels.User;
 import amc.dataConstants.RoleTypes;
@@ -43,6 +44,29 @@ public class ManageUsersUtil {
         return userRepository.findAll();
     }
 
+    /**
+     * PURPOSE: To count all users, so a paged table knows how many rows it has.
+     * INPUTS: None.
+     * OUTPUT: The number of users in the system.
+     */
+    public int countUsers() {
+        // STEP 1: Ask the repository, which counts without reading every user where it can.
+        return userRepository.countAll();
+    }
+
+    /**
+     * PURPOSE: To read one page of users with only the columns the user table shows.
+     * INPUTS: The position of the first user and the most users to return.
+     * OUTPUT: One row per user: ID, name, email, phone, address, and role.
+     */
+    public List<Object[]> getUserRows(int offset, int limit) {
+        // STEP 1: Read only this page of users, cut down to the shown fields.
+        List<RowView> page = userRepository.listRows(offset, limit, "userId", "name", "email", "phone", "address", "role");
+
+        // STEP 2: Turn each row view into a table row in the same column order.
+        return page.stream().map(RowView::toArray).collect(Collectors.toList());
+    }
+
     /**
      * PURPOSE: To find a single user by their unique identifier.
      * INPUTS: The userId string of the user to find.
@@ -53,10 +77,8 @@ public class ManageUsersUtil {
         if (userId == null || userId.trim().isEmpty()) {
             return Optional.empty();
         }
-        // STEP 2: Search through all users to find one with a matching ID, ignoring case.
-        return userRepository.findAll().stream()
-                .filter(user -> user.getUserId() != null && user.getUserId().equalsIgnoreCase(userId.trim()))
-                .findFirst();
+        // STEP 2: Look up the user by ID, ignoring case, through the repository's id index.
+        return userRepository.findByID(userId.trim());
     }
 
     /**
@@ -72,7 +94,7 @@ public class ManageUsersUtil {
         }
 
         // STEP 2: Check if another user with the same email already exists to prevent duplicates.
-        if (userRepository.findAll().stream().anyMatch(existingUser -> existingUser.getEmail() != null && existingUser.getEmail().equalsIgnoreCase(user.getEmail()))) {
+        if (userRepository.isEmailTaken(user.getEmail(), null)) {
             return Optional.of("User with email '" + user.getEmail() + "' already exists.");
         }
 
@@ -109,9 +131,7 @@ public class ManageUsersUtil {
         }
 
         // STEP 3: Check if the new email is already being used by a *different* user.
-        if (userRepository.findAll().stream()
-                .filter(otherUser -> !otherUser.getUserId().equalsIgnoreCase(user.getUserId()))
-                .anyMatch(otherUser -> otherUser.getEmail() != null && otherUser.getEmail().equalsIgnoreCase(user.getEmail()))) {
+        if (userRepository.isEmailTaken(user.getEmail(), user.getUserId())) {
             return Optional.of("Another user with email '" + user.getEmail() + "' already exists.");
         }
 
@@ -16,7 +16,6 @@ import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * PURPOSE: Handles the business logic for generating and retrieving financial and operational reports.
@@ -51,10 +50,8 @@ public class ViewReportsUtil {
         DateTimeFormatter shortDateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
         String todayDateString = currentDate.format(shortDateFormatter);
 
-        // STEP 2: Filter all appointments to get only the ones that occurred today.
-        List<Appointment> appointmentsForToday = appointmentRepository.listAll().stream()
-            .filter(appointment -> appointment.getDateTimeIso() != null && appointment.getDateTimeIso().startsWith(todayDateString))
-            .collect(Collectors.toList());
+        // STEP 2: Get only the appointments dated today, so older months are never read.
+        List<Appointment> appointmentsForToday = appointmentRepository.listBetween(currentDate, currentDate);
 
         // STEP 3: Calculate the total number of appointments and the total revenue from them.
         int totalAppointments = appointmentsForToday.size();
@@ -102,20 +99,8 @@ public class ViewReportsUtil {
         LocalDate currentDate = LocalDate.now();
         LocalDate thirtyDaysAgoDate = currentDate.minusDays(30);
 
-        // STEP 2: Filter all appointments to get only those within the last 30 days.
-        List<Appointment> recentAppointments = appointmentRepository.listAll().stream()
-            .filter(appointment -> {
-                // STEP 2A: Skip appointments that have no timestamp.
-                if (appointment.getDateTimeIso() == null) return false;
-                // STEP 2B: Safely parse the appointment date and check if it's within the date range.
-                try {
-                    LocalDate appointmentDate = LocalDateTime.parse(appointment.getDateTimeIso(), DateTimeFormatter.ISO_DATE_TIME).toLocalDate();
-                    return !appointmentDate.isBefore(thirtyDaysAgoDate) && !appointmentDate.isAfter(currentDate);
-                } catch (Exception exception) {
-                    return false; // Ignore appointments with malformed dates.
-                }
-            })
-            .collect(Collectors.toList());
+        // STEP 2: Get only the appointments within the last 30 days. Appointments without a date are skipped.
+        List<Appointment> recentAppointments = appointmentRepository.listBetween(thirtyDaysAgoDate, currentDate);
 
         // STEP 3: Calculate the total count and revenue from the filtered appointments.
         long totalAppointments = recentAppointments.size();
@@ -164,10 +149,8 @@ public class ViewReportsUtil {
      * OUTPUT: The Report object if found, otherwise null.
      */
      public Report getReportById(String reportId) {
-        // STEP 1: Search all reports to find one with a matching ID.
-        return reportRepository.listAll().stream()
-            .filter(report -> report.getReportId().equals(reportId))
-            .findFirst()
+        // STEP 1: Look up the report through the repository's id index.
+        return reportRepository.findByID(reportId)
             .orElse(null); // Return null if no report with that ID is found.
     }
 }
\ No newline at end of file
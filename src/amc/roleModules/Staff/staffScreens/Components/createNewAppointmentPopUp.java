@@ -1,6 +1,7 @@
 package amc.roleModules.Staff.staffScreens.Components;
 
 import amc.dataAccess.UserRepository;
+import amc.dataAccess.StorageException;
 import amc.dataModels.User;
 import com.toedter.calendar.JDateChooser;
 import amc.dataConstants.RoleTypes;
@@ -44,7 +45,7 @@ public class createNewAppointmentPopUp extends JFrame {
         List<String> customersArray = new ArrayList<>();
 
         for (User u: allUsers) {
-            if (u.getRole().equals(RoleTypes.customer)) {
+            if (u.getRoleType() == RoleTypes.CUSTOMER) {
                 customersArray.add(u.getName());
             }
         }
@@ -59,7 +60,7 @@ public class createNewAppointmentPopUp extends JFrame {
         List<String> doctorsArray = new ArrayList<>();
 
         for (User u: allUsers) {
-            if (u.getRole().equals(RoleTypes.doctor)) {
+            if (u.getRoleType() == RoleTypes.DOCTOR) {
                 doctorsArray.add(u.getName());
             }
         }
@@ -145,6 +146,17 @@ public class createNewAppointmentPopUp extends JFrame {
         SimpleDateFormat sdfTime = new SimpleDateFormat("HH:mm");
         String isoDateTime = sdfDate.format(date) + "T" + sdfTime.format(time);
 
+        UserRepository repo = new UserRepository();
+        String customerId = String.valueOf(repo.findByName(customerName).get().getUserId());
+        String doctorId = String.valueOf(repo.findByName(doctorName).get().getUserId());
+
+        try {
+            createNewItem.createNewAppointment(customerId, doctorId, isoDateTime, note, AppointmentStatusTypes.CONFIRMED.name(), charge, userSession.getName());
+        } catch (StorageException ex) {
+            JOptionPane.showMessageDialog(this, "The appointment could not be saved. Please try again.\n" + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
         JOptionPane.showMessageDialog(this,
                 "Appointment Created:\nCustomer: " + customerName +
                         "\nDoctor: " + doctorName +
@@ -153,12 +165,6 @@ public class createNewAppointmentPopUp extends JFrame {
                         (note.isEmpty() ? "" : "\nNote: " + note),
                 "Success", JOptionPane.INFORMATION_MESSAGE
         );
-
-        UserRepository repo = new UserRepository();
-        String customerId = String.valueOf(repo.findByName(customerName).get().getUserId());
-        String doctorId = String.valueOf(repo.findByName(doctorName).get().getUserId());
-
-        createNewItem.createNewAppointment(customerId, doctorId, isoDateTime, note, AppointmentStatusTypes.confirmed, charge, userSession.getName());
         dispose();
     }
 
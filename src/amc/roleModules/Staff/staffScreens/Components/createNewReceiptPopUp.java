@@ -7,16 +7,17 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.UUID;
 
 import amc.roleModules.Staff.staffUtil.createNewItem;
-import amc.dataModels.Appointment;
 import amc.dataAccess.AppointmentRepository;
 
 public class createNewReceiptPopUp extends JFrame {
     private JTextField appointmentIdField, amountField;
     private JComboBox<String> paymentMethodCombo;
     private JButton submitButton;
+    // One key per open form, so a double click on the button saves the receipt once.
+    private final String receiptKey = UUID.randomUUID().toString();
 
     public createNewReceiptPopUp() {
         setTitle("Create Receipt");
@@ -88,28 +89,24 @@ public class createNewReceiptPopUp extends JFrame {
         LocalDateTime now = LocalDateTime.now();
         String isoDateTime = now.format(DateTimeFormatter.ISO_DATE_TIME);
 
-        JOptionPane.showMessageDialog(this,
-                "Receipt Created:\nAppointment ID: " + appointmentId +
-                        "\nAmount: " + amount +
-                        "\nPayment Method: " + paymentMethod +
-                        "\nDateTime: " + isoDateTime,
-                "Success", JOptionPane.INFORMATION_MESSAGE);
-
         // Checks if the appointment exists or not
         AppointmentRepository appRepo = new AppointmentRepository();
-        List<Appointment> allAppointment = appRepo.listAll();
-
-        boolean found = false;
-        for (Appointment a: allAppointment) {
-            if (a.getAppointmentId().equals(appointmentId)) {
-                found = true;
-            }
-        }
+        boolean found = appRepo.findByID(appointmentId).isPresent();
 
         if (!found) {
             JOptionPane.showMessageDialog(this, "This appointment does not exist!", "Validation Error", JOptionPane.ERROR_MESSAGE);
         } else {
-            createNewItem.createNewReceipt(appointmentId, amount, paymentMethod, isoDateTime);
+            // The form stays open on failure; submitting it again uses the same key, so it still saves one receipt.
+            if (createNewItem.createNewReceipt(appointmentId, amount, paymentMethod, isoDateTime, receiptKey) == null) {
+                JOptionPane.showMessageDialog(this, "The receipt could not be saved. Please try again.", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            JOptionPane.showMessageDialog(this,
+                    "Receipt Created:\nAppointment ID: " + appointmentId +
+                            "\nAmount: " + amount +
+                            "\nPayment Method: " + paymentMethod +
+                            "\nDateTime: " + isoDateTime,
+                    "Success", JOptionPane.INFORMATION_MESSAGE);
         }
 
         this.dispose();
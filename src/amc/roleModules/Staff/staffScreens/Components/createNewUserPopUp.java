@@ -7,6 +7,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 
 import amc.roleModules.Staff.staffUtil.createNewItem;
+import amc.dataAccess.StorageException;
 
 public class createNewUserPopUp extends JFrame{
 
@@ -96,8 +97,13 @@ public class createNewUserPopUp extends JFrame{
         }
 
         // If all good
+        try {
+            createNewItem.createNewUser(name, email, phone, address, password);
+        } catch (StorageException ex) {
+            JOptionPane.showMessageDialog(this, "The customer could not be saved. Please try again.\n" + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
         JOptionPane.showMessageDialog(this, "Customer record created successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-        createNewItem.createNewUser(name, email, phone, address, password);
         this.dispose(); // Closing the frame after user has been created!
     }
 
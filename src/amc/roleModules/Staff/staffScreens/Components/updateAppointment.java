@@ -2,6 +2,7 @@ package amc.roleModules.Staff.staffScreens.Components;
 
 
 import amc.dataAccess.AppointmentRepository;
+import amc.dataAccess.StorageException;
 import amc.dataAccess.UserRepository;
 import amc.dataConstants.RoleTypes;
 import amc.dataConstants.AppointmentStatusTypes;
@@ -68,7 +69,7 @@ public class updateAppointment extends JFrame {
         String currentCustomer = "";
 
         for (User u: allUsers) {
-            if (u.getRole().equals(RoleTypes.customer)) {
+            if (u.getRoleType() == RoleTypes.CUSTOMER) {
                 customersArray.add(u.getName());
             }
 
@@ -90,7 +91,7 @@ public class updateAppointment extends JFrame {
         String currentDoctor = "";
 
         for (User u: allUsers) {
-            if (u.getRole().equals(RoleTypes.doctor)) {
+            if (u.getRoleType() == RoleTypes.DOCTOR) {
                 doctorsArray.add(u.getName());
             }
 
@@ -114,7 +115,7 @@ public class updateAppointment extends JFrame {
 
         // Status
         mainPanel.add(new JLabel("Status:"));
-        String[] statusType = {AppointmentStatusTypes.confirmed, AppointmentStatusTypes.completed, AppointmentStatusTypes.cancelled, AppointmentStatusTypes.pending};
+        String[] statusType = {AppointmentStatusTypes.CONFIRMED.name(), AppointmentStatusTypes.COMPLETED.name(), AppointmentStatusTypes.CANCELLED.name(), AppointmentStatusTypes.PENDING.name()};
         statusDropdown = new JComboBox<>(statusType);
         statusDropdown.setSelectedItem(this.originalStatus); // pre-select current status
         mainPanel.add(statusDropdown);
@@ -223,7 +224,12 @@ public class updateAppointment extends JFrame {
         AppointmentRepository appRepo = new AppointmentRepository();
         Appointment newAppointment = new Appointment(appointmetnID, customerID, doctorID, isoDateTime, noteArea.getText().trim().toString(), statusDropdown.getSelectedItem().toString(), Double.parseDouble(chargeField.getText().trim().toString()), "X");
 
-        appRepo.saveOrUpdate(newAppointment);
+        try {
+            appRepo.saveOrUpdate(newAppointment);
+        } catch (StorageException ex) {
+            JOptionPane.showMessageDialog(this, "The appointment could not be saved. Please try again.\n" + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
         dispose();
     }
@@ -8,6 +8,7 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 
 import amc.dataAccess.UserRepository;
+import amc.dataAccess.StorageException;
 import amc.dataConstants.RoleTypes;
 import amc.dataModels.User;
 
@@ -103,8 +104,13 @@ public class updateOwnProfilePopUp extends JFrame {
 
         // Saving the changes in the file
         UserRepository userRepo = new UserRepository();
-        User newUser = new User(this.currentUser.getUserId(), RoleTypes.staff, newName, newEmail, newPhone, newAddress, newPassword);
-        userRepo.saveOrUpdate(newUser);
+        User newUser = new User(this.currentUser.getUserId(), RoleTypes.STAFF.name(), newName, newEmail, newPhone, newAddress, newPassword);
+        try {
+            userRepo.saveOrUpdate(newUser);
+        } catch (StorageException ex) {
+            JOptionPane.showMessageDialog(this, "Your profile could not be saved. Please try again.\n" + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
         dispose();
     }
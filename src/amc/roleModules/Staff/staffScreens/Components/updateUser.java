@@ -2,6 +2,7 @@ package amc.roleModules.Staff.staffScreens.Components;
 
 import amc.dataModels.User;
 import amc.dataAccess.UserRepository;
+import amc.dataAccess.StorageException;
 import amc.dataConstants.RoleTypes;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -124,11 +125,16 @@ public class updateUser extends JFrame {
             JOptionPane.showMessageDialog(this, "No changes detected.", "Info", JOptionPane.INFORMATION_MESSAGE);
         } else {
 
-            User newUser = new User(userID, RoleTypes.customer, nameField.getText().trim(), emailField.getText().trim(), phoneField.getText().trim(), addressField.getText().trim(), userPassword);
+            User newUser = new User(userID, RoleTypes.CUSTOMER.name(), nameField.getText().trim(), emailField.getText().trim(), phoneField.getText().trim(), addressField.getText().trim(), userPassword);
 
             JOptionPane.showMessageDialog(this, "Changes to apply:\n" + changes, "Updated Fields", JOptionPane.INFORMATION_MESSAGE);
             UserRepository repo = new UserRepository();
-            repo.saveOrUpdate(newUser);
+            try {
+                repo.saveOrUpdate(newUser);
+            } catch (StorageException ex) {
+                JOptionPane.showMessageDialog(this, "The customer could not be saved. Please try again.\n" + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
         }
 
         dispose();
@@ -148,7 +154,12 @@ public class updateUser extends JFrame {
             UserRepository userRepo = new UserRepository();
 
             // Deleting the user
-            userRepo.delete(user);
+            try {
+                userRepo.delete(user);
+            } catch (StorageException ex) {
+                JOptionPane.showMessageDialog(this, "The customer could not be deleted. Please try again.\n" + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
 
             dispose();
         }
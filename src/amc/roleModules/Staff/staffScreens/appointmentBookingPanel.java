@@ -4,14 +4,21 @@ import javax.swing.*;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
 import java.awt.*;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 //import com.google.gson.reflect....
 
+import amc.appCore.LiveUpdates;
+import amc.appCore.PagedTableModel;
 import amc.dataAccess.AppointmentRepository;
+import amc.dataAccess.RowView;
+import amc.helperUtils.RecordId;
+import amc.helperUtils.primitives.LongObjectMap;
 import amc.roleModules.Staff.staffScreens.Components.updateAppointment;
 import amc.roleModules.Staff.staffUtil.searchFunctionalities;
 import amc.dataAccess.UserRepository;
@@ -74,10 +81,9 @@ public class appointmentBookingPanel {
 
 
         // Creating a table that will display all the appointments
-
-        List<Appointment> appointmentsData = retrieveAppointments();
+        // Only the rows on screen are read, a page at a time, so opening it does not load every appointment
         // Putting it in a scrollpane to allow scrolling if there are too many for 1 screen to render
-        scrollPane = new JScrollPane(getAppointmentDataTable(columnNames, appointmentsData));
+        scrollPane = new JScrollPane(getAppointmentDataTable(appointmentPages()));
 
 
         // Handling change in the table as search is being carried out
@@ -101,7 +107,7 @@ public class appointmentBookingPanel {
 
             private void update() {
                 if (Objects.equals(searchItem.getText(), "")) {
-                    scrollPane.setViewportView(getAppointmentDataTable(columnNames, retrieveAppointments()));
+                    scrollPane.setViewportView(getAppointmentDataTable(appointmentPages()));
                 } else {
                     scrollPane.setViewportView(getAppointmentDataTable(columnNames, searchFunctionalities.searchAppointmetns(searchItem.getText())));
                 }
@@ -111,6 +117,17 @@ public class appointmentBookingPanel {
 
 
 
+        // Update the table when an appointment is saved anywhere in the program.
+        // The paged table reads the count and the rows on screen again; a search is run again so the results stay filtered.
+        LiveUpdates.bind(mainPanel, Appointment.class, change -> {
+            if (!Objects.equals(searchItem.getText(), "")) {
+                scrollPane.setViewportView(getAppointmentDataTable(columnNames, searchFunctionalities.searchAppointmetns(searchItem.getText())));
+                return;
+            }
+            JTable table = (JTable) scrollPane.getViewport().getView();
+            ((PagedTableModel) table.getModel()).refresh();
+        });
+
         // Adding Customer Panel cards
 
         appointmentsPanel.add(scrollPane);
@@ -128,21 +145,20 @@ public class appointmentBookingPanel {
         return mainPanel;
     }
 
-    // Function that will read and place all data in a table
+    // Function that will place a list of appointments, like search results, in a table
     private static  JTable getAppointmentDataTable(String[] columnNames, List<Appointment> appointmentsData) {
         DefaultTableModel model = new DefaultTableModel(columnNames, 0);
-        Optional<User> customerUser, doctorUser;
+        LongObjectMap<String> names = new LongObjectMap<>();
 
 
         for (Appointment a: appointmentsData) {
-            UserRepository userRepo = new UserRepository();
-            customerUser = userRepo.findByID(a.getCustomerId());
-            doctorUser = userRepo.findByID(a.getDoctorId());
-
-            Object[] rowData = {a.getAppointmentId(), customerUser.get().getName(), doctorUser.get().getName(), a.getDateTimeIso(), a.getStatus()};
-            model.addRow(rowData);
+            model.addRow(rowFor(a, names));
         }
 
+        return getAppointmentDataTable(model);
+    }
+
+    private static  JTable getAppointmentDataTable(TableModel model) {
         // Creating & customizing the data table
         JTable table = new JTable(model);
 
@@ -182,9 +198,32 @@ public class appointmentBookingPanel {
     }
 
 
-    private static List<Appointment>  retrieveAppointments() {
-        return new AppointmentRepository().listAll();
+    // One table row: id, customer name, doctor name, date and status.
+    private static Object[] rowFor(Appointment a, LongObjectMap<String> names) {
+        return new Object[]{a.getAppointmentId(), nameOf(a.getCustomerId(), names), nameOf(a.getDoctorId(), names), a.getDateTimeIso(), a.getStatus()};
+    }
+
+    // All appointments, read a page at a time with only the fields the table shows.
+    private static PagedTableModel appointmentPages() {
+        AppointmentRepository repo = new AppointmentRepository();
+        return new PagedTableModel(columnNames, repo::countAll, (offset, limit) -> {
+            List<Object[]> rows = new ArrayList<>();
+            LongObjectMap<String> names = new LongObjectMap<>();
+            for (RowView r : repo.listRows(offset, limit, "appointmentId", "customerId", "doctorId", "dateTimeIso", "status")) {
+                rows.add(new Object[]{r.get(0), nameOf(r.getString("customerId"), names), nameOf(r.getString("doctorId"), names), r.get(3), r.get(4)});
+            }
+            return rows;
+        });
+    }
+
+    // Names already looked up for this page or list, by packed user id, so each user is read once.
+    private static String nameOf(String userId, LongObjectMap<String> names) {
+        long key = RecordId.key(userId);
+        return key < 0 ? nameOf(userId) : names.computeIfAbsent(key, k -> nameOf(userId));
+    }
 
+    private static String nameOf(String userId) {
+        return new UserRepository().findByID(userId).map(User::getName).orElse("");
     }
 
 
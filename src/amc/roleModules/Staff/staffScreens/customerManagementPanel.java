@@ -4,12 +4,15 @@ import javax.swing.*;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
+import amc.appCore.PagedTableModel;
+import amc.dataAccess.RowView;
 import amc.dataAccess.UserRepository;
 import amc.dataConstants.RoleTypes;
 import amc.dataModels.User;
@@ -66,10 +69,9 @@ public class customerManagementPanel {
 
 
 
-        List<User> customerData = retrieveCustomers();
-
         // Wrapping the table in a scrollable view
-        scrollPane = new JScrollPane(getCustomersDataTable(columnNames, customerData));
+        // Only the rows on screen are read, a page at a time, so opening it does not load every customer
+        scrollPane = new JScrollPane(getCustomersDataTable(customerPages()));
 
         searchItem.getDocument().addDocumentListener(new DocumentListener() {
             @Override
@@ -91,7 +93,7 @@ public class customerManagementPanel {
 
             private void update() {
                 if (Objects.equals(searchItem.getText(), "")) {
-                    scrollPane.setViewportView(getCustomersDataTable(columnNames, retrieveCustomers()));
+                    scrollPane.setViewportView(getCustomersDataTable(customerPages()));
                 } else {
                     scrollPane.setViewportView(getCustomersDataTable(columnNames, searchFunctionalities.searchUser(searchItem.getText())));
                 }
@@ -122,6 +124,10 @@ public class customerManagementPanel {
             model.addRow(rowData);
         }
 
+        return getCustomersDataTable(model);
+    }
+
+    private static JTable getCustomersDataTable(TableModel model) {
         // Creating & Customizing the JTable
         JTable table = new JTable(model);
 
@@ -157,20 +163,18 @@ public class customerManagementPanel {
 
     }
 
-    // This function will let read all the data from the users' database
-    private static List<User> retrieveCustomers() {
+    // This function reads the customers from the users' database a page at a time, through the role index
+    private static PagedTableModel customerPages() {
 
         UserRepository repo = new UserRepository();
 
-        List<User> allCustomers = new ArrayList<>();
-
-        for (User u: repo.findAll()) {
-            if (u.getRole().equals(RoleTypes.customer)) {
-                allCustomers.add(u);
+        return new PagedTableModel(columnNames, () -> repo.countByRole(RoleTypes.CUSTOMER), (offset, limit) -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (RowView r : repo.listRowsByRole(RoleTypes.CUSTOMER, offset, limit, "userId", "name", "phone", "email", "address")) {
+                rows.add(r.toArray());
             }
-        }
-
-        return allCustomers;
+            return rows;
+        });
 
     }
 
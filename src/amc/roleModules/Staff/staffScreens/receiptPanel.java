@@ -4,14 +4,19 @@ import javax.swing.*;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
 
+import amc.appCore.LiveUpdates;
+import amc.appCore.PagedTableModel;
 import amc.dataAccess.AppointmentRepository;
 import amc.dataAccess.PaymentRepository;
+import amc.dataAccess.RowView;
 import amc.dataAccess.UserRepository;
 import amc.dataModels.Appointment;
 import amc.dataModels.Payment;
@@ -61,10 +66,9 @@ public class receiptPanel {
         receiptPanel.setLayout(new BoxLayout(receiptPanel, BoxLayout.Y_AXIS));
 
         // Making the table that will display all the previously generated receipts
+        // Only the rows on screen are read, a page at a time, so opening it does not load every payment
 
-        List<Payment> paymentData = retrievePayments();
-
-        scrollPane = new JScrollPane(getReceiptDataTable(columnNames, paymentData));
+        scrollPane = new JScrollPane(getReceiptDataTable(paymentPages()));
         searchItem.getDocument().addDocumentListener(new DocumentListener() {
             @Override
             public void insertUpdate(DocumentEvent e) {
@@ -85,13 +89,24 @@ public class receiptPanel {
 
             private void update() {
                 if (Objects.equals(searchItem.getText(), "")) {
-                    scrollPane.setViewportView(getReceiptDataTable(columnNames, retrievePayments()));
+                    scrollPane.setViewportView(getReceiptDataTable(paymentPages()));
                 } else {
                     scrollPane.setViewportView(getReceiptDataTable(columnNames, searchFunctionalities.searchPayment(searchItem.getText())));
                 }
 
             }
         });
+
+        // Update the table when a payment is saved anywhere in the program.
+        // The paged table reads the count and the rows on screen again; a search is run again so the results stay filtered.
+        LiveUpdates.bind(mainPanel, Payment.class, change -> {
+            if (!Objects.equals(searchItem.getText(), "")) {
+                scrollPane.setViewportView(getReceiptDataTable(columnNames, searchFunctionalities.searchPayment(searchItem.getText())));
+                return;
+            }
+            JTable table = (JTable) scrollPane.getViewport().getView();
+            ((PagedTableModel) table.getModel()).refresh();
+        });
         receiptPanel.add(scrollPane);
 
         searchPanel.add(searchLabel);
@@ -110,32 +125,15 @@ public class receiptPanel {
 
     private static  JTable getReceiptDataTable(String[] columnNames, List<Payment> paymentData) {
         DefaultTableModel model = new DefaultTableModel(columnNames, 0);
-        Optional<User> customerName;
-
-        Optional<Appointment> currentAppointment;
-        Optional<User> currentUser;
 
         for (Payment p: paymentData) {
-            // getting information about the current appointment and current user
-            AppointmentRepository repoAppointment = new AppointmentRepository();
-            currentAppointment = repoAppointment.findByID(p.getAppointmentId());
-            UserRepository repo = new UserRepository();
-            currentUser = repo.findByID(currentAppointment.get().getCustomerId());
-
-
-            Object[] rowData = {
-                    p.getPaymentId(),
-                    p.getAppointmentId(),
-                    currentAppointment.get().getCustomerId(),
-                    currentUser.get().getName(),
-                    p.getAmount(),
-                    p.getMethod(),
-                    p.getTimestampIso()
-            };
-
-            model.addRow(rowData);
+            model.addRow(rowFor(p));
         }
 
+        return getReceiptDataTable(model);
+    }
+
+    private static  JTable getReceiptDataTable(TableModel model) {
         JTable table = new JTable(model);
 
         table.setRowHeight(25);
@@ -152,7 +150,39 @@ public class receiptPanel {
     }
 
 
-    private static List<Payment> retrievePayments(){
-        return new PaymentRepository().listAll();
+    // One table row, with the customer looked up through the payment's appointment.
+    private static Object[] rowFor(Payment p) {
+        return rowFor(p.getPaymentId(), p.getAppointmentId(), p.getAmount(), p.getMethod(), p.getTimestampIso());
+    }
+
+    private static Object[] rowFor(Object paymentId, String appointmentId, Object amount, Object method, Object time) {
+        // getting information about the current appointment and current user
+        AppointmentRepository repoAppointment = new AppointmentRepository();
+        Optional<Appointment> currentAppointment = repoAppointment.findByID(appointmentId);
+        String customerId = currentAppointment.map(Appointment::getCustomerId).orElse("");
+        UserRepository repo = new UserRepository();
+        Optional<User> currentUser = repo.findByID(customerId);
+
+        return new Object[]{
+                paymentId,
+                appointmentId,
+                customerId,
+                currentUser.map(User::getName).orElse(""),
+                amount,
+                method,
+                time
+        };
+    }
+
+    // All payments, read a page at a time with only the fields the table shows.
+    private static PagedTableModel paymentPages() {
+        PaymentRepository repo = new PaymentRepository();
+        return new PagedTableModel(columnNames, repo::countAll, (offset, limit) -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (RowView r : repo.listRows(offset, limit, "paymentId", "appointmentId", "amount", "method", "timestampIso")) {
+                rows.add(rowFor(r.get(0), r.getString("appointmentId"), r.get(2), r.get(3), r.get(4)));
+            }
+            return rows;
+        });
     }
 }
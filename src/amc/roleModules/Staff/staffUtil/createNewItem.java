@@ -16,7 +16,7 @@ public class createNewItem {
     public static void createNewUser(String name, String email, String phone, String address, String password) {
 
         String newID = idGenerator.nextId("U");
-        User newUser = new User(newID, RoleTypes.customer, name, email, phone, address, password);
+        User newUser = new User(newID, RoleTypes.CUSTOMER.name(), name, email, phone, address, password);
 
         UserRepository repo = new UserRepository();
         repo.saveOrUpdate(newUser);
@@ -31,19 +31,30 @@ public class createNewItem {
         Appointment newAppointment = new Appointment(newID, customerID, doctorID, time, notes, status, charge, createdBy);
 
         AppointmentRepository repo = new AppointmentRepository();
-        // createNewItem.createNewAppointment(customerId, doctorId, isoDateTime, note, AppointmentStatusTypes.confirmed, charge, "X");
+        // createNewItem.createNewAppointment(customerId, doctorId, isoDateTime, note, AppointmentStatusTypes.CONFIRMED.name(), charge, "X");
         repo.saveOrUpdate(newAppointment);
 
     }
 
 
-    public static void createNewReceipt(String appointmentID, double amount, String paymentMethod, String time) {
-        String newID = idGenerator.nextId("P");
+    // Creating a new receipt. The receipt key comes from the form, so submitting it twice saves one payment.
+    // The payment id is given only when the receipt is really new.
+    // A paid appointment is completed, in the same commit as its receipt, so neither is saved without the other.
+    // Returns the saved receipt, or null if it could not be saved.
+    public static Payment createNewReceipt(String appointmentID, double amount, String paymentMethod, String time, String receiptKey) {
+        Payment newPayment = new Payment(null, appointmentID, amount, paymentMethod, time);
 
-        Payment newPayment = new Payment(newID, appointmentID, amount, paymentMethod, time);
+        UnitOfWork work = new UnitOfWork();
+        new AppointmentRepository().findByID(appointmentID).ifPresent(paid -> {
+            if (paid.getStatusType() == AppointmentStatusTypes.COMPLETED) return;
+            // A copy, so the cached appointment only changes once the commit is written.
+            Appointment completed = new Appointment(paid);
+            completed.setStatusType(AppointmentStatusTypes.COMPLETED);
+            work.save(completed);
+        });
 
         PaymentRepository repo = new PaymentRepository();
-        repo.saveOrUpdate(newPayment);
+        return repo.saveNew(newPayment, receiptKey, work);
 
     }
 }
@@ -1,35 +1,28 @@
 package amc.roleModules.Staff.staffUtil;
 
+import amc.dataAccess.AppointmentQuery;
 import amc.dataAccess.AppointmentRepository;
+import amc.dataAccess.PaymentRepository;
 import amc.dataAccess.UserRepository;
-import amc.helperUtils.DataPaths;
-import amc.helperUtils.JsonStore;
 import amc.logicControllers.*;
 
-import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import amc.dataModels.*;
-import com.google.gson.reflect.TypeToken;
 
 
 public class searchFunctionalities {
 
 
-    private static final Type listType = new TypeToken<List<Appointment>>(){}.getType();
-    private static final Type userListType = new TypeToken<List<User>>(){}.getType();
-    private static final Type paymentListType = new TypeToken<List<Payment>>(){}.getType();
-
-
     public Optional<User> customerSearch(String searchCriteria) {
         return new UserController().findById(searchCriteria);
     }
 
     public static List<Payment> searchPayment(String query) {
 
-        List<Payment> all = JsonStore.readList(DataPaths.paymentDataPath, paymentListType);
+        List<Payment> all = new PaymentRepository().listAll();
         List<Payment> result = new ArrayList<>();
 
         String search = query.trim().toLowerCase();
@@ -53,7 +46,7 @@ public class searchFunctionalities {
 
     public static List<User> searchUser(String query) {
 
-        List<User> all = JsonStore.readList(DataPaths.userDataPath, userListType);
+        List<User> all = new UserRepository().findAll();
         List<User> result = new ArrayList<>();
 
         String search = query.trim().toLowerCase();
@@ -68,29 +61,8 @@ public class searchFunctionalities {
     }
 
     public static List<Appointment> searchAppointmetns(String query) {
-        List<Appointment> all = JsonStore.readList(DataPaths.appointmentDataPath, listType);
-        List<Appointment> result = new ArrayList<>();
-
-        // normalize query (ignore case, trim spaces, etc.)
-        String search = query.trim().toLowerCase();
-
-        Optional<User> customerName;
-
-        for (Appointment a : all) {
-            UserRepository repo = new UserRepository();
-            customerName = repo.findByID(a.getCustomerId());
-
-            if ((customerName.get().getName() != null && customerName.get().getName().toLowerCase().contains(search)))
-            {
-                result.add(a);
-            }
-
-            if (a.getCustomerId().toLowerCase().contains(search)) {
-                result.add(a);
-            }
-        }
-
-        return result;
+        // Matches the customer's name or ID (and the appointment ID or doctor's name), ignoring case.
+        return AppointmentQuery.create().matching(query).list();
     }
 
 }
\ No newline at end of file
@@ -124,23 +124,10 @@ public class LoginScreen extends JFrame {
         // The search is case-insensitive as requested.
         LoginController.UserLookup userLookup = key -> {
             UserRepository repository = new UserRepository();
-            
-            // First, try to find a user by matching the email in a case-insensitive manner.
-            Optional<User> foundByEmail = repository.findAll().stream()
-                .filter(u -> u.getEmail() != null && u.getEmail().equalsIgnoreCase(key))
-                .findFirst();
-            
-            if (foundByEmail.isPresent()) {
-                return new SimpleUserRecord(foundByEmail.get());
-            }
-
-            // If no email matched, try to find a user by matching the user ID, case-insensitively.
-            Optional<User> foundById = repository.findAll().stream()
-                .filter(u -> u.getUserId() != null && u.getUserId().equalsIgnoreCase(key))
-                .findFirst();
 
-            // Return the record if found by ID, otherwise return null.
-            return foundById.map(SimpleUserRecord::new).orElse(null);
+            // Find the user by email first, then by user ID, both ignoring case.
+            // Return the record if found, otherwise return null.
+            return repository.findByLoginKey(key).map(SimpleUserRecord::new).orElse(null);
         };
 
         // This dependency tells the controller what to do after a successful login.
@@ -163,9 +150,7 @@ public class LoginScreen extends JFrame {
                 // If the user wasn't found by email (e.g., they logged in with a user ID),
                 // we then try to find them by their user ID.
                 if (matchedUser == null && record.getUsername() != null) {
-                    Optional<User> found = repository.findAll().stream()
-                        .filter(u -> u.getUserId().equalsIgnoreCase(record.getUsername()))
-                        .findFirst();
+                    Optional<User> found = repository.findByID(record.getUsername());
                     if (found.isPresent()) {
                         matchedUser = found.get();
                     }
@@ -0,0 +1,144 @@
+package amc.dataAccess;
+
+import amc.dataConstants.AppointmentStatusTypes;
+import amc.dataModels.Appointment;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/** Tests that AppointmentQuery reads only the smallest indexed condition and still checks every condition. */
+public class AppointmentQueryTest {
+
+    private RecordingStore store;
+
+    @Before
+    public void createStore() {
+        List<Appointment> appointments = new ArrayList<Appointment>();
+        // Doctor U002 has many appointments, customer U005 has two, and August 2025 has one.
+        for (int i = 1; i <= 20; i++) {
+            String day = String.format("2025-07-%02dT10:00", i);
+            appointments.add(new Appointment(String.format("A%03d", i), "U1" + String.format("%02d", i), "U002", day, "", "COMPLETED", 50, "U003"));
+        }
+        appointments.add(new Appointment("A021", "U005", "U002", "2025-07-21T10:00", "", "PENDING", 50, "U003"));
+        appointments.add(new Appointment("A022", "u005", "U004", "2025-08-02T09:00", "", "CONFIRMED", 50, "U003"));
+        appointments.add(new Appointment("A023", "U006", "U004", null, "", "CANCELLED", 50, "U003"));
+        store = new RecordingStore(appointments);
+    }
+
+    @Test
+    public void smallestIndexIsTheOnlyOneRead() {
+        List<Appointment> found = AppointmentQuery.create().doctor("U002").customer("u005").list(store);
+        assertEquals(Arrays.asList("findBy customerKey U005"), store.reads);
+        assertEquals(Arrays.asList("A021"), ids(found));
+    }
+
+    @Test
+    public void statusPlanCountsEveryStatusAskedFor() {
+        List<Appointment> found = AppointmentQuery.create().doctor("U002")
+                .status(AppointmentStatusTypes.PENDING, AppointmentStatusTypes.CONFIRMED).list(store);
+        assertEquals(Arrays.asList("findBy status PENDING", "findBy status CONFIRMED"), store.reads);
+        assertEquals(Arrays.asList("A021"), ids(found));
+    }
+
+    @Test
+    public void dateRangeIsReadWhenItIsSmallest() {
+        List<Appointment> found = AppointmentQuery.create().doctor("U004")
+                .between(LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 31)).list(store);
+        assertEquals(Arrays.asList("listBetween 2025-08-01 2025-08-31"), store.reads);
+        assertEquals(Arrays.asList("A022"), ids(found));
+    }
+
+    @Test
+    public void conditionWithNoMatchesReadsNothing() {
+        assertTrue(AppointmentQuery.create().doctor("U002").customer("U999").list(store).isEmpty());
+        assertTrue(AppointmentQuery.create().status("NOT A STATUS").list(store).isEmpty());
+        assertTrue(store.reads.isEmpty());
+    }
+
+    @Test
+    public void noIndexedConditionReadsEverything() {
+        List<Appointment> found = AppointmentQuery.create().customer(" ")
+                .sortBy(AppointmentQuery.Sort.NEWEST_FIRST).limit(2).list(store);
+        assertEquals(Arrays.asList("readAll"), store.reads);
+        assertEquals(Arrays.asList("A022", "A021"), ids(found));
+    }
+
+    private static List<String> ids(List<Appointment> appointments) {
+        return appointments.stream().map(Appointment::getAppointmentId).collect(Collectors.toList());
+    }
+
+    // An in-memory store that notes every read that fetches records; counts are not noted.
+    private static final class RecordingStore implements RecordStore<Appointment> {
+
+        private final List<Appointment> appointments;
+        private final List<String> reads = new ArrayList<String>();
+
+        RecordingStore(List<Appointment> appointments) {
+            this.appointments = appointments;
+        }
+
+        @Override
+        public List<Appointment> readAll() {
+            reads.add("readAll");
+            return new ArrayList<Appointment>(appointments);
+        }
+
+        @Override
+        public List<Appointment> findBy(String indexName, String key) {
+            reads.add("findBy " + indexName + " " + key);
+            return withKey(indexName, key);
+        }
+
+        @Override
+        public int countBy(String indexName, String key) {
+            return withKey(indexName, key).size();
+        }
+
+        @Override
+        public List<Appointment> listBetween(LocalDate from, LocalDate to) {
+            reads.add("listBetween " + from + " " + to);
+            return between(from, to);
+        }
+
+        @Override
+        public int countBetween(LocalDate from, LocalDate to) {
+            return between(from, to).size();
+        }
+
+        private List<Appointment> withKey(String indexName, String key) {
+            Function<Appointment, String> keyOf = AppointmentRepository.entity.getIndexes().get(indexName);
+            return appointments.stream().filter(a -> key.equals(keyOf.apply(a))).collect(Collectors.toList());
+        }
+
+        private List<Appointment> between(LocalDate from, LocalDate to) {
+            return appointments.stream().filter(a -> TimeIndex.isDated(a.getDateTimeIso())
+                    && (from == null || a.getDateTimeIso().compareTo(from.toString()) >= 0)
+                    && (to == null || a.getDateTimeIso().compareTo(to.plusDays(1).toString()) < 0))
+                    .collect(Collectors.toList());
+        }
+
+        @Override public Optional<Appointment> findById(String id) { throw new UnsupportedOperationException(); }
+        @Override public List<Appointment> filter(Predicate<? super Appointment> filter) { throw new UnsupportedOperationException(); }
+        @Override public List<Appointment> listInTimeOrder() { throw new UnsupportedOperationException(); }
+        @Override public int count() { return appointments.size(); }
+        @Override public List<RowView> readRows(int offset, int limit, List<String> fields) { throw new UnsupportedOperationException(); }
+        @Override public List<RowView> readRowsBy(String indexName, String key, int offset, int limit, List<String> fields) { throw new UnsupportedOperationException(); }
+        @Override public void upsert(Appointment record) { throw new UnsupportedOperationException(); }
+        @Override public void add(Appointment record) { throw new UnsupportedOperationException(); }
+        @Override public void delete(String id) { throw new UnsupportedOperationException(); }
+        @Override public boolean applyBatch(List<Appointment> saves, List<String> deleteIds) { throw new UnsupportedOperationException(); }
+        @Override public int removeDuplicates() { throw new UnsupportedOperationException(); }
+        @Override public boolean addAll(List<Appointment> records) { throw new UnsupportedOperationException(); }
+    }
+}
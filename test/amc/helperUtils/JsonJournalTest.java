@@ -0,0 +1,95 @@
+package amc.helperUtils;
+
+import amc.dataModels.Appointment;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/** Tests that a journal replays in order and survives a crash during an append. */
+public class JsonJournalTest {
+
+    private File folder;
+    private String journalPath;
+
+    @Before
+    public void createFolder() throws IOException {
+        folder = Files.createTempDirectory("journal").toFile();
+        journalPath = new File(folder, "appointmentData.journal").getPath();
+    }
+
+    @After
+    public void deleteFolder() {
+        File[] files = folder.listFiles();
+        if (files != null) for (File file : files) file.delete();
+        folder.delete();
+    }
+
+    @Test
+    public void missingJournalReplaysNothing() {
+        assertTrue(JsonJournal.readEntries(journalPath, Appointment.class).isEmpty());
+    }
+
+    @Test
+    public void changesReplayInOrder() {
+        assertTrue(JsonJournal.appendUpsert(journalPath, "A001", appointment("A001", "first")));
+        assertTrue(JsonJournal.appendBatch(journalPath, Arrays.asList(
+                JsonJournal.Entry.upsert("A002", appointment("A002", "second")),
+                JsonJournal.Entry.<Appointment>delete("A001"))));
+
+        List<JsonJournal.Entry<Appointment>> entries = JsonJournal.readEntries(journalPath, Appointment.class);
+        assertEquals(3, entries.size());
+        assertEquals("first", entries.get(0).getRecord().getNotes());
+        assertEquals("A002", entries.get(1).getId());
+        assertFalse(entries.get(1).isDelete());
+        assertTrue(entries.get(2).isDelete());
+        assertEquals("A001", entries.get(2).getId());
+        assertNull(entries.get(2).getRecord());
+    }
+
+    @Test
+    public void tornLastLineIsSkippedOnReplay() throws IOException {
+        JsonJournal.appendUpsert(journalPath, "A001", appointment("A001", "kept"));
+        tearAnAppend();
+
+        List<JsonJournal.Entry<Appointment>> entries = JsonJournal.readEntries(journalPath, Appointment.class);
+        assertEquals(1, entries.size());
+        assertEquals("kept", entries.get(0).getRecord().getNotes());
+    }
+
+    @Test
+    public void nextAppendCutsTheTornLineOff() throws IOException {
+        JsonJournal.appendUpsert(journalPath, "A001", appointment("A001", "kept"));
+        tearAnAppend();
+        assertTrue(JsonJournal.appendDelete(journalPath, "A001"));
+
+        // The delete would be lost with the torn line if it had been written after it.
+        List<JsonJournal.Entry<Appointment>> entries = JsonJournal.readEntries(journalPath, Appointment.class);
+        assertEquals(2, entries.size());
+        assertTrue(entries.get(1).isDelete());
+        List<String> lines = Files.readAllLines(new File(journalPath).toPath(), StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+    }
+
+    // The start of a line with no newline, as a crash partway through an append leaves it.
+    private void tearAnAppend() throws IOException {
+        Files.write(new File(journalPath).toPath(), "{\"op\":\"upsert\",\"id\":\"A0".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+    }
+
+    private static Appointment appointment(String id, String notes) {
+        return new Appointment(id, "U005", "U002", "2025-08-28T10:00", notes, "PENDING", 50, "U003");
+    }
+}
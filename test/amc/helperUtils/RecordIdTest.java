@@ -0,0 +1,84 @@
+package amc.helperUtils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/** Tests which id texts RecordId reads, and that packed keys are given only to the exact written form. */
+public class RecordIdTest {
+
+    @Test
+    public void parseReadsThePrefixAndNumber() {
+        RecordId id = RecordId.parse("U001");
+        assertEquals("U", id.getPrefix());
+        assertEquals(1, id.getNumber());
+        assertEquals("A1000", RecordId.parse("A1000").toString());
+    }
+
+    @Test
+    public void parseIgnoresCaseAndSurroundingSpaces() {
+        assertEquals(RecordId.of("U", 200), RecordId.parse(" u200 "));
+        assertEquals(RecordId.of("u", 200).hashCode(), RecordId.parse("U200").hashCode());
+    }
+
+    @Test
+    public void parseRejectsTextThatIsNotAWrittenId() {
+        assertNull(RecordId.parse(null));
+        assertNull(RecordId.parse(""));
+        assertNull(RecordId.parse("U"));
+        assertNull(RecordId.parse("200"));
+        assertNull(RecordId.parse("U-200"));
+        assertNull(RecordId.parse("U2O0"));
+        // Too few digits, or a leading zero past 3 digits, is not how format writes the number.
+        assertNull(RecordId.parse("U20"));
+        assertNull(RecordId.parse("U0200"));
+        assertNull(RecordId.parse("U99999999999999999999"));
+    }
+
+    @Test
+    public void numbersCompareAsNumbers() {
+        assertTrue(RecordId.parse("A999").compareTo(RecordId.parse("A1000")) < 0);
+        assertTrue(RecordId.parse("A1000").compareTo(RecordId.parse("B001")) < 0);
+    }
+
+    @Test
+    public void formatPadsToThreeDigits() {
+        assertEquals("F001", RecordId.format("F", 1));
+        assertEquals("F100", RecordId.format("F", 100));
+        assertEquals("F1000", RecordId.format("F", 1000));
+    }
+
+    @Test
+    public void keyRoundTripsTheWrittenForm() {
+        for (String text : new String[] {"A001", "U200", "ABC999", "Z1000", "P281474976710655"}) {
+            long key = RecordId.key(text);
+            assertTrue(text, key >= 0);
+            assertEquals(text, RecordId.fromKey(key).toString());
+        }
+        assertEquals(RecordId.key("U200"), RecordId.parse("u200").key());
+    }
+
+    @Test
+    public void keyRejectsEveryOtherForm() {
+        assertEquals(-1, RecordId.key(null));
+        assertEquals(-1, RecordId.key("u200"));
+        assertEquals(-1, RecordId.key(" U200"));
+        assertEquals(-1, RecordId.key("U200 "));
+        assertEquals(-1, RecordId.key("U0200"));
+        assertEquals(-1, RecordId.key("U20"));
+        assertEquals(-1, RecordId.key("ABCD001"));
+        // 2^48 does not fit in the number bits.
+        assertEquals(-1, RecordId.key("P281474976710656"));
+        assertNull(RecordId.fromKey(-1));
+    }
+
+    @Test
+    public void differentIdsGetDifferentKeys() {
+        assertNotEquals(RecordId.key("A001"), RecordId.key("AA001"));
+        assertNotEquals(RecordId.key("A001"), RecordId.key("B001"));
+        assertNotEquals(RecordId.key("A001"), RecordId.key("A1000"));
+    }
+}
@@ -0,0 +1,112 @@
+package amc.helperUtils;
+
+import amc.dataModels.Appointment;
+import com.google.gson.reflect.TypeToken;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/** Tests the record bounds and keys that RecordOffsetReader finds in one scan of a file. */
+public class RecordOffsetReaderTest {
+
+    private static final Type listType = new TypeToken<List<Appointment>>(){}.getType();
+
+    private File folder;
+
+    @Before
+    public void createFolder() throws IOException {
+        folder = Files.createTempDirectory("offsets").toFile();
+    }
+
+    @After
+    public void deleteFolder() {
+        File[] files = folder.listFiles();
+        if (files != null) for (File file : files) file.delete();
+        folder.delete();
+    }
+
+    @Test
+    public void findsEveryRecordByItsKey() throws IOException {
+        String path = write("plain.json", "[\n  {\"appointmentId\": \"A001\", \"notes\": \"x\"},\n  {\"appointmentId\": \"A002\"}\n]");
+        RecordOffsetReader reader = RecordOffsetReader.open(path, "appointmentId");
+        assertEquals(2, reader.recordCount());
+        assertEquals(0, reader.indexOfKey("A001"));
+        assertEquals(1, reader.indexOfKey("a002"));
+        assertEquals(-1, reader.indexOfKey("A003"));
+        assertEquals("A002", reader.read(1, Appointment.class).getAppointmentId());
+    }
+
+    @Test
+    public void escapedQuotesAndBracketsInsideStringsDoNotEndARecord() throws IOException {
+        String json = "[{\"notes\": \"say \\\"hi\\\" } ] , {\", \"appointmentId\": \"A001\"},"
+                + " {\"notes\": \"ends in a backslash \\\\\", \"appointmentId\": \"A002\"}]";
+        String path = write("escapes.json", json);
+        RecordOffsetReader reader = RecordOffsetReader.open(path, "appointmentId");
+        assertEquals(2, reader.recordCount());
+        assertEquals(0, reader.indexOfKey("A001"));
+        assertEquals(1, reader.indexOfKey("A002"));
+        assertEquals("say \"hi\" } ] , {", reader.read(0, Appointment.class).getNotes());
+        assertEquals("ends in a backslash \\", reader.read(1, Appointment.class).getNotes());
+    }
+
+    @Test
+    public void nestedArraysAndObjectsStayInsideTheirRecord() throws IOException {
+        String second = "{\"appointmentId\": \"A002\"}";
+        String json = "[{\"appointmentId\": \"A001\", \"tags\": [[1, 2], [{\"appointmentId\": \"X999\"}]],"
+                + " \"extra\": {\"list\": []}}, " + second + "]";
+        String path = write("nested.json", json);
+        RecordOffsetReader reader = RecordOffsetReader.open(path, "appointmentId");
+        assertEquals(2, reader.recordCount());
+        // Only top-level fields are keys.
+        assertEquals(-1, reader.indexOfKey("X999"));
+        assertEquals(1, reader.indexOfKey("A002"));
+        assertEquals(second, json.substring((int) reader.offsetOf(1), (int) reader.offsetOf(1) + reader.lengthOf(1)));
+    }
+
+    @Test
+    public void keyAfterANestedValueIsFound() throws IOException {
+        String path = write("keyLast.json", "[{\"tags\": [\"a\", {\"b\": [\"c\"]}], \"appointmentId\": \"A005\"}]");
+        assertEquals(0, RecordOffsetReader.open(path, "appointmentId").indexOfKey("A005"));
+    }
+
+    @Test
+    public void repeatedKeysAreCountedAndTheFirstIsFound() throws IOException {
+        String path = write("repeats.json", "[{\"appointmentId\": \"A001\", \"notes\": \"first\"},"
+                + " {\"appointmentId\": \"a001\", \"notes\": \"second\"}, {\"notes\": \"no key\"}]");
+        RecordOffsetReader reader = RecordOffsetReader.open(path, "appointmentId");
+        assertEquals(3, reader.recordCount());
+        assertEquals(1, reader.duplicateKeyCount());
+        assertEquals("first", reader.read(reader.indexOfKey("A001"), Appointment.class).getNotes());
+    }
+
+    @Test
+    public void gzippedFileIsLeftToTheFullRead() throws IOException {
+        File file = new File(folder, "gzipped.json");
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(file))) {
+            out.write("[{\"appointmentId\": \"A001\"}]".getBytes(StandardCharsets.UTF_8));
+        }
+        assertNull(RecordOffsetReader.open(file.getPath(), "appointmentId"));
+        List<Appointment> records = JsonStore.readList(file.getPath(), listType);
+        assertEquals(1, records.size());
+        assertEquals("A001", records.get(0).getAppointmentId());
+    }
+
+    private String write(String name, String json) throws IOException {
+        File file = new File(folder, name);
+        Files.write(file.toPath(), json.getBytes(StandardCharsets.UTF_8));
+        return file.getPath();
+    }
+}
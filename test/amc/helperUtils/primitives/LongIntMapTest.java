@@ -0,0 +1,71 @@
+package amc.helperUtils.primitives;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/** Tests LongIntMap, including the zero key kept apart and growth past the first capacity. */
+public class LongIntMapTest {
+
+    @Test
+    public void missingKeyReadsAsMinusOneOrTheDefault() {
+        LongIntMap map = new LongIntMap();
+        assertEquals(-1, map.get(7));
+        assertEquals(42, map.getOrDefault(7, 42));
+        assertFalse(map.containsKey(7));
+    }
+
+    @Test
+    public void putReturnsTheReplacedValue() {
+        LongIntMap map = new LongIntMap();
+        assertEquals(-1, map.put(7, 1));
+        assertEquals(1, map.put(7, 2));
+        assertEquals(2, map.get(7));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void zeroAndNegativeKeysAreStored() {
+        LongIntMap map = new LongIntMap();
+        assertEquals(-1, map.put(0, 5));
+        map.put(-1, 6);
+        map.put(Long.MIN_VALUE, 7);
+        assertTrue(map.containsKey(0));
+        assertEquals(5, map.put(0, 8));
+        assertEquals(8, map.get(0));
+        assertEquals(6, map.get(-1));
+        assertEquals(7, map.get(Long.MIN_VALUE));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    public void keysStayFoundAfterGrowing() {
+        LongIntMap map = new LongIntMap(4);
+        for (int i = 1; i <= 10_000; i++) {
+            map.put(i, i * 2);
+            // Keys that differ only in their high bits, like packed id prefixes.
+            map.put((long) i << 48, -i);
+        }
+        assertEquals(20_000, map.size());
+        for (int i = 1; i <= 10_000; i++) {
+            assertEquals(i * 2, map.get(i));
+            assertEquals(-i, map.getOrDefault((long) i << 48, 0));
+        }
+        assertFalse(map.containsKey(10_001));
+    }
+
+    @Test
+    public void clearEmptiesTheMap() {
+        LongIntMap map = new LongIntMap();
+        map.put(0, 1);
+        map.put(3, 4);
+        map.clear();
+        assertEquals(0, map.size());
+        assertFalse(map.containsKey(0));
+        assertFalse(map.containsKey(3));
+        map.put(3, 5);
+        assertEquals(5, map.get(3));
+    }
+}
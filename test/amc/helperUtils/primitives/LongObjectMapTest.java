@@ -0,0 +1,77 @@
+package amc.helperUtils.primitives;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/** Tests LongObjectMap, including computeIfAbsent, forEach and growth past the first capacity. */
+public class LongObjectMapTest {
+
+    @Test
+    public void putReturnsTheReplacedValue() {
+        LongObjectMap<String> map = new LongObjectMap<String>();
+        assertNull(map.put(7, "a"));
+        assertEquals("a", map.put(7, "b"));
+        assertEquals("b", map.get(7));
+        assertEquals("c", map.getOrDefault(8, "c"));
+        assertEquals(1, map.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullValuesAreRejected() {
+        new LongObjectMap<String>().put(1, null);
+    }
+
+    @Test
+    public void zeroKeyIsStored() {
+        LongObjectMap<String> map = new LongObjectMap<String>();
+        assertFalse(map.containsKey(0));
+        map.put(0, "zero");
+        assertTrue(map.containsKey(0));
+        assertEquals("zero", map.put(0, "again"));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void computeIfAbsentComputesOnceAndSkipsNull() {
+        LongObjectMap<String> map = new LongObjectMap<String>();
+        String first = map.computeIfAbsent(5, key -> "v" + key);
+        assertSame(first, map.computeIfAbsent(5, key -> "other"));
+        assertNull(map.computeIfAbsent(6, key -> null));
+        assertFalse(map.containsKey(6));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void forEachVisitsEveryEntryAfterGrowing() {
+        LongObjectMap<Long> map = new LongObjectMap<Long>(2);
+        Map<Long, Long> expected = new HashMap<Long, Long>();
+        for (long i = 0; i < 5_000; i++) {
+            long key = i % 2 == 0 ? i : -(i << 40);
+            map.put(key, i);
+            expected.put(key, i);
+        }
+        Map<Long, Long> visited = new HashMap<Long, Long>();
+        map.forEach((key, value) -> assertNull(visited.put(key, value)));
+        assertEquals(expected, visited);
+        assertEquals(expected.size(), map.size());
+    }
+
+    @Test
+    public void clearEmptiesTheMap() {
+        LongObjectMap<String> map = new LongObjectMap<String>();
+        map.put(0, "a");
+        map.put(9, "b");
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(0));
+        assertNull(map.get(9));
+    }
+}